@@ -0,0 +1,69 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// What the gateway does with a server response body of a bookings page: parse it into Object and write it
+// again (the former RestTemplate path) or copy the bytes through. Run with -prof gc to compare allocations
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayPassThroughBenchmark {
+    @Param({"10", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+
+    private byte[] serverResponse;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        User owner = new User(1L, "owner@email.com", "owner", 0);
+        User booker = new User(2L, "booker@email.com", "booker", 0);
+        LocalDateTime start = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            Item item = new Item(id, owner, "item" + id, "description" + id, true, null, 0);
+            bookings.add(new Booking(id, item, booker, start.plusDays(id), start.plusDays(id + 1),
+                    BookingStatus.APPROVED, 0));
+        }
+        serverResponse = objectMapper.writeValueAsBytes(BookingMapper.toBookingInfoDtoList(bookings));
+    }
+
+    // Both write to a discarding stream, as the gateway writes the body to the servlet response
+    @Benchmark
+    public Object parseAndWriteObject() throws IOException {
+        Object body = objectMapper.readValue(new ByteArrayInputStream(serverResponse), Object.class);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), body);
+        return body;
+    }
+
+    // Same read as ByteArrayHttpMessageConverter of RestTemplate
+    @Benchmark
+    public byte[] passThroughBytes() throws IOException {
+        byte[] body = new ByteArrayInputStream(serverResponse).readAllBytes();
+        OutputStream.nullOutputStream().write(body);
+        return body;
+    }
+}
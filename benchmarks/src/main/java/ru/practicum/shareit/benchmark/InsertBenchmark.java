@@ -0,0 +1,106 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// One operation saves -p rows=.. bookings through JPA in one transaction on an in-memory H2 database.
+// jdbcBatchSize=0 sends every INSERT on its own as it was with IDENTITY ids, 50 is the server's setting
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+    @Param({"1000"})
+    int rows;
+
+    @Param({"0", "50"})
+    int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookingRepository bookingRepository;
+
+    private User booker;
+
+    private Item item;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--spring.main.banner-mode=off",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--logging.level.ru.practicum.shareit=warn",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=warn",
+                        "--logging.level.org.springframework.transaction.interceptor=warn",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=warn");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User owner = userRepository.save(User.builder()
+                .email("owner@email.com")
+                .name("owner")
+                .build());
+        booker = userRepository.save(User.builder()
+                .email("booker@email.com")
+                .name("booker")
+                .build());
+        item = context.getBean(ItemRepository.class).save(Item.builder()
+                .owner(owner)
+                .name("Drill")
+                .description("Description of drill")
+                .isAvailable(true)
+                .build());
+    }
+
+    // Keeps the table of the same size for every iteration
+    @TearDown(Level.Iteration)
+    public void deleteBookings() {
+        jdbcTemplate.update("DELETE FROM bookings");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Booking> bookingRepositorySaveAll() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            bookings.add(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(start.plusHours(2L * i))
+                    .end(start.plusHours(2L * i + 1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        return bookingRepository.saveAll(bookings);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"10", "1000"})
+    int size;
+
+    private List<Item> items;
+
+    private List<Booking> bookings;
+
+    @Setup
+    public void setup() {
+        User owner = new User(1L, "owner@email.com", "owner", 0);
+        User booker = new User(2L, "booker@email.com", "booker", 0);
+        LocalDateTime start = LocalDateTime.now();
+        items = new ArrayList<>();
+        bookings = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            Item item = new Item(id, owner, "item" + id, "description" + id, true, null, 0);
+            items.add(item);
+            bookings.add(new Booking(id, item, booker, start.plusDays(id), start.plusDays(id + 1),
+                    BookingStatus.APPROVED, 0));
+        }
+    }
+
+    @Benchmark
+    public List<ItemInfoDto> itemMapperToItemInfoDtoList() {
+        return ItemMapper.toItemInfoDtoList(items);
+    }
+
+    @Benchmark
+    public List<BookingInfoDto> bookingMapperToBookingInfoDtoList() {
+        return BookingMapper.toBookingInfoDtoList(bookings);
+    }
+}
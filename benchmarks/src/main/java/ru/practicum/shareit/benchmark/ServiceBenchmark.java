@@ -0,0 +1,143 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.state.BookingState;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.summary.ItemBookingSummarySweeper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Services of a server context on a seeded in-memory H2 database. Every trial gets its own database,
+// data volumes are set by -p owners=..,itemsPerOwner=..,bookingsPerItem=..
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final long OWNER_ID = 1L;
+    private static final String SEARCH_TEXT = "drill";
+    private static final Pageable ITEM_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+    private static final Pageable BOOKING_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+
+    @Param({"10"})
+    int owners;
+
+    @Param({"100"})
+    int itemsPerOwner;
+
+    @Param({"100"})
+    int bookingsPerItem;
+
+    @Param({"database", "memory"})
+    String searchEngine;
+
+    @Param({"true", "false"})
+    boolean itemViewCache;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--spring.main.banner-mode=off",
+                        "--shareit.item.search.engine=" + searchEngine,
+                        "--shareit.item.view-cache.enabled=" + itemViewCache,
+                        "--shareit.booking.interval-index.verify=false",
+                        "--logging.level.ru.practicum.shareit=warn",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=warn",
+                        "--logging.level.org.springframework.transaction.interceptor=warn",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=warn");
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(ItemBookingSummarySweeper.class).sweep();
+        context.getBeanProvider(InMemoryItemSearchEngine.class).ifAvailable(InMemoryItemSearchEngine::load);
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemInfoDto> itemServiceGetByOwnerId() {
+        return itemService.getByOwnerId(OWNER_ID, ITEM_PAGE);
+    }
+
+    // Viewed by the booker, not by the owner. The tag is read first, as ItemController does
+    @Benchmark
+    public ItemInfoDto itemServiceGetByItemId() {
+        long userId = owners + 1L;
+        return itemService.getByItemId(OWNER_ID, userId, itemService.getTagByItemId(OWNER_ID, userId));
+    }
+
+    @Benchmark
+    public List<ItemInfoDto> itemServiceSearch() {
+        return itemService.search(SEARCH_TEXT, ITEM_PAGE);
+    }
+
+    @Benchmark
+    public List<BookingInfoDto> bookingServiceFindAllBookingByOwnerIdAndState() {
+        return bookingService.findAllBookingByOwnerIdAndState(OWNER_ID, BookingState.ALL, BOOKING_PAGE);
+    }
+
+    // Owners get ids 1..owners and the booker gets owners + 1; every tenth item matches SEARCH_TEXT.
+    // Half of the bookings of an item are finished and half are in future
+    private void seed(JdbcTemplate jdbcTemplate) {
+        long bookerId = owners + 1L;
+        for (long userId = 1; userId <= bookerId; userId++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, email, name) VALUES (?, ?, ?)",
+                    userId, "user" + userId + "@email.com", "user" + userId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long itemId = 0;
+        for (long ownerId = 1; ownerId <= owners; ownerId++) {
+            for (int i = 0; i < itemsPerOwner; i++) {
+                itemId++;
+                String name = itemId % 10 == 0 ? "Drill " + itemId : "Item " + itemId;
+                jdbcTemplate.update("INSERT INTO items (item_id, name, description, owner_id, is_available) " +
+                        "VALUES (?, ?, ?, ?, true)", itemId, name, "Description of item " + itemId, ownerId);
+                List<Object[]> bookings = new ArrayList<>();
+                for (int b = 0; b < bookingsPerItem; b++) {
+                    long bookingId = (itemId - 1) * bookingsPerItem + b + 1;
+                    LocalDateTime start = now.plusHours(2L * (b - bookingsPerItem / 2) + 1);
+                    bookings.add(new Object[]{bookingId, itemId, bookerId, Timestamp.valueOf(start),
+                            Timestamp.valueOf(start.plusHours(1))});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO bookings " +
+                        "(booking_id, item_id, booker_id, start_date_time, end_date_time, status) " +
+                        "VALUES (?, ?, ?, ?, ?, 'APPROVED')", bookings);
+            }
+        }
+        // Stale summaries, computed by the sweep right after seeding
+        jdbcTemplate.update("INSERT INTO item_booking_summary (item_id, approved_count, valid_until) " +
+                "SELECT item_id, COUNT(*), TIMESTAMP '1970-01-01 00:00:00' FROM bookings GROUP BY item_id");
+    }
+}
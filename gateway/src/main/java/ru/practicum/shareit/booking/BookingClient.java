@@ -1,16 +1,20 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingRequestingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientGuards;
+import ru.practicum.shareit.client.IdempotentGets;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.client.SingleFlight;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,19 +22,19 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransport transport, SingleFlight singleFlight, ClientGuards clientGuards,
+                         IdempotentGets idempotentGets) {
+        super(API_PREFIX, transport, singleFlight, clientGuards, idempotentGets);
     }
 
     public ResponseEntity<Object> bookItem(long userId, BookingRequestingDto requestDto) {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> bookItems(long userId, List<BookingRequestingDto> requestDtoList) {
+        return post("/batch", userId, requestDtoList);
+    }
+
     public ResponseEntity<Object> respondToBooking(long userId, long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
@@ -57,4 +61,35 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    // Keyset pagination, the server returns the cursor of the next page in X-Next-Cursor header
+    public ResponseEntity<Object> findAllBookingByBookerIdAndState(long userId, BookingState state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> findAllBookingByOwnerIdAndState(long userId, BookingState state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public void exportAllBookingByBookerId(long userId, BookingExportFormat format, HttpServletResponse response)
+            throws IOException {
+        Map<String, Object> parameters = Map.of("format", format.name());
+        stream("/export?format={format}", userId, parameters, response);
+    }
+
+    public void exportAllBookingByOwnerId(long userId, BookingExportFormat format, HttpServletResponse response)
+            throws IOException {
+        Map<String, Object> parameters = Map.of("format", format.name());
+        stream("/owner/export?format={format}", userId, parameters, response);
+    }
 }
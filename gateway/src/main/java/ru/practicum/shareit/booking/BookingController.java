@@ -6,12 +6,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingRequestingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -19,6 +26,9 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    // Same as shareit.booking.batch.max-size of the server
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingClient bookingClient;
 
     @PostMapping
@@ -28,6 +38,15 @@ public class BookingController {
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    // Each entry is validated like a single booking, the server answers with a result per entry
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                            List<@Valid BookingRequestingDto> requestDtoList) {
+        log.info("POST \"/bookings/batch\", Body={} entries, Headers:(X-Sharer-User-Id)={}", requestDtoList.size(), userId);
+        return bookingClient.bookItems(userId, requestDtoList);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> respondToBooking(@PathVariable long bookingId,
                                                    @RequestParam(name = "approved") boolean approved,
@@ -51,11 +70,14 @@ public class BookingController {
     public ResponseEntity<Object> findAllBookingByBookerIdAndState(@RequestHeader("X-Sharer-User-Id") long userId,
                                                                    @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                   @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("GET \"/bookings?state={}&from={}&size={}\", Headers:(X-Sharer-User-Id)={}", stateParam, from, size, userId);
-        ResponseEntity<Object> bookingList = bookingClient.findAllBookingByBookerIdAndState(userId, state, from, size);
+        log.info("GET \"/bookings?state={}&from={}&size={}&cursor={}\", Headers:(X-Sharer-User-Id)={}", stateParam, from, size, cursor, userId);
+        ResponseEntity<Object> bookingList = cursor == null
+                ? bookingClient.findAllBookingByBookerIdAndState(userId, state, from, size)
+                : bookingClient.findAllBookingByBookerIdAndState(userId, state, cursor, size);
         log.info(bookingList.toString());
         return bookingList;
     }
@@ -64,12 +86,36 @@ public class BookingController {
     public ResponseEntity<Object> findAllBookingByOwnerIdAndState(@RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                                   @RequestHeader("X-Sharer-User-Id") long userId,
                                                                   @RequestParam(name = "size", defaultValue = "10") @Min(value = 1) int size,
-                                                                  @RequestParam(name = "from", defaultValue = "0") @Min(value = 0) int from) {
+                                                                  @RequestParam(name = "from", defaultValue = "0") @Min(value = 0) int from,
+                                                                  @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("GET \"/bookings/owner?state={}\", Headers:(X-Sharer-User-Id)={}", state, userId);
-        ResponseEntity<Object> bookingInfoDtoList = bookingClient.findAllBookingByOwnerIdAndState(userId, state, from, size);
+        log.info("GET \"/bookings/owner?state={}&cursor={}\", Headers:(X-Sharer-User-Id)={}", state, cursor, userId);
+        ResponseEntity<Object> bookingInfoDtoList = cursor == null
+                ? bookingClient.findAllBookingByOwnerIdAndState(userId, state, from, size)
+                : bookingClient.findAllBookingByOwnerIdAndState(userId, state, cursor, size);
         log.info(bookingInfoDtoList.toString());
         return bookingInfoDtoList;
     }
+
+    // Streamed from the server as is, the body is never held in the gateway
+    @GetMapping("/export")
+    public void exportAllBookingByBookerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @RequestParam(name = "format", defaultValue = "NDJSON") String formatParam,
+                                           HttpServletResponse response) throws IOException {
+        BookingExportFormat format = BookingExportFormat.from(formatParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown export format: " + formatParam));
+        log.info("GET \"/bookings/export?format={}\", Headers:(X-Sharer-User-Id)={}", format, userId);
+        bookingClient.exportAllBookingByBookerId(userId, format, response);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportAllBookingByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                          @RequestParam(name = "format", defaultValue = "NDJSON") String formatParam,
+                                          HttpServletResponse response) throws IOException {
+        BookingExportFormat format = BookingExportFormat.from(formatParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown export format: " + formatParam));
+        log.info("GET \"/bookings/owner/export?format={}\", Headers:(X-Sharer-User-Id)={}", format, userId);
+        bookingClient.exportAllBookingByOwnerId(userId, format, response);
+    }
 }
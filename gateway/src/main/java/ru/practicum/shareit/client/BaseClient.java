@@ -2,17 +2,43 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    // Describe the gateway-server connection, the gateway's container sets its own ones for the caller
+    private static final Set<String> HOP_BY_HOP_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    static {
+        HOP_BY_HOP_HEADERS.addAll(Set.of(HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.TRANSFER_ENCODING,
+                HttpHeaders.CONTENT_LENGTH));
+    }
+
+    private final String apiPrefix;
+    private final ServerTransport transport;
+    private final SingleFlight singleFlight;
+    private final ClientGuard guard;
+    private final IdempotentGets idempotentGets;
+
+    public BaseClient(String apiPrefix, ServerTransport transport, SingleFlight singleFlight, ClientGuards clientGuards,
+                      IdempotentGets idempotentGets) {
+        this.apiPrefix = apiPrefix;
+        this.transport = transport;
+        this.singleFlight = singleFlight;
+        this.guard = clientGuards.create(apiPrefix.substring(1));
+        this.idempotentGets = idempotentGets;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -24,7 +50,12 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+        return sendGet(path, userId, parameters, false);
+    }
+
+    // For responses that don't depend on the caller: identical concurrent requests of all users share one call
+    protected ResponseEntity<Object> getShared(String path, long userId, @Nullable Map<String, Object> parameters) {
+        return sendGet(path, userId, parameters, true);
     }
 
     protected <T> ResponseEntity<Object> post(String path, T body) {
@@ -75,22 +106,48 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    // The server's response is written to the caller's one while it arrives, without buffering the body
+    protected void stream(String path, long userId, @Nullable Map<String, Object> parameters,
+                          HttpServletResponse response) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.ALL));
+        guard.run(() -> transport.stream(apiPrefix + path, parameters, headers, response));
+    }
+
+    // Identical concurrent GETs share one server call, the key has everything the server's response depends on.
+    // The shared call is retried and hedged if the path is allowed to
+    private ResponseEntity<Object> sendGet(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                           boolean shared) {
+        HttpHeaders headers = defaultHeaders(userId);
+        copyConditionalHeaders(headers);
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+        UriComponents uri = UriComponentsBuilder.fromUriString(apiPrefix + path)
+                .buildAndExpand(parameters != null ? parameters : Map.of())
+                .encode();
+        String key = uri.toUriString() + '\n' + (shared ? "*" : userId) + '\n' + headers.getIfNoneMatch();
+
+        ResponseEntity<byte[]> shareitServerResponse = singleFlight.execute(key,
+                () -> idempotentGets.execute(uri.getPath(),
+                        () -> exchange(HttpMethod.GET, path, parameters, requestEntity)));
+        return prepareGatewayResponse(shareitServerResponse);
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
+        HttpHeaders headers = defaultHeaders(userId);
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<byte[]> shareitServerResponse = exchange(method, path, parameters, requestEntity);
         return prepareGatewayResponse(shareitServerResponse);
     }
 
+    // Calls over the client's bulkhead or while its circuit is open fail with ServerUnavailableException (503)
+    // without reaching the server. Connect and read timeouts are those of the transport
+    private ResponseEntity<byte[]> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                            HttpEntity<?> requestEntity) {
+        return guard.call(() -> transport.exchange(method, apiPrefix + path, parameters, requestEntity),
+                response -> response.getStatusCode().is5xxServerError());
+    }
+
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -101,9 +158,30 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    // Conditional GETs are answered by the server: the caller's If-None-Match goes to it, its 304 with ETag comes back
+    private static void copyConditionalHeaders(HttpHeaders headers) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        List<String> ifNoneMatch = Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH));
+        if (!ifNoneMatch.isEmpty()) {
+            headers.put(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+    }
+
+    // Successful body is passed to the caller as the server's bytes with the server's headers, it is never parsed here.
+    // So is 304 Not Modified, its ETag is the one the caller validates against
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        if (response.getStatusCode().is2xxSuccessful() || response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            HttpHeaders headers = new HttpHeaders();
+            response.getHeaders().forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                    headers.addAll(name, values);
+                }
+            });
+            return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
@@ -0,0 +1,262 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.exception.ServerUnavailableException;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Bulkhead and circuit breaker of one client. The bulkhead bounds the client's concurrent calls, so a slow endpoint
+// holds at most max-concurrent-calls gateway threads. The breaker opens when failed or slow calls reach
+// failure-rate-percent of the last window-size calls and rejects calls for open-ms, then lets half-open-calls
+// trial calls through: all of them succeeding closes it, any failing opens it again. A call counts only in the state
+// period it started in, so a slow call started before the circuit opened can't pass for a trial call
+@Slf4j
+class ClientGuard {
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final String name;
+    private final LongSupplier nanoClock;
+    private final Semaphore bulkhead;
+    private final long maxWaitMs;
+    private final long slowCallNanos;
+    private final int failureRatePercent;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    // Outcomes of the last calls in a ring, true for failed or slow ones
+    private final boolean[] window;
+    private int windowCalls;
+    private int windowPosition;
+    private int windowFailures;
+    private int state = CLOSED;
+    // Incremented on every state change, each call keeps the value it started with
+    private long period;
+    private long openedAt;
+    private int trialCallsStarted;
+    private int trialCallsSucceeded;
+    private final Counter bulkheadRejected;
+    private final Counter circuitRejected;
+    private final Timer successful;
+    private final Timer failed;
+    private final Timer slow;
+
+    ClientGuard(String name, MeterRegistry meterRegistry, int maxConcurrentCalls, long maxWaitMs, long slowCallMs,
+                int failureRatePercent, int minimumCalls, int windowSize, long openMs, int halfOpenCalls) {
+        this(name, meterRegistry, System::nanoTime, maxConcurrentCalls, maxWaitMs, slowCallMs, failureRatePercent,
+                minimumCalls, windowSize, openMs, halfOpenCalls);
+    }
+
+    ClientGuard(String name, MeterRegistry meterRegistry, LongSupplier nanoClock, int maxConcurrentCalls,
+                long maxWaitMs, long slowCallMs, int failureRatePercent, int minimumCalls, int windowSize, long openMs,
+                int halfOpenCalls) {
+        this.name = name;
+        this.nanoClock = nanoClock;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxWaitMs = maxWaitMs;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.failureRatePercent = failureRatePercent;
+        this.minimumCalls = minimumCalls;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new boolean[windowSize];
+        this.bulkheadRejected = Counter.builder("shareit.gateway.client.rejected")
+                .tag("client", name)
+                .tag("reason", "bulkhead")
+                .register(meterRegistry);
+        this.circuitRejected = Counter.builder("shareit.gateway.client.rejected")
+                .tag("client", name)
+                .tag("reason", "circuit-open")
+                .register(meterRegistry);
+        this.successful = callTimer(meterRegistry, "success");
+        this.failed = callTimer(meterRegistry, "failure");
+        this.slow = callTimer(meterRegistry, "slow");
+        Gauge.builder("shareit.gateway.client.active-calls", bulkhead,
+                        semaphore -> maxConcurrentCalls - semaphore.availablePermits())
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.client.circuit-state", this, ClientGuard::state)
+                .tag("client", name)
+                .description("0 - closed, 1 - open, 2 - half-open")
+                .register(meterRegistry);
+    }
+
+    // Server responses with status 5xx count as failures, other statuses are answers of a working server
+    <T> T call(Supplier<T> call, Predicate<T> isFailure) {
+        long callPeriod = acquirePermission();
+        long start = nanoClock.getAsLong();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            onFailure(callPeriod, e, nanoClock.getAsLong() - start);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+        long duration = nanoClock.getAsLong() - start;
+        if (isFailure.test(result)) {
+            onResult(callPeriod, true, duration, failed);
+        } else {
+            onResult(callPeriod, duration >= slowCallNanos, duration, duration >= slowCallNanos ? slow : successful);
+        }
+        return result;
+    }
+
+    // Streamed responses are written to the caller as they arrive, their duration says nothing of the server
+    void run(StreamedCall call) throws IOException {
+        long callPeriod = acquirePermission();
+        long start = nanoClock.getAsLong();
+        try {
+            call.run();
+        } catch (IOException | RuntimeException e) {
+            onFailure(callPeriod, e, nanoClock.getAsLong() - start);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+        onResult(callPeriod, false, nanoClock.getAsLong() - start, successful);
+    }
+
+    // The period the call starts in
+    private long acquirePermission() {
+        long callPeriod = tryAcquireCircuit(nanoClock.getAsLong());
+        if (callPeriod < 0) {
+            circuitRejected.increment();
+            throw new ServerUnavailableException("Server calls of " + name + " are suspended after failures");
+        }
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            releaseTrialCall(callPeriod);
+            bulkheadRejected.increment();
+            throw new ServerUnavailableException("Too many concurrent server calls of " + name);
+        }
+        return callPeriod;
+    }
+
+    // The current period if the call may start, -1 if the circuit rejects it
+    private synchronized long tryAcquireCircuit(long now) {
+        if (state == OPEN && now - openedAt >= openNanos) {
+            changeState(HALF_OPEN);
+            trialCallsStarted = 0;
+            trialCallsSucceeded = 0;
+            log.info("Circuit of {} half-open", name);
+        }
+        if (state == HALF_OPEN) {
+            if (trialCallsStarted >= halfOpenCalls) {
+                return -1;
+            }
+            trialCallsStarted++;
+            return period;
+        }
+        return state == CLOSED ? period : -1;
+    }
+
+    // A trial call rejected by the bulkhead gives its place to the next caller
+    private synchronized void releaseTrialCall(long callPeriod) {
+        if (callPeriod == period && state == HALF_OPEN && trialCallsStarted > 0) {
+            trialCallsStarted--;
+        }
+    }
+
+    // A call interrupted by its caller, as a hedge that lost, says nothing of the server
+    private void onFailure(long callPeriod, Exception e, long durationNanos) {
+        if (isInterrupted(e)) {
+            releaseTrialCall(callPeriod);
+            return;
+        }
+        onResult(callPeriod, true, durationNanos, failed);
+    }
+
+    private synchronized void onResult(long callPeriod, boolean failure, long durationNanos, Timer timer) {
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (callPeriod != period) {
+            return;
+        }
+        if (state == HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++trialCallsSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (windowCalls == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+        if (windowCalls >= minimumCalls && windowFailures * 100 >= failureRatePercent * windowCalls) {
+            open();
+        }
+    }
+
+    private void open() {
+        changeState(OPEN);
+        openedAt = nanoClock.getAsLong();
+        log.warn("Circuit of {} open for {} ms", name, TimeUnit.NANOSECONDS.toMillis(openNanos));
+    }
+
+    private void close() {
+        changeState(CLOSED);
+        windowCalls = 0;
+        windowPosition = 0;
+        windowFailures = 0;
+        log.info("Circuit of {} closed", name);
+    }
+
+    private void changeState(int newState) {
+        state = newState;
+        period++;
+    }
+
+    private synchronized int state() {
+        return state;
+    }
+
+    private static boolean isInterrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Timer callTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("shareit.gateway.client.calls")
+                .tag("client", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    interface StreamedCall {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Guards of the clients by name, the name is the client's path prefix without the slash (items, bookings, users,
+// requests). Settings of shareit.gateway.client.* apply to every client, shareit.gateway.client.<name>.* override them
+@Component
+public class ClientGuards {
+    private static final String PREFIX = "shareit.gateway.client.";
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMs;
+    private final long slowCallMs;
+    private final int failureRatePercent;
+    private final int minimumCalls;
+    private final int windowSize;
+    private final long openMs;
+    private final int halfOpenCalls;
+
+    public ClientGuards(MeterRegistry meterRegistry, Environment environment,
+                        @Value("${shareit.gateway.client.max-concurrent-calls:50}") int maxConcurrentCalls,
+                        @Value("${shareit.gateway.client.max-wait-ms:0}") long maxWaitMs,
+                        @Value("${shareit.gateway.client.slow-call-ms:5000}") long slowCallMs,
+                        @Value("${shareit.gateway.client.failure-rate-percent:50}") int failureRatePercent,
+                        @Value("${shareit.gateway.client.minimum-calls:20}") int minimumCalls,
+                        @Value("${shareit.gateway.client.window-size:100}") int windowSize,
+                        @Value("${shareit.gateway.client.open-ms:10000}") long openMs,
+                        @Value("${shareit.gateway.client.half-open-calls:5}") int halfOpenCalls) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitMs = maxWaitMs;
+        this.slowCallMs = slowCallMs;
+        this.failureRatePercent = failureRatePercent;
+        this.minimumCalls = minimumCalls;
+        this.windowSize = windowSize;
+        this.openMs = openMs;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    ClientGuard create(String name) {
+        return new ClientGuard(name, meterRegistry,
+                property(name, "max-concurrent-calls", Integer.class, maxConcurrentCalls),
+                property(name, "max-wait-ms", Long.class, maxWaitMs),
+                property(name, "slow-call-ms", Long.class, slowCallMs),
+                property(name, "failure-rate-percent", Integer.class, failureRatePercent),
+                property(name, "minimum-calls", Integer.class, minimumCalls),
+                property(name, "window-size", Integer.class, windowSize),
+                property(name, "open-ms", Long.class, openMs),
+                property(name, "half-open-calls", Integer.class, halfOpenCalls));
+    }
+
+    private <T> T property(String name, String key, Class<T> type, T defaultValue) {
+        return environment.getProperty(PREFIX + name + "." + key, type, defaultValue);
+    }
+}
@@ -0,0 +1,288 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import javax.annotation.PreDestroy;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// GETs of shareit.gateway.idempotent.paths are retried on connection failures after a jittered backoff and hedged
+// past their path's p95 latency: the first response wins, the other call is interrupted. Other requests go once
+@Component
+@Slf4j
+public class IdempotentGets {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final List<String> paths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final boolean hedgingEnabled;
+    private final long hedgeMinDelayNanos;
+    private final long hedgeMinSamples;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Timer> latencies = new ConcurrentHashMap<>();
+    private final Counter retries;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter hedgesSkipped;
+
+    public IdempotentGets(MeterRegistry meterRegistry,
+                          @Value("${shareit.gateway.idempotent.paths:}") List<String> paths,
+                          @Value("${shareit.gateway.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${shareit.gateway.retry.backoff-base-ms:50}") long backoffBaseMs,
+                          @Value("${shareit.gateway.retry.backoff-max-ms:1000}") long backoffMaxMs,
+                          @Value("${shareit.gateway.hedging.enabled:false}") boolean hedgingEnabled,
+                          @Value("${shareit.gateway.hedging.min-delay-ms:20}") long hedgeMinDelayMs,
+                          @Value("${shareit.gateway.hedging.min-samples:100}") long hedgeMinSamples,
+                          @Value("${shareit.gateway.hedging.threads:50}") int hedgingThreads) {
+        this.meterRegistry = meterRegistry;
+        this.paths = paths;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs);
+        this.hedgeMinSamples = hedgeMinSamples;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hedgingThreads, hedgingThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gateway-hedge-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.retries = Counter.builder("shareit.gateway.retries")
+                .register(meterRegistry);
+        this.hedgesSent = hedgeCounter("sent");
+        this.hedgesWon = hedgeCounter("won");
+        this.hedgesSkipped = hedgeCounter("skipped");
+    }
+
+    // path is the request's path without query, the call one attempt of sending it
+    public ResponseEntity<byte[]> execute(String path, Supplier<ResponseEntity<byte[]>> call) {
+        String pattern = findPattern(path);
+        if (pattern == null) {
+            return call.get();
+        }
+        Timer latency = latencies.computeIfAbsent(pattern, this::latencyTimer);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedgingEnabled && latency.count() >= hedgeMinSamples
+                        ? hedged(latency, call)
+                        : timed(latency, call);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isConnectionFailure(e)) {
+                    throw e;
+                }
+                retries.increment();
+                log.debug("GET {} failed to connect, attempt {} of {}", path, attempt, maxAttempts, e);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ResponseEntity<byte[]> hedged(Timer latency, Supplier<ResponseEntity<byte[]>> call) {
+        SubmittedCall primary = submit(latency, call);
+        if (primary == null) {
+            hedgesSkipped.increment();
+            return timed(latency, call);
+        }
+        try {
+            return primary.response.get(hedgeDelayNanos(latency), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The hedge is sent below
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the server", e);
+        }
+        SubmittedCall hedge = submit(latency, call);
+        if (hedge == null) {
+            hedgesSkipped.increment();
+            return join(primary.response);
+        }
+        hedgesSent.increment();
+        // The first response wins and the other call is cancelled, an error only when both calls fail
+        CompletableFuture<ResponseEntity<byte[]>> first = new CompletableFuture<>();
+        AtomicBoolean answered = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        primary.response.whenComplete((response, error) ->
+                complete(first, response, error, answered, failures, hedge, false));
+        hedge.response.whenComplete((response, error) ->
+                complete(first, response, error, answered, failures, primary, true));
+        return join(first);
+    }
+
+    // The loser is cancelled and the winner counted before the caller gets the response
+    private void complete(CompletableFuture<ResponseEntity<byte[]>> first, ResponseEntity<byte[]> response,
+                          Throwable error, AtomicBoolean answered, AtomicInteger failures, SubmittedCall other,
+                          boolean hedge) {
+        if (error == null) {
+            if (answered.compareAndSet(false, true)) {
+                other.cancel();
+                if (hedge) {
+                    hedgesWon.increment();
+                }
+                first.complete(response);
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(error);
+        }
+    }
+
+    @Nullable
+    private SubmittedCall submit(Timer latency, Supplier<ResponseEntity<byte[]>> call) {
+        CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+        try {
+            Future<?> task = executor.submit(() -> {
+                try {
+                    response.complete(timed(latency, call));
+                } catch (RuntimeException | Error e) {
+                    response.completeExceptionally(e);
+                }
+            });
+            return new SubmittedCall(response, task);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<byte[]> timed(Timer latency, Supplier<ResponseEntity<byte[]>> call) {
+        long start = System.nanoTime();
+        ResponseEntity<byte[]> response = call.get();
+        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return response;
+    }
+
+    private long hedgeDelayNanos(Timer latency) {
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return Math.max(hedgeMinDelayNanos, (long) percentile.value(TimeUnit.NANOSECONDS));
+            }
+        }
+        return hedgeMinDelayNanos;
+    }
+
+    private void backoff(int attempt, RuntimeException failure) {
+        long maxDelayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelayMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    @Nullable
+    private String findPattern(String path) {
+        for (String pattern : paths) {
+            if (pathMatcher.match(pattern, path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    // The request was not sent: no connection, or a pooled one closed by the server before it read anything
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+                    || cause instanceof NoHttpResponseException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<byte[]> join(CompletableFuture<ResponseEntity<byte[]>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private Timer latencyTimer(String pattern) {
+        return Timer.builder("shareit.gateway.idempotent.latency")
+                .tag("path", pattern)
+                .publishPercentiles(0.95)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+    }
+
+    private Counter hedgeCounter(String result) {
+        return Counter.builder("shareit.gateway.hedging.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Cancelling the task's Future interrupts its thread: the reactive transport drops the exchange, the blocking one
+    // stops waiting for a pooled connection but finishes a read it has started
+    private static class SubmittedCall {
+        private final CompletableFuture<ResponseEntity<byte[]>> response;
+        private final Future<?> task;
+
+        private SubmittedCall(CompletableFuture<ResponseEntity<byte[]>> response, Future<?> task) {
+            this.response = response;
+            this.task = task;
+        }
+
+        private void cancel() {
+            if (!response.isDone()) {
+                task.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateServerTransport implements ServerTransport {
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate rest;
+
+    public RestTemplateServerTransport(@Value("${shareit-server.url}") String serverUrl,
+                                       @Value("${shareit-server.pool.max-connections:200}") int maxConnections,
+                                       @Value("${shareit-server.pool.keep-alive-ms:30000}") long keepAliveMs,
+                                       @Value("${shareit-server.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                       @Value("${shareit-server.read-timeout-ms:30000}") int readTimeoutMs,
+                                       RestTemplateBuilder builder) {
+        // All requests go to the single shareit-server route, so the whole pool is available to it
+        this.httpClient = HttpClients.custom()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .evictExpiredConnections()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setConnectionRequestTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .build())
+                .build();
+        this.rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<byte[]> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                           HttpEntity<?> requestEntity) {
+        try {
+            if (parameters != null) {
+                return rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                return rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    @Override
+    public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                       HttpServletResponse response) throws IOException {
+        RequestCallback requestCallback = request -> request.getHeaders().addAll(headers);
+        ResponseExtractor<Void> responseExtractor = serverResponse -> {
+            StreamedResponses.copyHeaders(serverResponse.getRawStatusCode(), serverResponse.getHeaders(), response);
+            StreamUtils.copy(serverResponse.getBody(), response.getOutputStream());
+            return null;
+        };
+        try {
+            rest.execute(path, HttpMethod.GET, requestCallback, responseExtractor,
+                    parameters != null ? parameters : Map.of());
+        } catch (HttpStatusCodeException e) {
+            StreamedResponses.copyHeaders(e.getRawStatusCode(), e.getResponseHeaders(), response);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
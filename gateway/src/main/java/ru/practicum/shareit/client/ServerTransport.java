@@ -0,0 +1,24 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+// Shared connection to shareit-server for all clients, chosen by shareit-server.transport (blocking / reactive).
+// The body is the server's raw bytes, error responses are returned with their status and body, not thrown
+public interface ServerTransport {
+    // path is relative to shareit-server.url and may contain {name} variables from parameters
+    ResponseEntity<byte[]> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                    HttpEntity<?> requestEntity);
+
+    // GET whose body is copied to the caller's response as it arrives, for responses too large to buffer.
+    // Status, Content-Type and Content-Disposition are copied as well, error responses included
+    void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                HttpServletResponse response) throws IOException;
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Identical GETs arriving while one of them is on its way to the server wait for its response instead of sending
+// their own. The key is removed before the response is handed out, so a request coming after it always gets a
+// fresh one. A follower may get a response started before its own write committed, only keys of responses that
+// don't depend on the caller leave out the user id
+@Component
+public class SingleFlight {
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, CompletableFuture<ResponseEntity<byte[]>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${shareit.gateway.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.leaders = Counter.builder("shareit.gateway.coalescing.requests")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("shareit.gateway.coalescing.requests")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.coalescing.in-flight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    // Followers get the leader's response, body bytes included, or rethrow its exception
+    public ResponseEntity<byte[]> execute(String key, Supplier<ResponseEntity<byte[]>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<ResponseEntity<byte[]>> flight = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<byte[]>> leaderFlight = inFlight.putIfAbsent(key, flight);
+        if (leaderFlight != null) {
+            followers.increment();
+            return await(leaderFlight);
+        }
+        leaders.increment();
+        ResponseEntity<byte[]> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, flight);
+        flight.complete(response);
+        return response;
+    }
+
+    private static ResponseEntity<byte[]> await(CompletableFuture<ResponseEntity<byte[]>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
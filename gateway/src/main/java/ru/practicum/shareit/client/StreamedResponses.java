@@ -0,0 +1,28 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+final class StreamedResponses {
+    // Describe the body itself, everything else concerns the gateway-server connection
+    private static final List<String> BODY_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_DISPOSITION);
+
+    private StreamedResponses() {
+    }
+
+    static void copyHeaders(int status, @Nullable HttpHeaders serverHeaders, HttpServletResponse response) {
+        response.setStatus(status);
+        if (serverHeaders == null) {
+            return;
+        }
+        for (String name : BODY_HEADERS) {
+            String value = serverHeaders.getFirst(name);
+            if (value != null) {
+                response.setHeader(name, value);
+            }
+        }
+    }
+}
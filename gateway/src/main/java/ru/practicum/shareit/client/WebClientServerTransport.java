@@ -0,0 +1,94 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+
+// Reactor Netty pool instead of Apache HttpClient, a client library swap only: controllers stay servlet ones,
+// so the request thread still blocks until the server answers
+@Component
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "reactive")
+public class WebClientServerTransport implements ServerTransport {
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    public WebClientServerTransport(@Value("${shareit-server.url}") String serverUrl,
+                                    @Value("${shareit-server.pool.max-connections:200}") int maxConnections,
+                                    @Value("${shareit-server.pool.keep-alive-ms:30000}") long keepAliveMs,
+                                    @Value("${shareit-server.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                    @Value("${shareit-server.read-timeout-ms:30000}") int readTimeoutMs,
+                                    WebClient.Builder builder) {
+        this.connectionProvider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofMillis(keepAliveMs))
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        this.webClient = builder
+                .baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<byte[]> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                           HttpEntity<?> requestEntity) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(requestEntity.getHeaders()));
+        Object body = requestEntity.getBody();
+        return (body != null ? request.bodyValue(body) : request)
+                .exchangeToMono(serverResponse -> serverResponse.toEntity(byte[].class))
+                .blockOptional()
+                .orElseThrow();
+    }
+
+    // Buffers are written on the calling thread, the Netty event loop only receives them
+    @Override
+    public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                       HttpServletResponse response) throws IOException {
+        Flux<DataBuffer> body = webClient.get()
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> requestHeaders.addAll(headers))
+                .exchangeToFlux(serverResponse -> {
+                    StreamedResponses.copyHeaders(serverResponse.rawStatusCode(),
+                            serverResponse.headers().asHttpHeaders(), response);
+                    return serverResponse.bodyToFlux(DataBuffer.class);
+                });
+        OutputStream outputStream = response.getOutputStream();
+        for (DataBuffer buffer : body.toIterable()) {
+            try (InputStream inputStream = buffer.asInputStream(true)) {
+                StreamUtils.copy(inputStream, outputStream);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.validation.ConstraintViolationException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
@@ -29,6 +30,22 @@ public class ApplicationExceptionHandler {
         return new ErrorResponse(errorMessage, e.toString());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintViolationException(ConstraintViolationException e) {
+        String errorMessage = e.getMessage();
+        log.error("Constraint Violation Exception = {}", errorMessage);
+        return new ErrorResponse("ConstraintViolationException", errorMessage);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServerUnavailableException(ServerUnavailableException e) {
+        String errorMessage = e.getMessage();
+        log.warn("Server Unavailable Exception = {}", errorMessage);
+        return new ErrorResponse("ServerUnavailableException", errorMessage);
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleUndefinedException(Exception e) {
@@ -1,14 +1,14 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientGuards;
+import ru.practicum.shareit.client.IdempotentGets;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.client.SingleFlight;
 import ru.practicum.shareit.item.dto.CommentRequestingDto;
 import ru.practicum.shareit.item.dto.ItemRequestingDto;
 
@@ -19,13 +19,9 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerTransport transport, SingleFlight singleFlight, ClientGuards clientGuards,
+                      IdempotentGets idempotentGets) {
+        super(API_PREFIX, transport, singleFlight, clientGuards, idempotentGets);
     }
 
     public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
@@ -63,7 +59,7 @@ public class ItemClient extends BaseClient {
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return getShared("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> deleteByItemId(long itemId, long userId) {
@@ -74,6 +70,15 @@ public class ItemClient extends BaseClient {
         return post("/" + itemId + "/comment", userId, commentRequestingDto);
     }
 
+    // Keyset pagination, the server returns the cursor of the next page in X-Next-Cursor header
+    public ResponseEntity<Object> getComments(long itemId, long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?cursor={cursor}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getAll() {
         return get("");
     }
@@ -89,4 +89,15 @@ public class ItemController {
         log.debug(commentToReturn.toString());
         return commentToReturn;
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader("X-Sharer-User-Id") long userId,
+                                              @PathVariable long itemId,
+                                              @RequestParam(name = "size", defaultValue = "10") @Min(value = 1) int size,
+                                              @RequestParam(name = "cursor", defaultValue = "") String cursor) {
+        log.info("GET \"/items/{}/comments?cursor={}&size={}\" , Headers:(X-Sharer-User-Id)={}", itemId, cursor, size, userId);
+        ResponseEntity<Object> commentList = itemClient.getComments(itemId, userId, cursor, size);
+        log.debug(commentList.toString());
+        return commentList;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.Set;
+
+// Requests limited together. Searches and lists scan many rows on the server and get the lowest limit
+public enum EndpointClass {
+    SEARCH,
+    READ,
+    WRITE;
+
+    private static final Set<String> SEARCH_PATHS = Set.of("/items/search", "/bookings", "/bookings/owner",
+            "/bookings/export", "/bookings/owner/export", "/requests/all");
+
+    public static EndpointClass of(String method, String path) {
+        if (!"GET".equals(method)) {
+            return WRITE;
+        }
+        return SEARCH_PATHS.contains(path) ? SEARCH : READ;
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
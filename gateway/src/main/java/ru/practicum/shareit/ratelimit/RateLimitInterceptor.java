@@ -0,0 +1,62 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Rejects requests over the user's limit with 429 before the controller, so they never reach the server.
+// Requests without a valid X-Sharer-User-Id pass, the controllers answer them with 400
+@Component
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        String userIdHeader = request.getHeader(USER_ID_HEADER);
+        if (userIdHeader == null) {
+            return true;
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(userIdHeader.trim());
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        EndpointClass endpointClass = EndpointClass.of(request.getMethod(), request.getRequestURI());
+        long waitNanos = rateLimiter.tryAcquire(endpointClass, userId);
+        if (waitNanos == 0) {
+            return true;
+        }
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long retryAfterSeconds = (waitNanos + second - 1) / second;
+        log.warn("Rate limit of {} requests exceeded by user {}", endpointClass.tag(), userId);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("TooManyRequests",
+                "Rate limit of " + endpointClass.tag() + " requests exceeded, retry after " + retryAfterSeconds + " s"));
+        return false;
+    }
+}
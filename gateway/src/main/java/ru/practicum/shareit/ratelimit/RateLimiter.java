@@ -0,0 +1,140 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets per user and endpoint class. Full buckets are dropped every sweep-interval-ms and when a class
+// reaches max-buckets. Users above max-buckets share one bucket of their class until a sweep makes room,
+// so memory stays bounded and many user ids can't get around the limit
+@Component
+public class RateLimiter {
+    // Sweeps of a full class are not repeated sooner, new users arriving in a row would each scan all buckets
+    private static final long FULL_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongSupplier nanoClock;
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final long sweepIntervalNanos;
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+    private final AtomicLong lastSweep;
+
+    @Autowired
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${shareit.gateway.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${shareit.gateway.rate-limit.max-buckets:100000}") int maxBuckets,
+                       @Value("${shareit.gateway.rate-limit.sweep-interval-ms:60000}") long sweepIntervalMs,
+                       @Value("${shareit.gateway.rate-limit.search.per-second:5}") double searchPerSecond,
+                       @Value("${shareit.gateway.rate-limit.search.burst:10}") int searchBurst,
+                       @Value("${shareit.gateway.rate-limit.read.per-second:50}") double readPerSecond,
+                       @Value("${shareit.gateway.rate-limit.read.burst:100}") int readBurst,
+                       @Value("${shareit.gateway.rate-limit.write.per-second:20}") double writePerSecond,
+                       @Value("${shareit.gateway.rate-limit.write.burst:40}") int writeBurst) {
+        this(meterRegistry, System::nanoTime, enabled, maxBuckets, sweepIntervalMs, searchPerSecond, searchBurst,
+                readPerSecond, readBurst, writePerSecond, writeBurst);
+    }
+
+    RateLimiter(MeterRegistry meterRegistry, LongSupplier nanoClock, boolean enabled, int maxBuckets,
+                long sweepIntervalMs, double searchPerSecond, int searchBurst, double readPerSecond, int readBurst,
+                double writePerSecond, int writeBurst) {
+        this.nanoClock = nanoClock;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        this.sweepIntervalNanos = TimeUnit.MILLISECONDS.toNanos(sweepIntervalMs);
+        limits.put(EndpointClass.SEARCH, new Limit(meterRegistry, EndpointClass.SEARCH, searchPerSecond, searchBurst));
+        limits.put(EndpointClass.READ, new Limit(meterRegistry, EndpointClass.READ, readPerSecond, readBurst));
+        limits.put(EndpointClass.WRITE, new Limit(meterRegistry, EndpointClass.WRITE, writePerSecond, writeBurst));
+    }
+
+    // 0 if the request may pass, otherwise nanoseconds until the user gets a token of the class
+    public long tryAcquire(EndpointClass endpointClass, long userId) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        sweepIfDue(now);
+        Limit limit = limits.get(endpointClass);
+        long waitNanos = limit.bucketOf(userId, now)
+                .tryAcquire(now, limit.intervalNanos, limit.burstNanos);
+        if (waitNanos == 0) {
+            limit.allowed.increment();
+        } else {
+            limit.rejected.increment();
+        }
+        return waitNanos;
+    }
+
+    // One caller sweeps, the others go on. A request racing with the removal of its bucket may take a token
+    // of the dropped bucket, that lets at most one extra request through
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last >= sweepIntervalNanos && lastSweep.compareAndSet(last, now)) {
+            for (Limit limit : limits.values()) {
+                limit.sweep(now);
+            }
+        }
+    }
+
+    private class Limit {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final ConcurrentHashMap<Long, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final TokenBucket overflow = new TokenBucket(nanoClock.getAsLong());
+        private final AtomicLong lastFullSweep = new AtomicLong(nanoClock.getAsLong() - FULL_SWEEP_INTERVAL_NANOS);
+        private final Counter allowed;
+        private final Counter rejected;
+        private final Counter overflowed;
+
+        private Limit(MeterRegistry meterRegistry, EndpointClass endpointClass, double perSecond, int burst) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            this.burstNanos = intervalNanos * burst;
+            this.allowed = Counter.builder("shareit.gateway.rate-limit.requests")
+                    .tag("class", endpointClass.tag())
+                    .tag("result", "allowed")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("shareit.gateway.rate-limit.requests")
+                    .tag("class", endpointClass.tag())
+                    .tag("result", "rejected")
+                    .register(meterRegistry);
+            this.overflowed = Counter.builder("shareit.gateway.rate-limit.overflow")
+                    .tag("class", endpointClass.tag())
+                    .register(meterRegistry);
+            Gauge.builder("shareit.gateway.rate-limit.buckets", buckets, Map::size)
+                    .tag("class", endpointClass.tag())
+                    .register(meterRegistry);
+        }
+
+        private TokenBucket bucketOf(long userId, long now) {
+            TokenBucket bucket = buckets.get(userId);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxBuckets) {
+                long last = lastFullSweep.get();
+                if (now - last >= FULL_SWEEP_INTERVAL_NANOS && lastFullSweep.compareAndSet(last, now)) {
+                    sweep(now);
+                }
+                if (buckets.size() >= maxBuckets) {
+                    overflowed.increment();
+                    return overflow;
+                }
+            }
+            return buckets.computeIfAbsent(userId, id -> new TokenBucket(now));
+        }
+
+        private void sweep(long now) {
+            buckets.values().removeIf(bucket -> bucket.isFullAt(now));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket kept as the moment it is full again (GCRA): every request moves it one token interval forward,
+// a request that would move it further than the burst ahead of now is rejected. One CAS per request, no refill task
+class TokenBucket {
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0 if a token is taken, otherwise nanoseconds until one is available
+    long tryAcquire(long now, long intervalNanos, long burstNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket behaves as a new one, so it can be dropped without losing anything
+    boolean isFullAt(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
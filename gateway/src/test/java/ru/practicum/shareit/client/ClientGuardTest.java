@@ -0,0 +1,226 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ServerUnavailableException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The clock only moves when a test moves it, the server is a supplier returning a response string
+class ClientGuardTest {
+    private static final String OK = "200";
+    private static final String FAILED = "500";
+    private static final long SLOW_CALL_MS = 100;
+    private static final long OPEN_MS = 1000;
+    private static final int MINIMUM_CALLS = 4;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void call_whenFailuresBelowMinimumCalls_thenCircuitStaysClosed() {
+        ClientGuard guard = guard(10, 1);
+
+        for (int i = 0; i < MINIMUM_CALLS - 1; i++) {
+            call(guard, FAILED);
+        }
+
+        assertThat(circuitState(), is(0.0));
+        assertThat(call(guard, OK), is(OK));
+    }
+
+    @Test
+    void call_whenFailureRateReached_thenCircuitOpensAndServerNotCalled() {
+        ClientGuard guard = guard(10, 1);
+        AtomicInteger serverCalls = new AtomicInteger();
+
+        call(guard, OK);
+        call(guard, OK);
+        call(guard, FAILED);
+        call(guard, FAILED);
+
+        assertThrows(ServerUnavailableException.class, () -> guard.call(() -> {
+            serverCalls.incrementAndGet();
+            return OK;
+        }, FAILED::equals));
+        assertThat(serverCalls.get(), is(0));
+        assertThat(circuitState(), is(1.0));
+        assertThat(rejected("circuit-open"), is(1.0));
+    }
+
+    @Test
+    void call_whenSlowCallsReachFailureRate_thenCircuitOpens() {
+        ClientGuard guard = guard(10, 1);
+
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            guard.call(() -> {
+                clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(SLOW_CALL_MS));
+                return OK;
+            }, FAILED::equals);
+        }
+
+        assertThat(circuitState(), is(1.0));
+        assertThat(meterRegistry.get("shareit.gateway.client.calls").tag("outcome", "slow").timer().count(),
+                is((long) MINIMUM_CALLS));
+    }
+
+    @Test
+    void call_whenOpenTimePassedAndTrialCallsSucceed_thenCircuitHalfOpenThenClosed() {
+        ClientGuard guard = guard(10, 2);
+        open(guard);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS) - 1);
+        assertThrows(ServerUnavailableException.class, () -> call(guard, OK));
+        clock.addAndGet(1);
+        call(guard, OK);
+        assertThat(circuitState(), is(2.0));
+        call(guard, OK);
+
+        assertThat(circuitState(), is(0.0));
+        assertThat(call(guard, OK), is(OK));
+    }
+
+    @Test
+    void call_whenTrialCallFails_thenCircuitOpensAgain() {
+        ClientGuard guard = guard(10, 2);
+        open(guard);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+
+        call(guard, FAILED);
+
+        assertThat(circuitState(), is(1.0));
+        assertThrows(ServerUnavailableException.class, () -> call(guard, OK));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        assertThat(call(guard, OK), is(OK));
+        assertThat(circuitState(), is(2.0));
+    }
+
+    @Test
+    void call_whenHalfOpenTrialCallsTaken_thenOtherCallsRejected() throws Exception {
+        ClientGuard guard = guard(10, 1);
+        open(guard);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> trial = executor.submit(() -> guard.call(() -> awaitResponse(started, release, OK),
+                FAILED::equals));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThrows(ServerUnavailableException.class, () -> call(guard, OK));
+
+        release.countDown();
+        assertThat(trial.get(5, TimeUnit.SECONDS), is(OK));
+        assertThat(circuitState(), is(0.0));
+    }
+
+    @Test
+    void call_whenCallStartedBeforeOpenFailsWhileHalfOpen_thenNotCountedAsTrial() throws Exception {
+        ClientGuard guard = guard(10, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> late = executor.submit(() -> guard.call(() -> awaitResponse(started, release, FAILED),
+                FAILED::equals));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        open(guard);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        call(guard, OK);
+
+        release.countDown();
+        assertThat(late.get(5, TimeUnit.SECONDS), is(FAILED));
+
+        assertThat(circuitState(), is(2.0));
+        call(guard, OK);
+        assertThat(circuitState(), is(0.0));
+    }
+
+    @Test
+    void call_whenBulkheadFull_thenRejectedWithoutCallingServer() throws Exception {
+        ClientGuard guard = guard(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger serverCalls = new AtomicInteger();
+        Future<String> running = executor.submit(() -> guard.call(() -> awaitResponse(started, release, OK),
+                FAILED::equals));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThrows(ServerUnavailableException.class, () -> guard.call(() -> {
+            serverCalls.incrementAndGet();
+            return OK;
+        }, FAILED::equals));
+
+        assertThat(serverCalls.get(), is(0));
+        assertThat(rejected("bulkhead"), is(1.0));
+        assertThat(meterRegistry.get("shareit.gateway.client.active-calls").gauge().value(), is(1.0));
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS), is(OK));
+        assertThat(call(guard, OK), is(OK));
+        assertThat(circuitState(), is(0.0));
+    }
+
+    @Test
+    void call_whenInterruptedByCaller_thenNotCountedAsFailure() {
+        ClientGuard guard = guard(10, 1);
+
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+                throw new IllegalStateException("Cancelled", new InterruptedException());
+            }, FAILED::equals));
+        }
+
+        assertThat(circuitState(), is(0.0));
+        assertThat(meterRegistry.get("shareit.gateway.client.calls").tag("outcome", "failure").timer().count(),
+                is(0L));
+    }
+
+    private ClientGuard guard(int maxConcurrentCalls, int halfOpenCalls) {
+        return new ClientGuard("items", meterRegistry, clock::get, maxConcurrentCalls, 0, SLOW_CALL_MS, 50,
+                MINIMUM_CALLS, 10, OPEN_MS, halfOpenCalls);
+    }
+
+    private String call(ClientGuard guard, String response) {
+        return guard.call(() -> response, FAILED::equals);
+    }
+
+    private void open(ClientGuard guard) {
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            call(guard, FAILED);
+        }
+        assertThat(circuitState(), is(1.0));
+    }
+
+    private double circuitState() {
+        return meterRegistry.get("shareit.gateway.client.circuit-state").gauge().value();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("shareit.gateway.client.rejected").tag("reason", reason).counter().count();
+    }
+
+    private static String awaitResponse(CountDownLatch started, CountDownLatch release, String response) {
+        started.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return response;
+    }
+}
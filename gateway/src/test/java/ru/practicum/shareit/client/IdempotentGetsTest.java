@@ -0,0 +1,148 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotentGetsTest {
+    private static final String PATH = "/items/1";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger serverCalls = new AtomicInteger();
+
+    @Test
+    void execute_whenPathNotAllowed_thenSentOnce() throws InterruptedException {
+        IdempotentGets idempotentGets = idempotentGets(false, 0);
+
+        assertThrows(ResourceAccessException.class, () -> idempotentGets.execute("/bookings/1", () -> {
+            serverCalls.incrementAndGet();
+            throw connectionFailure();
+        }));
+
+        assertThat(serverCalls.get(), is(1));
+        assertThat(meterRegistry.get("shareit.gateway.retries").counter().count(), is(0.0));
+        idempotentGets.shutdown();
+    }
+
+    @Test
+    void execute_whenConnectionFails_thenRetriedUpToMaxAttempts() throws InterruptedException {
+        IdempotentGets idempotentGets = idempotentGets(false, 0);
+
+        assertThrows(ResourceAccessException.class, () -> idempotentGets.execute(PATH, () -> {
+            serverCalls.incrementAndGet();
+            throw connectionFailure();
+        }));
+
+        assertThat(serverCalls.get(), is(MAX_ATTEMPTS));
+        assertThat(meterRegistry.get("shareit.gateway.retries").counter().count(), is(MAX_ATTEMPTS - 1.0));
+        idempotentGets.shutdown();
+    }
+
+    @Test
+    void execute_whenConnectionFailsOnce_thenRetryResponseReturned() throws InterruptedException {
+        IdempotentGets idempotentGets = idempotentGets(false, 0);
+
+        ResponseEntity<byte[]> response = idempotentGets.execute(PATH, () -> {
+            if (serverCalls.incrementAndGet() == 1) {
+                throw connectionFailure();
+            }
+            return response("retry");
+        });
+
+        assertThat(body(response), is("retry"));
+        assertThat(serverCalls.get(), is(2));
+        idempotentGets.shutdown();
+    }
+
+    @Test
+    void execute_whenReadTimedOut_thenNotRetried() throws InterruptedException {
+        IdempotentGets idempotentGets = idempotentGets(false, 0);
+
+        assertThrows(ResourceAccessException.class, () -> idempotentGets.execute(PATH, () -> {
+            serverCalls.incrementAndGet();
+            throw new ResourceAccessException("Read timed out", new SocketTimeoutException());
+        }));
+
+        assertThat(serverCalls.get(), is(1));
+        idempotentGets.shutdown();
+    }
+
+    @Test
+    void execute_whenPrimaryAnswersBeforeHedgeDelay_thenHedgeNotSent() throws InterruptedException {
+        IdempotentGets idempotentGets = idempotentGets(true, 5000);
+
+        ResponseEntity<byte[]> response = idempotentGets.execute(PATH, () -> {
+            serverCalls.incrementAndGet();
+            return response("primary");
+        });
+
+        assertThat(body(response), is("primary"));
+        assertThat(serverCalls.get(), is(1));
+        assertThat(hedges("sent"), is(0.0));
+        idempotentGets.shutdown();
+    }
+
+    @Test
+    void execute_whenHedgeAnswersFirst_thenHedgeResponseReturnedAndPrimaryCancelled() throws InterruptedException {
+        IdempotentGets idempotentGets = idempotentGets(true, 10);
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        ResponseEntity<byte[]> response = idempotentGets.execute(PATH, () -> {
+            if (serverCalls.incrementAndGet() > 1) {
+                return response("hedge");
+            }
+            try {
+                neverReleased.await();
+            } catch (InterruptedException e) {
+                primaryInterrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("Primary call cancelled");
+        });
+
+        assertThat(body(response), is("hedge"));
+        assertThat(serverCalls.get(), is(2));
+        assertThat(hedges("sent"), is(1.0));
+        assertThat(hedges("won"), is(1.0));
+        assertThat(primaryInterrupted.await(5, TimeUnit.SECONDS), is(true));
+        idempotentGets.shutdown();
+    }
+
+    // Hedging starts with the first call, its delay is hedgeMinDelayMs until the path has latencies
+    private IdempotentGets idempotentGets(boolean hedgingEnabled, long hedgeMinDelayMs) {
+        return new IdempotentGets(meterRegistry, List.of("/items/*"), MAX_ATTEMPTS, 0, 0, hedgingEnabled,
+                hedgeMinDelayMs, 0, 2);
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.get("shareit.gateway.hedging.requests").tag("result", result).counter().count();
+    }
+
+    private static ResourceAccessException connectionFailure() {
+        return new ResourceAccessException("Connection refused", new ConnectException());
+    }
+
+    private static ResponseEntity<byte[]> response(String body) {
+        return ResponseEntity.ok(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The leader's server call waits for the test, followers are started only after it is in flight
+class SingleFlightTest {
+    private static final String KEY = "/items/1\n1\n[]";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final AtomicInteger serverCalls = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_whenSameKeyInFlight_thenFollowerGetsLeaderResponse() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, true);
+        ResponseEntity<byte[]> serverResponse = ResponseEntity.ok("item".getBytes(StandardCharsets.UTF_8));
+        Future<ResponseEntity<byte[]>> leader = executor.submit(() ->
+                singleFlight.execute(KEY, blockingCall(() -> serverResponse)));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        Future<ResponseEntity<byte[]>> follower = executor.submit(() ->
+                singleFlight.execute(KEY, blockingCall(() -> serverResponse)));
+        awaitFollowers(1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS), sameInstance(serverResponse));
+        assertThat(follower.get(5, TimeUnit.SECONDS), sameInstance(serverResponse));
+        assertThat(serverCalls.get(), is(1));
+        assertThat(requests("leader"), is(1.0));
+        assertThat(meterRegistry.get("shareit.gateway.coalescing.in-flight").gauge().value(), is(0.0));
+    }
+
+    @Test
+    void execute_whenLeaderCallFails_thenFollowerGetsSameException() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, true);
+        IllegalStateException failure = new IllegalStateException("Server unavailable");
+        Future<ResponseEntity<byte[]>> leader = executor.submit(() ->
+                singleFlight.execute(KEY, blockingCall(() -> {
+                    throw failure;
+                })));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        Future<ResponseEntity<byte[]>> follower = executor.submit(() ->
+                singleFlight.execute(KEY, blockingCall(() -> {
+                    throw failure;
+                })));
+        awaitFollowers(1);
+        release.countDown();
+
+        ExecutionException leaderException = assertThrows(ExecutionException.class,
+                () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerException = assertThrows(ExecutionException.class,
+                () -> follower.get(5, TimeUnit.SECONDS));
+        assertThat(leaderException.getCause(), sameInstance(failure));
+        assertThat(followerException.getCause(), sameInstance(failure));
+        assertThat(serverCalls.get(), is(1));
+    }
+
+    @Test
+    void execute_whenPreviousCallFinished_thenNewServerCall() {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, true);
+        release.countDown();
+
+        singleFlight.execute(KEY, blockingCall(() -> ResponseEntity.ok().build()));
+        singleFlight.execute(KEY, blockingCall(() -> ResponseEntity.ok().build()));
+        singleFlight.execute("/items/2\n1\n[]", blockingCall(() -> ResponseEntity.ok().build()));
+
+        assertThat(serverCalls.get(), is(3));
+        assertThat(requests("leader"), is(3.0));
+        assertThat(requests("follower"), is(0.0));
+    }
+
+    @Test
+    void execute_whenDisabled_thenEveryCallSentToServer() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, false);
+        Future<ResponseEntity<byte[]>> first = executor.submit(() ->
+                singleFlight.execute(KEY, blockingCall(() -> ResponseEntity.ok().build())));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        singleFlight.execute(KEY, () -> {
+            serverCalls.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(serverCalls.get(), is(2));
+    }
+
+    private Supplier<ResponseEntity<byte[]>> blockingCall(Supplier<ResponseEntity<byte[]>> response) {
+        return () -> {
+            serverCalls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response.get();
+        };
+    }
+
+    // The follower counter is incremented right before it starts waiting for the leader's response
+    private void awaitFollowers(int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests("follower") < followers && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(requests("follower"), is((double) followers));
+    }
+
+    private double requests(String role) {
+        return meterRegistry.get("shareit.gateway.coalescing.requests").tag("role", role).counter().count();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+class RateLimitInterceptorTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimiter rateLimiter = new RateLimiter(meterRegistry, new AtomicLong()::get, true, 100, 60000,
+            5, 2, 50, 100, 20, 40);
+    private final RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor(rateLimiter, new ObjectMapper());
+
+    @Test
+    void preHandle_whenSearchLimitExceeded_thenTooManyRequestsWithRetryAfter() throws IOException {
+        assertThat(preHandle(search("1"), new MockHttpServletResponse()), is(true));
+        assertThat(preHandle(search("1"), new MockHttpServletResponse()), is(true));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean passed = preHandle(search("1"), response);
+
+        assertThat(passed, is(false));
+        assertThat(response.getStatus(), is(HttpStatus.TOO_MANY_REQUESTS.value()));
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), is("1"));
+        assertThat(response.getContentAsString(), containsString("TooManyRequests"));
+        assertThat(preHandle(search("2"), new MockHttpServletResponse()), is(true));
+    }
+
+    @Test
+    void preHandle_whenUserIdMissingOrInvalid_thenPassedWithoutTakingToken() throws IOException {
+        MockHttpServletRequest withoutUserId = new MockHttpServletRequest("GET", "/items/search");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(preHandle(withoutUserId, new MockHttpServletResponse()), is(true));
+            assertThat(preHandle(search("user"), new MockHttpServletResponse()), is(true));
+        }
+
+        assertThat(meterRegistry.get("shareit.gateway.rate-limit.requests")
+                .tag("class", "search")
+                .tag("result", "allowed")
+                .counter().count(), is(0.0));
+    }
+
+    private boolean preHandle(MockHttpServletRequest request, MockHttpServletResponse response) throws IOException {
+        return rateLimitInterceptor.preHandle(request, response, new Object());
+    }
+
+    private static MockHttpServletRequest search(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/search");
+        request.addHeader("X-Sharer-User-Id", userId);
+        return request;
+    }
+}
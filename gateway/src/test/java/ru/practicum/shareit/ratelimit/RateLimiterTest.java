@@ -0,0 +1,115 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+// Searches get a token every 200 ms and a burst of 10, the clock only moves when a test moves it
+class RateLimiterTest {
+    private static final int SEARCH_BURST = 10;
+    private static final long SEARCH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long SWEEP_INTERVAL_MS = 60000;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void tryAcquire_whenBurstUsed_thenRejectedUntilNextToken() {
+        RateLimiter rateLimiter = rateLimiter(true, 100);
+
+        acquireBurst(rateLimiter, 1L);
+
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(SEARCH_INTERVAL_NANOS));
+        assertThat(requests("allowed"), is((double) SEARCH_BURST));
+        assertThat(requests("rejected"), is(1.0));
+    }
+
+    @Test
+    void tryAcquire_whenTimePassed_thenTokensRefilledUpToBurst() {
+        RateLimiter rateLimiter = rateLimiter(true, 100);
+        acquireBurst(rateLimiter, 1L);
+
+        clock.addAndGet(SEARCH_INTERVAL_NANOS);
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(0L));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(SEARCH_INTERVAL_NANOS));
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        acquireBurst(rateLimiter, 1L);
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(SEARCH_INTERVAL_NANOS));
+    }
+
+    @Test
+    void tryAcquire_whenOtherUserOrClass_thenOwnBucket() {
+        RateLimiter rateLimiter = rateLimiter(true, 100);
+        acquireBurst(rateLimiter, 1L);
+
+        acquireBurst(rateLimiter, 2L);
+        assertThat(rateLimiter.tryAcquire(EndpointClass.READ, 1L), is(0L));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.WRITE, 1L), is(0L));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(SEARCH_INTERVAL_NANOS));
+    }
+
+    @Test
+    void tryAcquire_whenMaxBucketsReached_thenNewUsersShareOverflowBucket() {
+        RateLimiter rateLimiter = rateLimiter(true, 1);
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(0L));
+
+        acquireBurst(rateLimiter, 2L);
+
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 3L), is(SEARCH_INTERVAL_NANOS));
+        assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(0L));
+        assertThat(buckets(), is(1.0));
+        assertThat(meterRegistry.get("shareit.gateway.rate-limit.overflow").tag("class", "search").counter().count(),
+                is(SEARCH_BURST + 1.0));
+    }
+
+    @Test
+    void tryAcquire_whenSweepIntervalPassed_thenFullBucketsDropped() {
+        RateLimiter rateLimiter = rateLimiter(true, 100);
+        rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L);
+        rateLimiter.tryAcquire(EndpointClass.SEARCH, 2L);
+        assertThat(buckets(), is(2.0));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(SWEEP_INTERVAL_MS));
+        rateLimiter.tryAcquire(EndpointClass.SEARCH, 3L);
+
+        assertThat(buckets(), is(1.0));
+    }
+
+    @Test
+    void tryAcquire_whenDisabled_thenAlwaysAllowed() {
+        RateLimiter rateLimiter = rateLimiter(false, 100);
+
+        for (int i = 0; i < SEARCH_BURST * 2; i++) {
+            assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, 1L), is(0L));
+        }
+    }
+
+    private RateLimiter rateLimiter(boolean enabled, int maxBuckets) {
+        return new RateLimiter(meterRegistry, clock::get, enabled, maxBuckets, SWEEP_INTERVAL_MS,
+                5, SEARCH_BURST, 50, 100, 20, 40);
+    }
+
+    private void acquireBurst(RateLimiter rateLimiter, long userId) {
+        for (int i = 0; i < SEARCH_BURST; i++) {
+            assertThat(rateLimiter.tryAcquire(EndpointClass.SEARCH, userId), is(0L));
+        }
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("shareit.gateway.rate-limit.requests")
+                .tag("class", "search")
+                .tag("result", result)
+                .counter().count();
+    }
+
+    private double buckets() {
+        return meterRegistry.get("shareit.gateway.rate-limit.buckets").tag("class", "search").gauge().value();
+    }
+}
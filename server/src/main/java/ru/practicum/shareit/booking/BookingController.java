@@ -4,20 +4,31 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingRequestingDto;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.state.BookingState;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/bookings")
 @Slf4j
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     BookingService bookingService;
 
     public BookingController(BookingService bookingService) {
@@ -34,6 +45,18 @@ public class BookingController {
         return bookingInfoDto;
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createAll(@RequestBody List<BookingRequestingDto> bookingRequestingDtoList,
+                                                 @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("POST \"/bookings/batch\" BODY={} entries, Headers:(X-Sharer-User-Id)={}", bookingRequestingDtoList.size(), userId);
+        List<BookingCreateDto> bookingCreateDtoList = bookingRequestingDtoList.stream()
+                .map(bookingRequestingDto -> BookingMapper.toCreateDto(bookingRequestingDto, userId))
+                .collect(Collectors.toList());
+        List<BookingBatchResultDto> results = bookingService.createAll(userId, bookingCreateDtoList);
+        log.info(results.toString());
+        return results;
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingInfoDto respondToBooking(@PathVariable long bookingId,
                                            @RequestParam(name = "approved") boolean approved,
@@ -44,38 +67,101 @@ public class BookingController {
         return bookingInfoDto;
     }
 
+    // Unchanged booking is answered with 304 by its ETag without being read
     @GetMapping("/{bookingId}")
     public BookingInfoDto findBookingById(@PathVariable long bookingId,
-                                          @RequestHeader("X-Sharer-User-Id") long userId) {
+                                          @RequestHeader("X-Sharer-User-Id") long userId,
+                                          WebRequest webRequest) {
         log.info("GET \"/bookings/{}\", Headers:(X-Sharer-User-Id)={}", bookingId, userId);
+        if (webRequest.checkNotModified(bookingService.getTagByBookingId(userId, bookingId))) {
+            return null;
+        }
         BookingInfoDto bookingInfoDto = bookingService.findBookingById(userId, bookingId);
         log.info(bookingInfoDto.toString());
         return bookingInfoDto;
     }
 
+    // With "cursor" parameter (empty for the first page) keyset pagination is used instead of from,
+    // a full page returns the cursor of the next one in X-Next-Cursor header
     @GetMapping
-    public List<BookingInfoDto> findAllBookingByBookerIdAndState(@RequestParam(defaultValue = "ALL") BookingState state,
-                                                                 @RequestHeader("X-Sharer-User-Id") long userId,
-                                                                 @RequestParam(name = "size", defaultValue = "10") int limit,
-                                                                 @RequestParam(name = "from", defaultValue = "0") int offset) {
-        log.info("GET \"/bookings?state={}&from={}&size={}\", Headers:(X-Sharer-User-Id)={}", state, offset, limit, userId);
+    public ResponseEntity<List<BookingInfoDto>> findAllBookingByBookerIdAndState(@RequestParam(defaultValue = "ALL") BookingState state,
+                                                                                 @RequestHeader("X-Sharer-User-Id") long userId,
+                                                                                 @RequestParam(name = "size", defaultValue = "10") int limit,
+                                                                                 @RequestParam(name = "from", defaultValue = "0") int offset,
+                                                                                 @RequestParam(required = false) String cursor) {
+        log.info("GET \"/bookings?state={}&from={}&size={}&cursor={}\", Headers:(X-Sharer-User-Id)={}", state, offset, limit, cursor, userId);
+        if (cursor != null) {
+            List<BookingInfoDto> bookingInfoDtoList = bookingService.findAllBookingByBookerIdAndState(userId, state,
+                    toBookingCursor(cursor), limit);
+            log.info(bookingInfoDtoList.toString());
+            return withNextCursor(bookingInfoDtoList, limit);
+        }
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
         List<BookingInfoDto> bookingInfoDtoList = bookingService.findAllBookingByBookerIdAndState(userId, state, pageable);
         log.info(bookingInfoDtoList.toString());
-        return bookingInfoDtoList;
+        return ResponseEntity.ok(bookingInfoDtoList);
     }
 
     @GetMapping("/owner")
-    public List<BookingInfoDto> findAllBookingByOwnerIdAndState(@RequestParam(defaultValue = "ALL") BookingState state,
-                                                                @RequestHeader("X-Sharer-User-Id") long userId,
-                                                                @RequestParam(name = "size", defaultValue = "10") int limit,
-                                                                @RequestParam(name = "from", defaultValue = "0") int offset) {
-        log.info("GET \"/bookings/owner?state={}\", Headers:(X-Sharer-User-Id)={}", state, userId);
+    public ResponseEntity<List<BookingInfoDto>> findAllBookingByOwnerIdAndState(@RequestParam(defaultValue = "ALL") BookingState state,
+                                                                                @RequestHeader("X-Sharer-User-Id") long userId,
+                                                                                @RequestParam(name = "size", defaultValue = "10") int limit,
+                                                                                @RequestParam(name = "from", defaultValue = "0") int offset,
+                                                                                @RequestParam(required = false) String cursor) {
+        log.info("GET \"/bookings/owner?state={}&cursor={}\", Headers:(X-Sharer-User-Id)={}", state, cursor, userId);
+        if (cursor != null) {
+            List<BookingInfoDto> bookingInfoDtoList = bookingService.findAllBookingByOwnerIdAndState(userId, state,
+                    toBookingCursor(cursor), limit);
+            log.info(bookingInfoDtoList.toString());
+            return withNextCursor(bookingInfoDtoList, limit);
+        }
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
         List<BookingInfoDto> bookingInfoDtoList = bookingService.findAllBookingByOwnerIdAndState(userId, state, pageable);
         log.info(bookingInfoDtoList.toString());
-        return bookingInfoDtoList;
+        return ResponseEntity.ok(bookingInfoDtoList);
+    }
+
+    // Whole history in one response, written to the output stream as the rows are read
+    @GetMapping("/export")
+    public void exportAllBookingByBookerId(@RequestParam(defaultValue = "NDJSON") BookingExportFormat format,
+                                           @RequestHeader("X-Sharer-User-Id") long userId,
+                                           HttpServletResponse response) throws IOException {
+        log.info("GET \"/bookings/export?format={}\", Headers:(X-Sharer-User-Id)={}", format, userId);
+        BookingExport export = bookingService.exportAllBookingByBookerId(userId, format);
+        writeExport(export, format, response);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportAllBookingByOwnerId(@RequestParam(defaultValue = "NDJSON") BookingExportFormat format,
+                                          @RequestHeader("X-Sharer-User-Id") long userId,
+                                          HttpServletResponse response) throws IOException {
+        log.info("GET \"/bookings/owner/export?format={}\", Headers:(X-Sharer-User-Id)={}", format, userId);
+        BookingExport export = bookingService.exportAllBookingByOwnerId(userId, format);
+        writeExport(export, format, response);
+    }
+
+    // Headers are set only after the user check, so a NotFoundException is still answered with JSON
+    private static void writeExport(BookingExport export, BookingExportFormat format,
+                                    HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"bookings." + format.getFileExtension() + "\"");
+        export.writeTo(response.getOutputStream());
+    }
+
+    private static BookingCursor toBookingCursor(String cursor) {
+        return cursor.isBlank() ? null : BookingCursor.decode(cursor);
+    }
+
+    private static ResponseEntity<List<BookingInfoDto>> withNextCursor(List<BookingInfoDto> bookingInfoDtoList, int limit) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookingInfoDtoList.size() == limit) {
+            BookingInfoDto lastBooking = bookingInfoDtoList.get(limit - 1);
+            response.header(NEXT_CURSOR_HEADER, BookingCursor.of(lastBooking).encode());
+        }
+        return response.body(bookingInfoDtoList);
     }
 }
@@ -1,20 +1,38 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.booking.model.Booking;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    String EXPORT_FETCH_SIZE = "500";
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER_GRAPH)
     Optional<Booking> findByIdAndItemOwnerId(long bookingId, long ownerId);
 
+    @Query(value = "SELECT b.status " +
+            "FROM Booking AS b " +
+            "WHERE b.id = ?1")
+    Optional<BookingStatus> findStatusById(long bookingId);
+
     @Query(value = "SELECT b " +
             "FROM Booking AS b " +
             "JOIN FETCH b.item " +
@@ -22,81 +40,87 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE b.id = ?1 AND (b.item.owner.id = ?2 OR b.booker.id = ?2)")
     Optional<Booking> findByIdAndOwnerIdOrBookerId(long bookingId, long bookerId);
 
-    List<Booking> findAllByBookerId(long bookerId, Pageable pageRequest);
+    @Query(value = INFO_SELECT +
+            "WHERE b.booker.id = ?1 ")
+    List<BookingInfoDto> findAllInfoByBookerId(long bookerId, Pageable pageRequest);
 
-    @Query(value = "SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN FETCH b.item " +
-            "JOIN FETCH b.booker " +
+    @Query(value = INFO_SELECT +
             "WHERE b.end < NOW() AND b.booker.id = ?1 ")
-    List<Booking> findAllPastBookingByBookerId(long bookerId, Pageable pageRequest);
+    List<BookingInfoDto> findAllPastInfoByBookerId(long bookerId, Pageable pageRequest);
 
-    @Query(value = "SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN FETCH b.item " +
-            "JOIN FETCH b.booker " +
+    @Query(value = INFO_SELECT +
             "WHERE (NOW() BETWEEN b.start AND b.end) AND b.booker.id = ?1 ")
-    List<Booking> findAllCurrentBookingByBookerId(long bookerId, Pageable pageRequest);
+    List<BookingInfoDto> findAllCurrentInfoByBookerId(long bookerId, Pageable pageRequest);
 
-    @Query(value = "SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN FETCH b.item " +
-            "JOIN FETCH b.booker " +
+    @Query(value = INFO_SELECT +
             "WHERE b.start > NOW() AND b.booker.id = ?1 ")
-    List<Booking> findAllFutureBookingByBookerId(long bookerId, Pageable pageRequest);
-
-    List<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus status, Pageable pageRequest);
-
-    List<Booking> findAllByItemOwnerId(long ownerId, Pageable pageRequest);
-
-    @Query(value = "SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN FETCH b.item " +
-            "JOIN FETCH b.booker " +
-            "WHERE b.end < NOW() AND b.item.owner.id = ?1 ")
-    List<Booking> findAllPastBookingByItemOwnerId(long ownerId, Pageable pageRequest);
-
-    @Query(value = "SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN FETCH b.item " +
-            "JOIN FETCH b.booker " +
-            "WHERE (NOW() BETWEEN b.start AND b.end) AND b.item.owner.id = ?1 ")
-    List<Booking> findAllCurrentBookingByItemOwnerId(long ownerId, Pageable pageRequest);
-
-    @Query(value = "SELECT b " +
-            "FROM Booking AS b " +
-            "JOIN FETCH b.item " +
-            "JOIN FETCH b.booker " +
-            "WHERE b.start > NOW() AND b.item.owner.id = ?1 ")
-    List<Booking> findAllFutureBookingByItemOwnerId(long ownerId, Pageable pageRequest);
-
-    List<Booking> findAllByItemOwnerIdAndStatus(long ownerId, BookingStatus status, Pageable pageRequest);
-
-    @Query(value = "SELECT * " +
-            "FROM bookings AS b " +
-            "JOIN items AS i ON b.item_id = i.item_id " +
-            "JOIN users AS u ON b.booker_id = u.user_id " +
-            "WHERE b.start_date_time < ?2 AND b.item_id = ?1 AND b.status = 'APPROVED' " +
-            "ORDER BY b.start_date_time DESC " +
-            "LIMIT 1", nativeQuery = true)
-    Optional<Booking> findLastForDateTime(long itemId, LocalDateTime time);
-
-    @Query(value = "SELECT * " +
-            "FROM bookings AS b " +
-            "JOIN items AS i ON b.item_id = i.item_id " +
-            "JOIN users AS u ON b.booker_id = u.user_id " +
-            "WHERE b.start_date_time > ?2 AND b.item_id = ?1 AND b.status = 'APPROVED' " +
-            "ORDER BY b.start_date_time ASC " +
-            "LIMIT 1", nativeQuery = true)
-    Optional<Booking> findNextForDateTime(long itemId, LocalDateTime time);
-
-    /*@Query(value = "SELECT * " +
+    List<BookingInfoDto> findAllFutureInfoByBookerId(long bookerId, Pageable pageRequest);
+
+    @Query(value = INFO_SELECT +
+            "WHERE b.booker.id = ?1 AND b.status = ?2 ")
+    List<BookingInfoDto> findAllInfoByBookerIdAndStatus(long bookerId, BookingStatus status, Pageable pageRequest);
+
+    @Query(value = INFO_SELECT +
+            "WHERE i.owner.id = ?1 ")
+    List<BookingInfoDto> findAllInfoByItemOwnerId(long ownerId, Pageable pageRequest);
+
+    @Query(value = INFO_SELECT +
+            "WHERE b.end < NOW() AND i.owner.id = ?1 ")
+    List<BookingInfoDto> findAllPastInfoByItemOwnerId(long ownerId, Pageable pageRequest);
+
+    @Query(value = INFO_SELECT +
+            "WHERE (NOW() BETWEEN b.start AND b.end) AND i.owner.id = ?1 ")
+    List<BookingInfoDto> findAllCurrentInfoByItemOwnerId(long ownerId, Pageable pageRequest);
+
+    @Query(value = INFO_SELECT +
+            "WHERE b.start > NOW() AND i.owner.id = ?1 ")
+    List<BookingInfoDto> findAllFutureInfoByItemOwnerId(long ownerId, Pageable pageRequest);
+
+    @Query(value = INFO_SELECT +
+            "WHERE i.owner.id = ?1 AND b.status = ?2 ")
+    List<BookingInfoDto> findAllInfoByItemOwnerIdAndStatus(long ownerId, BookingStatus status, Pageable pageRequest);
+
+    // Whole history for export, read through a cursor EXPORT_FETCH_SIZE rows per round trip
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(value = INFO_SELECT +
+            "WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<BookingInfoDto> streamAllInfoByBookerId(long bookerId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(value = INFO_SELECT +
+            "WHERE i.owner.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<BookingInfoDto> streamAllInfoByItemOwnerId(long ownerId);
+
+    // At most one last (finished before time, latest start), one current (started before time and not finished)
+    // and one next (starting after time, earliest start) APPROVED booking per item. Each correlated LIMIT 1 subquery
+    // is an index seek on bookings_item_id_status_start_idx, so the cost does not depend on how many bookings
+    // an item has
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.booker_id AS bookerId, " +
+            "b.start_date_time AS start, b.end_date_time AS \"end\", b.status AS status " +
             "FROM bookings AS b " +
-            "JOIN items AS i ON b.item_id = i.item_id " +
-            "JOIN users AS u ON b.booker_id = u.user_id " +
-            "WHERE (b.start_date_time < ?2) AND (b.item_id IN ?1) AND (b.status = 'APPROVED') " +
-            "ORDER BY b.start_date_time DESC", nativeQuery = true)*/
-    List<Booking> findAllByItemIdInAndStatus(Collection<Long> itemIdList, BookingStatus status, Sort sort);
+            "WHERE b.booking_id IN (" +
+            "SELECT (SELECT l.booking_id FROM bookings AS l " +
+            "WHERE l.item_id = i.item_id AND l.status = 'APPROVED' " +
+            "AND l.start_date_time < ?2 AND l.end_date_time < ?2 " +
+            "ORDER BY l.start_date_time DESC LIMIT 1) " +
+            "FROM items AS i " +
+            "WHERE i.item_id IN ?1 " +
+            "UNION ALL " +
+            "SELECT (SELECT c.booking_id FROM bookings AS c " +
+            "WHERE c.item_id = i.item_id AND c.status = 'APPROVED' " +
+            "AND c.start_date_time < ?2 AND c.end_date_time >= ?2 " +
+            "ORDER BY c.start_date_time DESC LIMIT 1) " +
+            "FROM items AS i " +
+            "WHERE i.item_id IN ?1 " +
+            "UNION ALL " +
+            "SELECT (SELECT n.booking_id FROM bookings AS n " +
+            "WHERE n.item_id = i.item_id AND n.status = 'APPROVED' AND n.start_date_time > ?2 " +
+            "ORDER BY n.start_date_time ASC LIMIT 1) " +
+            "FROM items AS i " +
+            "WHERE i.item_id IN ?1)", nativeQuery = true)
+    List<BookingShortView> findLastCurrentAndNextForDateTime(Collection<Long> itemIdList, LocalDateTime time);
 
     @Query(value = "SELECT COUNT(b.booking_id) " +
             "FROM bookings AS b " +
@@ -108,9 +132,37 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     @Query(value = "SELECT COUNT(b.booking_id) " +
             "FROM bookings AS b " +
-            "JOIN items AS i ON b.item_id = i.item_id " +
-            "JOIN users AS u ON b.booker_id = u.user_id " +
             "WHERE (b.start_date_time < :end AND b.end_date_time > :start) " +
             "AND (b.item_id = :itemId) AND (b.status = 'APPROVED')", nativeQuery = true)
     int countIntersectionInTime(LocalDateTime start, LocalDateTime end, long itemId);
+
+    long countByItemIdAndStatus(long itemId, BookingStatus status);
+
+    // APPROVED bookings of the items intersecting [start, end), one query for a whole batch of new bookings
+    @Query(value = "SELECT b.booking_id AS id, b.item_id AS itemId, b.booker_id AS bookerId, " +
+            "b.start_date_time AS start, b.end_date_time AS \"end\", b.status AS status " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN ?1 AND b.status = 'APPROVED' " +
+            "AND b.start_date_time < ?3 AND b.end_date_time > ?2", nativeQuery = true)
+    List<BookingShortView> findAllApprovedByItemIdInBetween(Collection<Long> itemIdList, LocalDateTime start,
+                                                            LocalDateTime end);
+
+    @Query(value = "SELECT new ru.practicum.shareit.booking.interval.BookingInterval(b.start, b.end) " +
+            "FROM Booking AS b " +
+            "WHERE b.item.id = ?1 AND b.status = ?2")
+    List<BookingInterval> findAllIntervalsByItemIdAndStatus(long itemId, BookingStatus status);
+
+    // Same access check as findByIdAndOwnerIdOrBookerId
+    @Query(value = "SELECT b.version AS bookingVersion, i.version AS itemVersion, u.version AS bookerVersion " +
+            "FROM bookings AS b " +
+            "JOIN items AS i ON i.item_id = b.item_id " +
+            "JOIN users AS u ON u.user_id = b.booker_id " +
+            "WHERE b.booking_id = ?1 AND (i.owner_id = ?2 OR b.booker_id = ?2)", nativeQuery = true)
+    Optional<BookingVersionView> findVersionByIdAndOwnerIdOrBookerId(long bookingId, long userId);
+
+    @Modifying
+    @Query(value = "UPDATE Booking AS b " +
+            "SET b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId")
+    void incrementVersionById(@Param("bookingId") long bookingId);
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.state.BookingState;
+
+import java.util.List;
+
+// Keyset pagination: the page after cursor (first page if cursor is null) ordered by start DESC, id DESC
+public interface BookingRepositoryCustom {
+    // BookingInfoDto straight from the joined row, no Booking, Item or User entities enter the persistence context
+    String INFO_SELECT = "SELECT new ru.practicum.shareit.booking.dto.BookingInfoDto(" +
+            "b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.description, i.isAvailable, i.itemRequest.id, " +
+            "u.id, u.email, u.name) " +
+            "FROM Booking AS b " +
+            "JOIN b.item AS i " +
+            "JOIN b.booker AS u ";
+
+    List<BookingInfoDto> findAllInfoByBookerIdAndStateAfter(long bookerId, BookingState state,
+                                                            @Nullable BookingCursor cursor, int size);
+
+    List<BookingInfoDto> findAllInfoByItemOwnerIdAndStateAfter(long ownerId, BookingState state,
+                                                               @Nullable BookingCursor cursor, int size);
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.state.BookingState;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final String BOOKER_CONDITION = "b.booker.id = :userId";
+    private static final String OWNER_CONDITION = "i.owner.id = :userId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingInfoDto> findAllInfoByBookerIdAndStateAfter(long bookerId, BookingState state,
+                                                                   @Nullable BookingCursor cursor, int size) {
+        return findAllByStateAfter(BOOKER_CONDITION, bookerId, state, cursor, size);
+    }
+
+    @Override
+    public List<BookingInfoDto> findAllInfoByItemOwnerIdAndStateAfter(long ownerId, BookingState state,
+                                                                      @Nullable BookingCursor cursor, int size) {
+        return findAllByStateAfter(OWNER_CONDITION, ownerId, state, cursor, size);
+    }
+
+    private List<BookingInfoDto> findAllByStateAfter(String userCondition, long userId, BookingState state,
+                                                     @Nullable BookingCursor cursor, int size) {
+        StringBuilder jpql = new StringBuilder(INFO_SELECT)
+                .append("WHERE ").append(userCondition);
+        switch (state) {
+            case PAST:
+                jpql.append(" AND b.end < :now");
+                break;
+            case CURRENT:
+                jpql.append(" AND (:now BETWEEN b.start AND b.end)");
+                break;
+            case FUTURE:
+                jpql.append(" AND b.start > :now");
+                break;
+            case WAITING:
+            case REJECTED:
+                jpql.append(" AND b.status = :status");
+                break;
+            default:
+        }
+        // Redundant "b.start <= :cursorStart" bounds the index range scan, the rest breaks ties of equal start by id
+        if (cursor != null) {
+            jpql.append(" AND b.start <= :cursorStart " +
+                    "AND (b.start < :cursorStart OR b.id < :cursorId)");
+        }
+        jpql.append(" ORDER BY b.start DESC, b.id DESC");
+
+        TypedQuery<BookingInfoDto> query = entityManager.createQuery(jpql.toString(), BookingInfoDto.class)
+                .setParameter("userId", userId)
+                .setMaxResults(size);
+        switch (state) {
+            case PAST:
+            case CURRENT:
+            case FUTURE:
+                query.setParameter("now", LocalDateTime.now());
+                break;
+            case WAITING:
+                query.setParameter("status", BookingStatus.WAITING);
+                break;
+            case REJECTED:
+                query.setParameter("status", BookingStatus.REJECTED);
+                break;
+            default:
+        }
+        if (cursor != null) {
+            query.setParameter("cursorStart", cursor.getStart())
+                    .setParameter("cursorId", cursor.getId());
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+
+// Outcome of one entry of POST /bookings/batch: the created booking, or the error it was rejected with
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class BookingBatchResultDto {
+    private int index;
+
+    private BookingInfoDto booking;
+
+    private String error;
+
+    private String message;
+
+    public static BookingBatchResultDto created(int index, BookingInfoDto booking) {
+        return BookingBatchResultDto.builder()
+                .index(index)
+                .booking(booking)
+                .build();
+    }
+
+    public static BookingBatchResultDto rejected(int index, RuntimeException exception) {
+        return BookingBatchResultDto.builder()
+                .index(index)
+                .error(exception.getClass().getSimpleName())
+                .message(exception.getMessage())
+                .build();
+    }
+}
@@ -24,4 +24,22 @@ public class BookingInfoDto {
     private LocalDateTime end;
 
     private BookingStatus status;
+
+    // Constructor expression of BookingRepositoryCustom.INFO_SELECT, one joined row per booking
+    public BookingInfoDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                          Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                          Long itemRequestId, Long bookerId, String bookerEmail, String bookerName) {
+        this.id = id;
+        this.item = ItemInfoDto.builder()
+                .id(itemId)
+                .name(itemName)
+                .description(itemDescription)
+                .available(itemAvailable)
+                .requestId(itemRequestId)
+                .build();
+        this.booker = new UserDto(bookerId, bookerEmail, bookerName);
+        this.start = start;
+        this.end = end;
+        this.status = status;
+    }
 }
@@ -43,6 +43,19 @@ public class BookingMapper {
                 .build();
     }
 
+    // Ids of item and booker are read from their proxies, nothing is loaded
+    public static BookingStatusMessage toStatusMessage(Booking booking, long ownerId) {
+        return BookingStatusMessage.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .ownerId(ownerId)
+                .bookerId(booking.getBooker().getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .build();
+    }
+
     public static List<BookingInfoDto> toBookingInfoDtoList(List<Booking> bookingList) {
         List<BookingInfoDto> bookingInfoDtoList = new ArrayList<>();
         for (Booking booking : bookingList) {
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Payload of the outbox message sent when a booking is created or answered by the owner
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class BookingStatusMessage {
+    public static final String AGGREGATE_TYPE = "Booking";
+    public static final String EVENT_TYPE = "BookingStatusChanged";
+
+    private long bookingId;
+
+    private long itemId;
+
+    private long ownerId;
+
+    private long bookerId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private BookingStatus status;
+}
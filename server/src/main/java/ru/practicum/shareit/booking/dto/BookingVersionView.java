@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dto;
+
+// Change counters of the rows BookingInfoDto is built of: the booking, its item and its booker
+public interface BookingVersionView {
+    Long getBookingVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+}
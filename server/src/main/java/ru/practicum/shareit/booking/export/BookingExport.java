@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Bookings are read from the database while they are written, nothing is collected in memory beforehand
+@FunctionalInterface
+public interface BookingExport {
+    void writeTo(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.exception.UnsupportedStateException;
+
+@AllArgsConstructor
+@Getter
+public enum BookingExportFormat {
+    // One BookingInfoDto JSON object per line
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String fileExtension;
+
+    public static BookingExportFormat fromString(String string) {
+        for (BookingExportFormat format : BookingExportFormat.values()) {
+            if (format.toString().equals(string.toUpperCase())) {
+                return format;
+            }
+        }
+        throw new UnsupportedStateException("Unknown export format: " + string);
+    }
+}
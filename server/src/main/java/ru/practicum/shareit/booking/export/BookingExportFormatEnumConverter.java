@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.export;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookingExportFormatEnumConverter implements Converter<String, BookingExportFormat> {
+    @Override
+    public BookingExportFormat convert(String s) {
+        return BookingExportFormat.fromString(s);
+    }
+}
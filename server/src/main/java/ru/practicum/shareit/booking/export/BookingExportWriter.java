@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Buffered writer of export rows, the buffer goes to the response each time it fills up
+public class BookingExportWriter {
+    private static final String CSV_HEADER = "id,status,start,end,itemId,itemName,bookerId,bookerName,bookerEmail";
+
+    private final BookingExportFormat format;
+    private final ObjectWriter jsonWriter;
+    private final Writer writer;
+
+    public BookingExportWriter(BookingExportFormat format, ObjectMapper objectMapper, OutputStream outputStream) {
+        this.format = format;
+        // Jackson would otherwise close and flush the shared writer after every row
+        this.jsonWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == BookingExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public void write(BookingInfoDto booking) throws IOException {
+        switch (format) {
+            case NDJSON:
+                jsonWriter.writeValue(writer, booking);
+                break;
+            case CSV:
+                writer.write(String.valueOf(booking.getId()));
+                writeCsvField(booking.getStatus());
+                writeCsvField(booking.getStart());
+                writeCsvField(booking.getEnd());
+                writeCsvField(booking.getItem().getId());
+                writeCsvField(booking.getItem().getName());
+                writeCsvField(booking.getBooker().getId());
+                writeCsvField(booking.getBooker().getName());
+                writeCsvField(booking.getBooker().getEmail());
+                break;
+            default:
+        }
+        writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    // RFC 4180: a field with a separator, quote or line break is quoted, quotes inside are doubled
+    private void writeCsvField(Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String string = value.toString();
+        if (string.indexOf(',') < 0 && string.indexOf('"') < 0
+                && string.indexOf('\n') < 0 && string.indexOf('\r') < 0) {
+            writer.write(string);
+            return;
+        }
+        writer.write('"');
+        writer.write(string.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Streams the whole booking history of a user in start DESC, id DESC order. Rows are DTO projections,
+// so the persistence context stays empty and memory does not depend on the history length.
+// The stream is a database cursor and must be read inside the transaction
+@Component
+@RequiredArgsConstructor
+public class BookingExporter {
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void writeAllByBookerId(long bookerId, BookingExportFormat format, OutputStream outputStream)
+            throws IOException {
+        try (Stream<BookingInfoDto> bookings = bookingRepository.streamAllInfoByBookerId(bookerId)) {
+            write(bookings, format, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeAllByItemOwnerId(long ownerId, BookingExportFormat format, OutputStream outputStream)
+            throws IOException {
+        try (Stream<BookingInfoDto> bookings = bookingRepository.streamAllInfoByItemOwnerId(ownerId)) {
+            write(bookings, format, outputStream);
+        }
+    }
+
+    private void write(Stream<BookingInfoDto> bookings, BookingExportFormat format, OutputStream outputStream)
+            throws IOException {
+        BookingExportWriter writer = new BookingExportWriter(format, objectMapper, outputStream);
+        writer.writeHeader();
+        Iterator<BookingInfoDto> iterator = bookings.iterator();
+        while (iterator.hasNext()) {
+            writer.write(iterator.next());
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class BookingInterval {
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+}
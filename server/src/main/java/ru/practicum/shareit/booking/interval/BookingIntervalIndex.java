@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+@Slf4j
+public class BookingIntervalIndex {
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final boolean verify;
+    private final int maxItems;
+    private final ConcurrentMap<Long, ItemIntervals> intervalsByItemId = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.interval-index.enabled:true}") boolean enabled,
+                                @Value("${shareit.booking.interval-index.verify:false}") boolean verify,
+                                @Value("${shareit.booking.interval-index.max-items:100000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.verify = verify;
+        this.maxItems = maxItems;
+    }
+
+    public boolean hasIntersection(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!enabled) {
+            return bookingRepository.countIntersectionInTime(start, end, itemId) > 0;
+        }
+        boolean indexed = getIntervals(itemId).intersects(start, end);
+        if (verify) {
+            boolean stored = bookingRepository.countIntersectionInTime(start, end, itemId) > 0;
+            if (stored != indexed) {
+                throw new IllegalStateException("Booking interval index for item with id " + itemId +
+                        " is inconsistent with database: index=" + indexed + ", database=" + stored +
+                        " for dates between " + start + " and " + end);
+            }
+        }
+        return indexed;
+    }
+
+    // Index is changed only after commit, so a rolled back approval never becomes visible to other bookings
+    public void onStatusChanged(long itemId, LocalDateTime start, LocalDateTime end,
+                                BookingStatus previousStatus, BookingStatus newStatus) {
+        if (!enabled || previousStatus == newStatus) {
+            return;
+        }
+        if (newStatus == BookingStatus.APPROVED) {
+            TransactionCallbacks.afterCommit(() -> intervalsByItemId.computeIfPresent(itemId, (id, intervals) -> intervals.with(start, end)));
+        } else if (previousStatus == BookingStatus.APPROVED) {
+            TransactionCallbacks.afterCommit(() -> evict(itemId));
+        }
+    }
+
+    public void evict(long itemId) {
+        intervalsByItemId.remove(itemId);
+    }
+
+    public void evictAll() {
+        intervalsByItemId.clear();
+    }
+
+    int size() {
+        return intervalsByItemId.size();
+    }
+
+    private ItemIntervals getIntervals(long itemId) {
+        ItemIntervals intervals = intervalsByItemId.get(itemId);
+        if (intervals != null) {
+            return intervals;
+        }
+        if (intervalsByItemId.size() >= maxItems) {
+            log.debug("Booking interval index reached {} items and is cleared", maxItems);
+            intervalsByItemId.clear();
+        }
+        // Loading inside computeIfAbsent serializes it with afterCommit updates of the same item,
+        // so an approval committed while loading is never lost
+        return intervalsByItemId.computeIfAbsent(itemId, id -> ItemIntervals.of(
+                bookingRepository.findAllIntervalsByItemIdAndStatus(id, BookingStatus.APPROVED)));
+    }
+}
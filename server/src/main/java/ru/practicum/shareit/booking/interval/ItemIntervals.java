@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking.interval;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Immutable snapshot of one item's APPROVED bookings: starts are sorted ascending and maxEnds[i] is the latest end
+// among the first i + 1 intervals, so an intersection is a single binary search even if the stored bookings overlap.
+class ItemIntervals {
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] maxEnds;
+
+    private ItemIntervals(LocalDateTime[] starts, LocalDateTime[] maxEnds) {
+        this.starts = starts;
+        this.maxEnds = maxEnds;
+    }
+
+    static ItemIntervals of(List<BookingInterval> intervals) {
+        BookingInterval[] sorted = intervals.toArray(new BookingInterval[0]);
+        Arrays.sort(sorted, Comparator.comparing(BookingInterval::getStart));
+        LocalDateTime[] starts = new LocalDateTime[sorted.length];
+        LocalDateTime[] ends = new LocalDateTime[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            starts[i] = sorted[i].getStart();
+            ends[i] = sorted[i].getEnd();
+        }
+        return new ItemIntervals(starts, prefixMax(ends));
+    }
+
+    // Same condition as BookingRepository.countIntersectionInTime: b.start < end AND b.end > start
+    boolean intersects(LocalDateTime start, LocalDateTime end) {
+        int startedBeforeEnd = firstIndexNotBefore(end);
+        return startedBeforeEnd > 0 && maxEnds[startedBeforeEnd - 1].isAfter(start);
+    }
+
+    ItemIntervals with(LocalDateTime start, LocalDateTime end) {
+        int position = firstIndexNotBefore(start);
+        int size = starts.length;
+
+        LocalDateTime[] newStarts = new LocalDateTime[size + 1];
+        System.arraycopy(starts, 0, newStarts, 0, position);
+        newStarts[position] = start;
+        System.arraycopy(starts, position, newStarts, position + 1, size - position);
+
+        LocalDateTime[] newMaxEnds = new LocalDateTime[size + 1];
+        System.arraycopy(maxEnds, 0, newMaxEnds, 0, position);
+        newMaxEnds[position] = position > 0 && maxEnds[position - 1].isAfter(end) ? maxEnds[position - 1] : end;
+        System.arraycopy(maxEnds, position, newMaxEnds, position + 1, size - position);
+        for (int i = position + 1; i <= size; i++) {
+            if (newMaxEnds[i].isBefore(newMaxEnds[i - 1])) {
+                newMaxEnds[i] = newMaxEnds[i - 1];
+            }
+        }
+        return new ItemIntervals(newStarts, newMaxEnds);
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    private int firstIndexNotBefore(LocalDateTime time) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle].isBefore(time)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static LocalDateTime[] prefixMax(LocalDateTime[] ends) {
+        for (int i = 1; i < ends.length; i++) {
+            if (ends[i].isBefore(ends[i - 1])) {
+                ends[i] = ends[i - 1];
+            }
+        }
+        return ends;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fixed set of locks shared by all items: operations on one item serialize, while operations on items
+// falling into different stripes run in parallel. Lock is held until the surrounding transaction completes,
+// otherwise the next waiter could read the item's bookings before the previous change is committed.
+@Component
+public class ItemLockStripes {
+    private final ReentrantLock[] stripes;
+
+    public ItemLockStripes(@Value("${shareit.booking.item-lock.stripes:64}") int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Item lock stripes count should be positive, but was " + stripeCount);
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void lockUntilTransactionEnds(long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item with id " + itemId + " can be locked only inside a transaction");
+        }
+        ReentrantLock lock = stripeFor(itemId);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    ReentrantLock stripeFor(long itemId) {
+        int hash = Long.hashCode(itemId);
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+}
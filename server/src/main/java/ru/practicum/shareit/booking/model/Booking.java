@@ -15,17 +15,24 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.ITEM_AND_BOOKER_GRAPH, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")})
 public class Booking {
+    // Everything BookingMapper.toInfoDto reads, item owner and request are used by id only
+    public static final String ITEM_AND_BOOKER_GRAPH = "Booking.itemAndBooker";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
 
@@ -38,4 +45,8 @@ public class Booking {
     @Column(name = "status")
     @Enumerated(value = EnumType.STRING)
     private BookingStatus status;
+
+    // Changed by the repositories' incrementVersion updates only, ETags are built from it
+    @Column(name = "version", insertable = false, updatable = false)
+    private long version;
 }
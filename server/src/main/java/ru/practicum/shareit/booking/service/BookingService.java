@@ -1,8 +1,13 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.state.BookingState;
 
 import java.util.List;
@@ -10,11 +15,28 @@ import java.util.List;
 public interface BookingService {
     BookingInfoDto create(BookingCreateDto bookingCreateDto);
 
+    // Result per entry in the order of the entries, entries failing the checks of create are not saved
+    List<BookingBatchResultDto> createAll(long bookerId, List<BookingCreateDto> bookingCreateDtoList);
+
     BookingInfoDto respondToBooking(long userId, long bookingId, boolean approved);
 
     BookingInfoDto findBookingById(long userId, long bookingId);
 
+    // ETag of the view of findBookingById, read without building it
+    String getTagByBookingId(long userId, long bookingId);
+
     List<BookingInfoDto> findAllBookingByBookerIdAndState(long bookerId, BookingState state, Pageable pageable);
 
     List<BookingInfoDto> findAllBookingByOwnerIdAndState(long ownerId, BookingState state, Pageable pageable);
+
+    List<BookingInfoDto> findAllBookingByBookerIdAndState(long bookerId, BookingState state,
+                                                          @Nullable BookingCursor cursor, int size);
+
+    List<BookingInfoDto> findAllBookingByOwnerIdAndState(long ownerId, BookingState state,
+                                                         @Nullable BookingCursor cursor, int size);
+
+    // The user is checked right away, the bookings are read when the export is written
+    BookingExport exportAllBookingByBookerId(long bookerId, BookingExportFormat format);
+
+    BookingExport exportAllBookingByOwnerId(long ownerId, BookingExportFormat format);
 }
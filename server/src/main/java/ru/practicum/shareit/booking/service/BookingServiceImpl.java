@@ -1,33 +1,62 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingStatusMessage;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.export.BookingExport;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
+import ru.practicum.shareit.booking.export.BookingExporter;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lock.ItemLockStripes;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.state.BookingState;
+import ru.practicum.shareit.etag.ETags;
+import ru.practicum.shareit.event.BookingApprovedEvent;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.user.directory.UserDirectory;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     final BookingRepository bookingRepository;
     final UserRepository userRepository;
+    final UserDirectory userDirectory;
     final ItemRepository itemRepository;
+    final BookingIntervalIndex bookingIntervalIndex;
+    final ItemLockStripes itemLockStripes;
+    final BookingExporter bookingExporter;
+    final ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    final ApplicationEventPublisher eventPublisher;
+    final Outbox outbox;
+
+    @Value("${shareit.booking.batch.max-size:100}")
+    int batchMaxSize;
 
     @Transactional
     @Override
@@ -47,8 +76,7 @@ public class BookingServiceImpl implements BookingService {
         // Проверка, что из всех approve бронирований ни 1 не пересекается с создаваемым, но т.к. создаются брони со статусом WAITING,
         // их можно создавать сколько угодно на одинаковые даты кем угодно, а уже владелец решит, кому достанется предмет.
         // Сделал так, чтобы бронировать предмет мог не первый успевший составить бронь, а каждый
-        int countIntersection = bookingRepository.countIntersectionInTime(start, end, itemId);
-        if (countIntersection > 0) {
+        if (bookingIntervalIndex.hasIntersection(itemId, start, end)) {
             throw new ValidateException("Item to be booked is already booked in between date " + start + " and " + end);
         }
         long ownerId = item.getOwner().getId();
@@ -58,9 +86,66 @@ public class BookingServiceImpl implements BookingService {
 
         Booking booking = BookingMapper.toModel(bookingCreateDto, booker, item, BookingStatus.WAITING);
         Booking bookingToReturn = bookingRepository.save(booking);
+        addStatusMessage(bookingToReturn, ownerId);
         return BookingMapper.toInfoDto(bookingToReturn);
     }
 
+    // Same checks as create, but the booker, all items and all conflicting approved bookings are read by three
+    // queries for the whole batch, and the accepted bookings are saved together
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> createAll(long bookerId, List<BookingCreateDto> bookingCreateDtoList) {
+        if (bookingCreateDtoList.size() > batchMaxSize) {
+            throw new ValidateException("At most " + batchMaxSize + " bookings can be created in one batch");
+        }
+        User booker = userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException("Booking user not found by id: " + bookerId));
+        if (bookingCreateDtoList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> itemIdSet = bookingCreateDtoList.stream()
+                .map(BookingCreateDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> itemMap = itemRepository.findAllById(itemIdSet).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        LocalDateTime minStart = bookingCreateDtoList.stream()
+                .map(BookingCreateDto::getStart)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime maxEnd = bookingCreateDtoList.stream()
+                .map(BookingCreateDto::getEnd)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        // No IN () query when none of the items exist, every entry is rejected as not found below
+        Map<Long, List<BookingShortView>> approvedMap = itemMap.isEmpty() ? Map.of() : bookingRepository
+                .findAllApprovedByItemIdInBetween(itemMap.keySet(), minStart, maxEnd).stream()
+                .collect(Collectors.groupingBy(BookingShortView::getItemId));
+
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingCreateDtoList.size());
+        List<Booking> bookingsToSave = new ArrayList<>();
+        List<Integer> indexesToSave = new ArrayList<>();
+        for (int i = 0; i < bookingCreateDtoList.size(); i++) {
+            BookingCreateDto bookingCreateDto = bookingCreateDtoList.get(i);
+            try {
+                Item item = validateBatchEntry(bookingCreateDto, bookerId, itemMap, approvedMap);
+                bookingsToSave.add(BookingMapper.toModel(bookingCreateDto, booker, item, BookingStatus.WAITING));
+                indexesToSave.add(i);
+                results.add(null);
+            } catch (NotFoundException | ValidateException e) {
+                results.add(BookingBatchResultDto.rejected(i, e));
+            }
+        }
+
+        List<Booking> savedBookings = bookingRepository.saveAll(bookingsToSave);
+        for (int i = 0; i < savedBookings.size(); i++) {
+            int index = indexesToSave.get(i);
+            addStatusMessage(savedBookings.get(i), savedBookings.get(i).getItem().getOwner().getId());
+            results.set(index, BookingBatchResultDto.created(index, BookingMapper.toInfoDto(savedBookings.get(i))));
+        }
+        return results;
+    }
+
     @Transactional
     @Override
     public BookingInfoDto respondToBooking(long ownerId, long bookingId, boolean approved) {
@@ -73,18 +158,35 @@ public class BookingServiceImpl implements BookingService {
         LocalDateTime end = booking.getEnd();
         BookingStatus status = booking.getStatus();
 
-        if (!status.equals(BookingStatus.WAITING)) {
-            throw new ValidateException("Status can't be changed. Status locked as \"" + status + "\"");
-        }
-        // А тут проверяем, что подтверждение брони не пересечется с уже approved бронью, ведь создавать брони мы можем
-        // сколько угодно, пока на даты нет approved брони
-        long countIntersection = bookingRepository.countIntersectionInTime(start, end, itemId);
-        if (countIntersection > 0) {
+        validateStatusIsWaiting(status);
+
+        // Responses for one item run strictly one after another until commit: first the lock in this JVM,
+        // then SELECT ... FOR UPDATE of the item row for several server instances.
+        // Status and intersections are read again under the lock, another response may have committed before us
+        itemLockStripes.lockUntilTransactionEnds(itemId);
+        itemRepository.lockById(itemId);
+        status = bookingRepository.findStatusById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking with id " + bookingId + " not found for owner with id: " + ownerId));
+        validateStatusIsWaiting(status);
+        // Approving must not intersect an already approved booking, as any number of bookings may be created
+        // for dates without an approved one. The index is the only check: it is updated after commit while the stripe
+        // lock is still held, so the next response for the item sees it. It knows approvals of this instance only,
+        // several server instances run with it disabled and then it queries the table under the row lock
+        if (bookingIntervalIndex.hasIntersection(itemId, start, end)) {
             throw new ValidateException("Item to be booked is already booked in between date " + start + " and " + end);
         }
 
-        booking.setStatus(BookingStatus.getBookingStatusByBoolean(approved));
+        BookingStatus newStatus = BookingStatus.getBookingStatusByBoolean(approved);
+        booking.setStatus(newStatus);
         Booking bookingToReturn = bookingRepository.save(booking);
+        bookingRepository.incrementVersionById(bookingId);
+        bookingIntervalIndex.onStatusChanged(itemId, start, end, status, newStatus);
+        addStatusMessage(bookingToReturn, ownerId);
+        if (newStatus == BookingStatus.APPROVED) {
+            itemRepository.incrementVersionById(itemId);
+            itemBookingSummaryUpdater.refresh(itemId, LocalDateTime.now());
+            eventPublisher.publishEvent(new BookingApprovedEvent(bookingId, itemId));
+        }
         return BookingMapper.toInfoDto(bookingToReturn);
     }
 
@@ -97,65 +199,143 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toInfoDto(booking);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public String getTagByBookingId(long userId, long bookingId) {
+        BookingVersionView bookingVersion = bookingRepository.findVersionByIdAndOwnerIdOrBookerId(bookingId, userId)
+                .orElseThrow(() -> new NotFoundException("Booking with id " + bookingId + " not found for user with id: " + userId));
+        return ETags.of("booking", bookingId, bookingVersion.getBookingVersion(), bookingVersion.getItemVersion(),
+                bookingVersion.getBookerVersion());
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<BookingInfoDto> findAllBookingByBookerIdAndState(long bookerId, BookingState state, Pageable pageable) {
-        userRepository.findById(bookerId)
+        userDirectory.find(bookerId)
                 .orElseThrow(() -> new NotFoundException("Booking user not found by id: " + bookerId));
-        List<Booking> bookingList;
+        List<BookingInfoDto> bookingInfoDtoList;
         switch (state) {
             case ALL:
-                bookingList = bookingRepository.findAllByBookerId(bookerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllInfoByBookerId(bookerId, pageable);
                 break;
             case PAST:
-                bookingList = bookingRepository.findAllPastBookingByBookerId(bookerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllPastInfoByBookerId(bookerId, pageable);
                 break;
             case CURRENT:
-                bookingList = bookingRepository.findAllCurrentBookingByBookerId(bookerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllCurrentInfoByBookerId(bookerId, pageable);
                 break;
             case FUTURE:
-                bookingList = bookingRepository.findAllFutureBookingByBookerId(bookerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllFutureInfoByBookerId(bookerId, pageable);
                 break;
             case WAITING:
-                bookingList = bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.WAITING, pageable);
+                bookingInfoDtoList = bookingRepository.findAllInfoByBookerIdAndStatus(bookerId, BookingStatus.WAITING, pageable);
                 break;
             case REJECTED:
-                bookingList = bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, pageable);
+                bookingInfoDtoList = bookingRepository.findAllInfoByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, pageable);
                 break;
             default:
-                bookingList = new ArrayList<>();
+                bookingInfoDtoList = new ArrayList<>();
         }
-        return BookingMapper.toBookingInfoDtoList(bookingList);
+        return bookingInfoDtoList;
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<BookingInfoDto> findAllBookingByOwnerIdAndState(long ownerId, BookingState state, Pageable pageable) {
-        userRepository.findById(ownerId)
+        userDirectory.find(ownerId)
                 .orElseThrow(() -> new NotFoundException("Owner user not found by id: " + ownerId));
-        List<Booking> bookingList;
+        List<BookingInfoDto> bookingInfoDtoList;
         switch (state) {
             case ALL:
-                bookingList = bookingRepository.findAllByItemOwnerId(ownerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllInfoByItemOwnerId(ownerId, pageable);
                 break;
             case PAST:
-                bookingList = bookingRepository.findAllPastBookingByItemOwnerId(ownerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllPastInfoByItemOwnerId(ownerId, pageable);
                 break;
             case CURRENT:
-                bookingList = bookingRepository.findAllCurrentBookingByItemOwnerId(ownerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllCurrentInfoByItemOwnerId(ownerId, pageable);
                 break;
             case FUTURE:
-                bookingList = bookingRepository.findAllFutureBookingByItemOwnerId(ownerId, pageable);
+                bookingInfoDtoList = bookingRepository.findAllFutureInfoByItemOwnerId(ownerId, pageable);
                 break;
             case WAITING:
-                bookingList = bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, pageable);
+                bookingInfoDtoList = bookingRepository.findAllInfoByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, pageable);
                 break;
             case REJECTED:
-                bookingList = bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, pageable);
+                bookingInfoDtoList = bookingRepository.findAllInfoByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, pageable);
                 break;
             default:
-                bookingList = new ArrayList<>();
+                bookingInfoDtoList = new ArrayList<>();
+        }
+        return bookingInfoDtoList;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingInfoDto> findAllBookingByBookerIdAndState(long bookerId, BookingState state,
+                                                                 @Nullable BookingCursor cursor, int size) {
+        userDirectory.find(bookerId)
+                .orElseThrow(() -> new NotFoundException("Booking user not found by id: " + bookerId));
+        return bookingRepository.findAllInfoByBookerIdAndStateAfter(bookerId, state, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingInfoDto> findAllBookingByOwnerIdAndState(long ownerId, BookingState state,
+                                                                @Nullable BookingCursor cursor, int size) {
+        userDirectory.find(ownerId)
+                .orElseThrow(() -> new NotFoundException("Owner user not found by id: " + ownerId));
+        return bookingRepository.findAllInfoByItemOwnerIdAndStateAfter(ownerId, state, cursor, size);
+    }
+
+    @Override
+    public BookingExport exportAllBookingByBookerId(long bookerId, BookingExportFormat format) {
+        userDirectory.find(bookerId)
+                .orElseThrow(() -> new NotFoundException("Booking user not found by id: " + bookerId));
+        return outputStream -> bookingExporter.writeAllByBookerId(bookerId, format, outputStream);
+    }
+
+    @Override
+    public BookingExport exportAllBookingByOwnerId(long ownerId, BookingExportFormat format) {
+        userDirectory.find(ownerId)
+                .orElseThrow(() -> new NotFoundException("Owner user not found by id: " + ownerId));
+        return outputStream -> bookingExporter.writeAllByItemOwnerId(ownerId, format, outputStream);
+    }
+
+    private Item validateBatchEntry(BookingCreateDto bookingCreateDto, long bookerId, Map<Long, Item> itemMap,
+                                    Map<Long, List<BookingShortView>> approvedMap) {
+        long itemId = bookingCreateDto.getItemId();
+        LocalDateTime start = bookingCreateDto.getStart();
+        LocalDateTime end = bookingCreateDto.getEnd();
+
+        Item item = itemMap.get(itemId);
+        if (item == null) {
+            throw new NotFoundException("Item to be booked not found by id: " + itemId);
+        }
+        if (!item.getIsAvailable()) {
+            throw new ValidateException("Item to be booked is not available");
+        }
+        for (BookingShortView approved : approvedMap.getOrDefault(itemId, List.of())) {
+            if (approved.getStart().isBefore(end) && approved.getEnd().isAfter(start)) {
+                throw new ValidateException("Item to be booked is already booked in between date " + start + " and " + end);
+            }
+        }
+        long ownerId = item.getOwner().getId();
+        if (ownerId == bookerId) {
+            throw new NotFoundException("Booker with Id=" + bookerId + " can't book item with owner Id=" + ownerId);
+        }
+        return item;
+    }
+
+    // Sent to other systems by OutboxPublisher once the transaction commits
+    private void addStatusMessage(Booking booking, long ownerId) {
+        outbox.add(BookingStatusMessage.AGGREGATE_TYPE, booking.getId(), BookingStatusMessage.EVENT_TYPE,
+                BookingMapper.toStatusMessage(booking, ownerId));
+    }
+
+    private void validateStatusIsWaiting(BookingStatus status) {
+        if (!status.equals(BookingStatus.WAITING)) {
+            throw new ValidateException("Status can't be changed. Status locked as \"" + status + "\"");
         }
-        return BookingMapper.toBookingInfoDtoList(bookingList);
     }
 }
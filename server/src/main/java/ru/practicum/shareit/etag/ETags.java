@@ -0,0 +1,29 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+// Weak ETags of GET views built from change counters (version columns) of the rows they show, not from their bodies,
+// so a matching If-None-Match is answered with 304 before the view is read
+public final class ETags {
+    private static final String SEPARATOR = "-";
+
+    private ETags() {
+    }
+
+    public static String of(String name, Object... versions) {
+        StringJoiner tag = new StringJoiner(SEPARATOR, "W/\"" + name + SEPARATOR, "\"");
+        for (Object version : versions) {
+            tag.add(String.valueOf(version));
+        }
+        return tag.toString();
+    }
+
+    // Ids and counters of all rows of a list hashed to a fixed length
+    public static String ofList(String name, CharSequence versions) {
+        String digest = DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + name + SEPARATOR + digest + "\"";
+    }
+}
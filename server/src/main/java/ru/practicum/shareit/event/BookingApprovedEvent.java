@@ -0,0 +1,16 @@
+package ru.practicum.shareit.event;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class BookingApprovedEvent implements ItemEvent {
+    private final long bookingId;
+
+    private final long itemId;
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs slow event listeners off the request thread. Services publish events with ApplicationEventPublisher,
+// listeners take them in @TransactionalEventListener after commit: cheap ones (cache evictions) handle them there,
+// so the writer reads its own change, others hand them over to execute(). When the queue is full the listener runs
+// on the publishing thread, so a burst of writes slows down instead of piling up events in memory
+@Component
+@Slf4j
+public class DomainEventExecutor {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ThreadPoolExecutor executor;
+    private final Counter callerRuns;
+
+    public DomainEventExecutor(MeterRegistry meterRegistry,
+                               @Value("${shareit.event.executor.threads:2}") int threads,
+                               @Value("${shareit.event.executor.queue-capacity:1000}") int queueCapacity) {
+        this.callerRuns = Counter.builder("shareit.event.executor.caller-runs")
+                .register(meterRegistry);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "domain-event-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                this::runOnCaller);
+        Gauge.builder("shareit.event.executor.queued", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.event.executor.completed", executor, ThreadPoolExecutor::getCompletedTaskCount)
+                .register(meterRegistry);
+    }
+
+    // Failures are logged, they can't undo the committed change anyway
+    public void execute(String name, Runnable listener) {
+        executor.execute(() -> {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Event listener {} failed", name, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Event listeners dropped on shutdown: {}", executor.shutdownNow().size());
+        }
+    }
+
+    private void runOnCaller(Runnable task, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            log.warn("Event listener dropped, executor is shut down");
+            return;
+        }
+        callerRuns.increment();
+        task.run();
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.event;
+
+// Change of an item, its comments or its approved bookings
+public interface ItemEvent {
+    long getItemId();
+}
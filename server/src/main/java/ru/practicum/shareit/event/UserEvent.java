@@ -0,0 +1,6 @@
+package ru.practicum.shareit.event;
+
+// Change of a user other than creation
+public interface UserEvent {
+    long getUserId();
+}
@@ -5,7 +5,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.item.cursor.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentRequestingDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
@@ -45,13 +49,19 @@ public class ItemController {
         return itemToReturn;
     }
 
+    // Unchanged views are answered with 304 by their ETag without being read. The tag is taken before the view,
+    // so a change in between only costs the next request a full response
     @GetMapping
     public List<ItemInfoDto> getByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId,
                                           @RequestParam(name = "size", defaultValue = "10") int limit,
-                                          @RequestParam(name = "from", defaultValue = "0") int offset) {
+                                          @RequestParam(name = "from", defaultValue = "0") int offset,
+                                          WebRequest webRequest) {
         log.info("GET \"/items?from={}&size={}\" , Headers:(X-Sharer-User-Id)={}", offset, limit, userId);
         Sort sort = Sort.by(Sort.Direction.ASC, "id");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
+        if (webRequest.checkNotModified(itemService.getTagByOwnerId(userId, pageable))) {
+            return null;
+        }
         List<ItemInfoDto> listToReturn = itemService.getByOwnerId(userId, pageable);
         log.debug(listToReturn.toString());
         return listToReturn;
@@ -59,9 +69,14 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemInfoDto getByItemId(@PathVariable long itemId,
-                                   @RequestHeader("X-Sharer-User-Id") long userId) {
+                                   @RequestHeader("X-Sharer-User-Id") long userId,
+                                   WebRequest webRequest) {
         log.info("GET \"/items/" + itemId + "\" , Headers:(X-Sharer-User-Id)={}", userId);
-        ItemInfoDto itemReturn = itemService.getByItemId(itemId, userId);
+        String tag = itemService.getTagByItemId(itemId, userId);
+        if (webRequest.checkNotModified(tag)) {
+            return null;
+        }
+        ItemInfoDto itemReturn = itemService.getByItemId(itemId, userId, tag);
         log.debug(itemReturn.toString());
         return itemReturn;
     }
@@ -95,4 +110,22 @@ public class ItemController {
         log.debug(commentToReturn.toString());
         return commentToReturn;
     }
-}
\ No newline at end of file
+
+    // Newest comments first, a full page returns the cursor of the next one in X-Next-Cursor header
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentInfoDto>> getComments(@PathVariable long itemId,
+                                                            @RequestHeader("X-Sharer-User-Id") long userId,
+                                                            @RequestParam(name = "size", defaultValue = "10") int limit,
+                                                            @RequestParam(required = false) String cursor) {
+        log.info("GET \"/items/{}/comments?cursor={}&size={}\" , Headers:(X-Sharer-User-Id)={}", itemId, cursor, limit, userId);
+        CommentCursor commentCursor = cursor == null || cursor.isBlank() ? null : CommentCursor.decode(cursor);
+        List<CommentInfoDto> commentList = itemService.getComments(itemId, commentCursor, limit);
+        log.debug(commentList.toString());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (commentList.size() == limit) {
+            CommentInfoDto lastComment = commentList.get(commentList.size() - 1);
+            response.header(BookingController.NEXT_CURSOR_HEADER, CommentCursor.of(lastComment).encode());
+        }
+        return response.body(commentList);
+    }
+}
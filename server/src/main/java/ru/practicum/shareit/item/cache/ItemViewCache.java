@@ -0,0 +1,213 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.event.ItemEvent;
+import ru.practicum.shareit.event.UserDeletedEvent;
+import ru.practicum.shareit.event.UserUpdatedEvent;
+import ru.practicum.shareit.item.dto.CommentInfoDto;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Views of GET /items/{itemId}. Views without bookings are kept until the item changes or ttl, owner views with
+// last and next bookings only for owner-ttl, as bookings start and end without any write. Both tiers are bounded
+// by estimated size and evict least recently used views first. A view is kept with the ETag of the request that
+// built it and only returned to requests with the same ETag, so a body never lags behind the ETag sent with it.
+// Cached views are shared, callers must not modify them
+@Component
+public class ItemViewCache {
+    private static final long VIEW_OVERHEAD_BYTES = 256;
+    private static final long COMMENT_OVERHEAD_BYTES = 96;
+    private static final long BOOKING_BYTES = 128;
+
+    private final boolean enabled;
+    private final Views publicViews;
+    private final Views ownerViews;
+    // Loads started before an invalidation are not cached, they may have read the item before the change
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public ItemViewCache(MeterRegistry meterRegistry,
+                         @Value("${shareit.item.view-cache.enabled:true}") boolean enabled,
+                         @Value("${shareit.item.view-cache.ttl-ms:60000}") long ttlMs,
+                         @Value("${shareit.item.view-cache.max-bytes:33554432}") long maxBytes,
+                         @Value("${shareit.item.view-cache.owner-ttl-ms:5000}") long ownerTtlMs,
+                         @Value("${shareit.item.view-cache.owner-max-bytes:4194304}") long ownerMaxBytes) {
+        this.enabled = enabled;
+        this.publicViews = new Views(TimeUnit.MILLISECONDS.toNanos(ttlMs), maxBytes);
+        this.ownerViews = new Views(TimeUnit.MILLISECONDS.toNanos(ownerTtlMs), ownerMaxBytes);
+        this.hits = Counter.builder("shareit.item.view-cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("shareit.item.view-cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.view-cache.bytes", publicViews, Views::bytes)
+                .tag("view", "public")
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.view-cache.bytes", ownerViews, Views::bytes)
+                .tag("view", "owner")
+                .register(meterRegistry);
+    }
+
+    @Nullable
+    public ItemInfoDto find(long itemId, long userId, String tag) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.nanoTime();
+        CachedView cached = ownerViews.get(itemId, now);
+        if (cached != null && cached.ownerId == userId && cached.tag.equals(tag)) {
+            hits.increment();
+            return cached.view;
+        }
+        cached = publicViews.get(itemId, now);
+        if (cached != null && cached.ownerId != userId && cached.tag.equals(tag)) {
+            hits.increment();
+            return cached.view;
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Taken before the item is read, put() drops the view if the item has changed since
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(long itemId, long ownerId, ItemInfoDto view, boolean ownerView, String tag, long stamp) {
+        if (!enabled) {
+            return;
+        }
+        Views views = ownerView ? ownerViews : publicViews;
+        views.put(itemId, new CachedView(ownerId, view, tag, weightOf(view), System.nanoTime()), stamp);
+    }
+
+    // Runs after commit of the change on the writer's thread, so the writer's next view shows it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemEvent(ItemEvent event) {
+        invalidations.incrementAndGet();
+        publicViews.remove(event.getItemId());
+        ownerViews.remove(event.getItemId());
+    }
+
+    // Items and comments of a deleted user are deleted by the database, views of any item may embed them
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidations.incrementAndGet();
+        publicViews.clear();
+        ownerViews.clear();
+    }
+
+    // Comments of any item show their author's name
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        invalidations.incrementAndGet();
+        publicViews.clear();
+        ownerViews.clear();
+    }
+
+    long bytes() {
+        return publicViews.bytes() + ownerViews.bytes();
+    }
+
+    private static long weightOf(ItemInfoDto view) {
+        long weight = VIEW_OVERHEAD_BYTES + charBytes(view.getName()) + charBytes(view.getDescription());
+        if (view.getLastBooking() != null) {
+            weight += BOOKING_BYTES;
+        }
+        if (view.getNextBooking() != null) {
+            weight += BOOKING_BYTES;
+        }
+        if (view.getComments() != null) {
+            for (CommentInfoDto comment : view.getComments()) {
+                weight += COMMENT_OVERHEAD_BYTES + charBytes(comment.getText()) + charBytes(comment.getAuthorName());
+            }
+        }
+        return weight;
+    }
+
+    private static long charBytes(@Nullable String value) {
+        return value == null ? 0 : 2L * value.length();
+    }
+
+    private class Views {
+        private final long ttlNanos;
+        private final long maxBytes;
+        private final LinkedHashMap<Long, CachedView> viewsByItemId = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        private Views(long ttlNanos, long maxBytes) {
+            this.ttlNanos = ttlNanos;
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized CachedView get(long itemId, long now) {
+            CachedView cached = viewsByItemId.get(itemId);
+            if (cached != null && now - cached.loadedAt >= ttlNanos) {
+                remove(itemId);
+                return null;
+            }
+            return cached;
+        }
+
+        // Stamp is checked under the same lock remove() takes after an invalidation, so a stale view can't slip in
+        private synchronized void put(long itemId, CachedView view, long stamp) {
+            if (invalidations.get() != stamp || view.weight > maxBytes) {
+                return;
+            }
+            CachedView previous = viewsByItemId.put(itemId, view);
+            if (previous != null) {
+                bytes -= previous.weight;
+            }
+            bytes += view.weight;
+            Iterator<CachedView> leastRecentlyUsed = viewsByItemId.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= leastRecentlyUsed.next().weight;
+                leastRecentlyUsed.remove();
+            }
+        }
+
+        private synchronized void remove(long itemId) {
+            CachedView removed = viewsByItemId.remove(itemId);
+            if (removed != null) {
+                bytes -= removed.weight;
+            }
+        }
+
+        private synchronized void clear() {
+            viewsByItemId.clear();
+            bytes = 0;
+        }
+
+        private synchronized long bytes() {
+            return bytes;
+        }
+    }
+
+    private static class CachedView {
+        private final long ownerId;
+        private final ItemInfoDto view;
+        private final String tag;
+        private final long weight;
+        private final long loadedAt;
+
+        private CachedView(long ownerId, ItemInfoDto view, String tag, long weight, long loadedAt) {
+            this.ownerId = ownerId;
+            this.view = view;
+            this.tag = tag;
+            this.weight = weight;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.cursor;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.CommentInfoDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position in comments of an item ordered by created DESC, id DESC. Clients get it as an opaque token
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CommentCursor {
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime created;
+
+    private final long id;
+
+    public static CommentCursor of(CommentInfoDto comment) {
+        return new CommentCursor(comment.getCreated(), comment.getId());
+    }
+
+    public String encode() {
+        String value = created + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CommentCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = value.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new ValidateException("Invalid comment cursor: " + token);
+            }
+            return new CommentCursor(LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Long.parseLong(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidateException("Invalid comment cursor: " + token);
+        }
+    }
+}
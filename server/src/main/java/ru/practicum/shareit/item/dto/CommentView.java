@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+// Projection of a comment with its author's name, without Item and User entities
+public interface CommentView {
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    Long getItemId();
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.*;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingShortView;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
@@ -27,8 +28,11 @@ public class ItemInfoDto {
 
     private BookingDto nextBooking;
 
+    // Latest comments only, all of them are paged by GET /items/{itemId}/comments
     private List<CommentInfoDto> comments;
 
+    private long commentCount;
+
     @AllArgsConstructor
     @NoArgsConstructor
     @Getter
@@ -62,5 +66,19 @@ public class ItemInfoDto {
                 .build();
     }
 
+    public static BookingDto toBookingDto(BookingShortView booking) {
+        if (booking == null) {
+            return null;
+        }
+        return BookingDto.builder()
+                .id(booking.getId())
+                .itemId(booking.getItemId())
+                .bookerId(booking.getBookerId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .build();
+    }
+
 }
 
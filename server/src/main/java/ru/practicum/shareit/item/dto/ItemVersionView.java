@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+// Change counter of an item row, see ItemRepository.incrementVersionById
+public interface ItemVersionView {
+    Long getId();
+
+    Long getOwnerId();
+
+    Long getVersion();
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.mapper;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentRequestingDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -24,6 +25,16 @@ public class CommentMapper {
                 .build();
     }
 
+    public static CommentInfoDto toInfoDto(CommentView comment) {
+        return CommentInfoDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .itemId(comment.getItemId())
+                .created(comment.getCreated())
+                .build();
+    }
+
     public static List<CommentInfoDto> toCommentInfoDtoList(List<Comment> commentList) {
         List<CommentInfoDto> commentInfoDtoList = new ArrayList();
         for (Comment comment : commentList) {
@@ -16,10 +16,11 @@ import javax.persistence.*;
 public class Item {
     @Id
     @Column(name = "item_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
@@ -32,7 +33,11 @@ public class Item {
     @Column(name = "is_available")
     private Boolean isAvailable;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_request_id")
     private ItemRequest itemRequest;
-}
\ No newline at end of file
+
+    // Changed by the repositories' incrementVersion updates only, ETags are built from it
+    @Column(name = "version", insertable = false, updatable = false)
+    private long version;
+}
@@ -1,16 +1,55 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.CommentCountView;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemId(long itemId);
 
+    // First page of an item's comments, pageable has to be sorted by creationDate DESC, id DESC
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByItemId(long itemId, Pageable pageable);
+
+    // Page after the comment with given created and id, in the same order
+    @Query(value = "SELECT c " +
+            "FROM Comment AS c " +
+            "JOIN FETCH c.author " +
+            "WHERE c.item.id = ?1 " +
+            "AND (c.creationDate < ?2 OR (c.creationDate = ?2 AND c.id < ?3)) " +
+            "ORDER BY c.creationDate DESC, c.id DESC")
+    List<Comment> findAllByItemIdAfter(long itemId, Timestamp created, long id, Pageable pageable);
+
     @Query(value = "SELECT c " +
             "FROM Comment AS c " +
+            "JOIN FETCH c.author " +
             "WHERE c.item.id in ?1 ")
     List<Comment> findAllCommentsInIdList(List<Long> idList);
+
+    // At most limit latest comments of every item, each item's comments in the same order
+    @Query(value = "SELECT r.id, r.text, r.authorName, r.created, r.itemId " +
+            "FROM (SELECT c.comment_id AS id, c.text AS text, u.name AS authorName, c.created AS created, " +
+            "c.item_id AS itemId, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.comment_id DESC) AS rowNumber " +
+            "FROM comments AS c " +
+            "JOIN users AS u ON c.author_id = u.user_id " +
+            "WHERE c.item_id IN ?1) AS r " +
+            "WHERE r.rowNumber <= ?2 " +
+            "ORDER BY r.itemId, r.rowNumber", nativeQuery = true)
+    List<CommentView> findAllLatestByItemIdIn(Collection<Long> itemIdList, int limit);
+
+    @Query(value = "SELECT c.item.id AS itemId, COUNT(c) AS commentCount " +
+            "FROM Comment AS c " +
+            "WHERE c.item.id IN ?1 " +
+            "GROUP BY c.item.id")
+    List<CommentCountView> countAllByItemIdIn(Collection<Long> itemIdList);
 }
@@ -2,8 +2,12 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchDocument;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,7 +26,7 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "LIMIT :limit OFFSET :offset", nativeQuery = true)*/
     List<Item> findAllByOwnerId(long ownerId, Pageable pageable);
 
-    void deleteByIdAndOwnerId(long itemId, long ownerId);
+    long deleteByIdAndOwnerId(long itemId, long ownerId);
 
     // List<Item> findAllByIsAvailableTrueAndNameContainingIgnoreCaseOrIsAvailableTrueAndDescriptionContainingIgnoreCase(String correctText, String correctText1);
 
@@ -30,4 +34,44 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "FROM Item AS item " +
             "WHERE item.isAvailable = true AND (LOWER(item.description) LIKE %?1% OR LOWER(item.name) LIKE %?1%) ")
     List<Item> searchAvailableByNameOrDescription(String substring, Pageable pageable);
+
+    @Query(value = "SELECT new ru.practicum.shareit.item.search.ItemSearchDocument(" +
+            "item.id, item.name, item.description) " +
+            "FROM Item AS item " +
+            "WHERE item.isAvailable = true AND item.id > ?1 " +
+            "ORDER BY item.id ASC")
+    List<ItemSearchDocument> findAllAvailableSearchDocumentsAfterId(long itemId, Pageable pageable);
+
+    @Query(value = "SELECT i.item_id " +
+            "FROM items AS i " +
+            "WHERE i.item_id = ?1 " +
+            "FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(long itemId);
+
+    @Query(value = "SELECT i.item_id AS id, i.owner_id AS ownerId, i.version AS version " +
+            "FROM items AS i " +
+            "WHERE i.item_id = ?1", nativeQuery = true)
+    Optional<ItemVersionView> findVersionById(long itemId);
+
+    // Same page as findAllByOwnerId sorted by id
+    @Query(value = "SELECT i.item_id AS id, i.owner_id AS ownerId, i.version AS version " +
+            "FROM items AS i " +
+            "WHERE i.owner_id = ?1 " +
+            "ORDER BY i.item_id ASC " +
+            "LIMIT ?2 OFFSET ?3", nativeQuery = true)
+    List<ItemVersionView> findAllVersionByOwnerId(long ownerId, int limit, long offset);
+
+    // Every change of the item's view: its fields, comments, approved bookings
+    @Modifying
+    @Query(value = "UPDATE Item AS i " +
+            "SET i.version = i.version + 1 " +
+            "WHERE i.id = :itemId")
+    void incrementVersionById(@Param("itemId") long itemId);
+
+    // Views of these items show the author's name with the comments
+    @Modifying
+    @Query(value = "UPDATE Item AS i " +
+            "SET i.version = i.version + 1 " +
+            "WHERE i.id IN (SELECT c.item.id FROM Comment AS c WHERE c.author.id = :authorId)")
+    void incrementVersionByCommentAuthorId(@Param("authorId") long authorId);
 }
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Trigram inverted index of available items for single-node deployments and the H2 test profile.
+// Only available items are indexed, so the availability filter of the database query holds by construction.
+@Component
+@ConditionalOnProperty(name = "shareit.item.search.engine", havingValue = "memory")
+@Slf4j
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+    private final ItemRepository itemRepository;
+    private final int loadBatchSize;
+    private final NavigableMap<Long, ItemSearchDocument> documents = new TreeMap<>();
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepository,
+                                    @Value("${shareit.item.search.load-batch-size:1000}") int loadBatchSize) {
+        this.itemRepository = itemRepository;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    @PostConstruct
+    public void load() {
+        long lastId = 0;
+        List<ItemSearchDocument> batch;
+        do {
+            batch = itemRepository.findAllAvailableSearchDocumentsAfterId(lastId, PageRequest.of(0, loadBatchSize));
+            batch.forEach(this::put);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == loadBatchSize);
+        log.info("Item search index loaded with {} available items", size());
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        while (true) {
+            List<Long> ids = findIds(text, pageable);
+            if (ids.isEmpty()) {
+                return new ArrayList<>();
+            }
+            Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            if (items.size() == ids.size()) {
+                return ids.stream()
+                        .map(items::get)
+                        .collect(Collectors.toList());
+            }
+            // Items deleted bypassing ItemService (ON DELETE CASCADE of the owner) are dropped, then the page is retried
+            ids.stream()
+                    .filter(id -> !items.containsKey(id))
+                    .forEach(this::removeDocument);
+        }
+    }
+
+    // Index follows committed state only, so a rolled back create or update is never found
+    @Override
+    public void index(Item item) {
+        long itemId = item.getId();
+        if (!Boolean.TRUE.equals(item.getIsAvailable())) {
+            remove(itemId);
+            return;
+        }
+        ItemSearchDocument document = new ItemSearchDocument(itemId, item.getName(), item.getDescription());
+        TransactionCallbacks.afterCommit(() -> put(document));
+    }
+
+    @Override
+    public void remove(long itemId) {
+        TransactionCallbacks.afterCommit(() -> removeDocument(itemId));
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> findIds(String text, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            long toSkip = pageable.getOffset();
+            int limit = pageable.getPageSize();
+            List<Long> ids = new ArrayList<>();
+            for (Long id : getCandidates(text)) {
+                ItemSearchDocument document = documents.get(id);
+                if (!document.getName().contains(text) && !document.getDescription().contains(text)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                ids.add(id);
+                if (ids.size() == limit) {
+                    break;
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every trigram of text occurs in a matching document, so the shortest posting list is a superset of matches
+    private Set<Long> getCandidates(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return documents.keySet();
+        }
+        NavigableSet<Long> candidates = null;
+        for (String gram : getGrams(text)) {
+            NavigableSet<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            if (candidates == null || posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+        return candidates;
+    }
+
+    private void put(ItemSearchDocument document) {
+        ItemSearchDocument lowerCaseDocument = new ItemSearchDocument(document.getId(),
+                document.getName().toLowerCase(), document.getDescription().toLowerCase());
+        lock.writeLock().lock();
+        try {
+            removeFromPostings(documents.put(lowerCaseDocument.getId(), lowerCaseDocument));
+            for (String gram : getGrams(lowerCaseDocument)) {
+                postings.computeIfAbsent(gram, g -> new TreeSet<>()).add(lowerCaseDocument.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeFromPostings(documents.remove(itemId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeFromPostings(ItemSearchDocument document) {
+        if (document == null) {
+            return;
+        }
+        for (String gram : getGrams(document)) {
+            NavigableSet<Long> posting = postings.get(gram);
+            posting.remove(document.getId());
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> getGrams(ItemSearchDocument document) {
+        Set<String> grams = getGrams(document.getName());
+        grams.addAll(getGrams(document.getDescription()));
+        return grams;
+    }
+
+    private static Set<String> getGrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class ItemSearchDocument {
+    private final Long id;
+
+    private final String name;
+
+    private final String description;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+// Backend of ItemService.search, selected by shareit.item.search.engine
+public interface ItemSearchEngine {
+    // Available items whose lower-cased name or description contains text, ordered by id
+    List<Item> search(String text, Pageable pageable);
+
+    void index(Item item);
+
+    void remove(long itemId);
+}
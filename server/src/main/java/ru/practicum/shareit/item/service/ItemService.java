@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.service;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.item.cursor.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentRequestingDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
@@ -15,11 +17,19 @@ public interface ItemService {
 
     List<ItemInfoDto> getByOwnerId(long userId, Pageable pageable);
 
-    ItemInfoDto getByItemId(long itemId, long userId);
+    // ETags of the views of getByOwnerId and getByItemId, read without building them
+    String getTagByOwnerId(long userId, Pageable pageable);
+
+    // tag is the one getTagByItemId has just returned for the request
+    ItemInfoDto getByItemId(long itemId, long userId, String tag);
+
+    String getTagByItemId(long itemId, long userId);
 
     List<ItemInfoDto> search(String text, Pageable pageable);
 
     void deleteByItemId(long itemId, long ownerId);
 
     CommentInfoDto createComment(CommentRequestingDto commentRequestingDto, long itemId, long userId);
+
+    List<CommentInfoDto> getComments(long itemId, @Nullable CommentCursor cursor, int size);
 }
@@ -1,50 +1,105 @@
 package ru.practicum.shareit.item.service;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.event.CommentAddedEvent;
+import ru.practicum.shareit.event.ItemDeletedEvent;
+import ru.practicum.shareit.event.ItemUpdatedEvent;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.cursor.CommentCursor;
+import ru.practicum.shareit.item.dto.CommentCountView;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentRequestingDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.dto.ItemRequestingDto;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.summary.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.directory.UserDirectory;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final Sort COMMENTS_LATEST_FIRST = Sort.by(Sort.Order.desc("creationDate"), Sort.Order.desc("id"));
+
     final ItemRepository itemRepository;
     final UserRepository userRepository;
+    final UserDirectory userDirectory;
     final BookingRepository bookingRepository;
     final CommentRepository commentRepository;
     final ItemRequestRepository itemRequestRepository;
-    private static final Sort SORT_START_ASC = Sort.by(Sort.Direction.ASC, "start");
+    final ItemSearchEngine itemSearchEngine;
+    final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    final ItemViewCache itemViewCache;
+    final ApplicationEventPublisher eventPublisher;
+    final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Value("${shareit.item.comments.embed-size:10}")
+    int commentEmbedSize;
+
+    public ItemServiceImpl(ItemRepository itemRepository,
+                           UserRepository userRepository,
+                           UserDirectory userDirectory,
+                           BookingRepository bookingRepository,
+                           CommentRepository commentRepository,
+                           ItemRequestRepository itemRequestRepository,
+                           ItemSearchEngine itemSearchEngine,
+                           ItemBookingSummaryRepository itemBookingSummaryRepository,
+                           ItemViewCache itemViewCache,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
+        this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemBookingSummaryRepository = itemBookingSummaryRepository;
+        this.itemViewCache = itemViewCache;
+        this.eventPublisher = eventPublisher;
+        // Own instance, setReadOnly on the shared TransactionTemplate bean would affect every writer using it
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
 
 
     @Transactional
     @Override
     public ItemInfoDto create(ItemRequestingDto itemRequestingDto, long ownerId) {
-        User owner = userRepository.findById(ownerId)
+        userDirectory.find(ownerId)
                 .orElseThrow(() -> new NotFoundException("User not found by id: " + ownerId));
+        User owner = userRepository.getReferenceById(ownerId);
 
         ItemRequest itemRequest = null;
         Long itemRequestId = itemRequestingDto.getRequestId();
@@ -56,6 +111,7 @@ public class ItemServiceImpl implements ItemService {
         Item itemToCreate = ItemMapper.toModel(itemRequestingDto, owner, itemRequest);
 
         Item returnedItem = itemRepository.save(itemToCreate);
+        itemSearchEngine.index(returnedItem);
         return ItemMapper.toItemInfoDto(returnedItem);
     }
 
@@ -65,7 +121,7 @@ public class ItemServiceImpl implements ItemService {
         long itemId = itemRequestingDto.getId();
 
         // Check if repository has user with same id
-        userRepository.findById(ownerId)
+        userDirectory.find(ownerId)
                 .orElseThrow(() -> new NotFoundException("User not found by id: " + ownerId));
         // Check if repository has owner with same id who has same item
         Item item = itemRepository.findByIdAndOwnerId(itemId, ownerId)
@@ -73,6 +129,9 @@ public class ItemServiceImpl implements ItemService {
 
         ItemMapper.updateItemByItemRequestingDtoNotNullFields(itemRequestingDto, item);
         itemRepository.save(item);
+        itemRepository.incrementVersionById(itemId);
+        itemSearchEngine.index(item);
+        eventPublisher.publishEvent(new ItemUpdatedEvent(itemId));
         return ItemMapper.toItemInfoDto(item);
     }
 
@@ -82,23 +141,65 @@ public class ItemServiceImpl implements ItemService {
         List<Item> itemList = itemRepository.findAllByOwnerId(userId, pageable);
         List<ItemInfoDto> itemInfoDtoList = ItemMapper.toItemInfoDtoList(itemList);
 
-        setAllLastAndNextBookingToItemDto(itemInfoDtoList);
+        setAllLastAndNextBookingToItemDto(itemInfoDtoList, false);
         setAllCommentsToItemSendDto(itemInfoDtoList);
         return itemInfoDtoList;
     }
 
+    // A cached view is returned without opening a transaction, a miss is read in a read-only one like the other GETs.
+    // The view is read after the tag, so a view cached under the tag is never older than it
+    @Override
+    public ItemInfoDto getByItemId(long itemId, long userId, String tag) {
+        ItemInfoDto cachedItemInfoDto = itemViewCache.find(itemId, userId, tag);
+        if (cachedItemInfoDto != null) {
+            return cachedItemInfoDto;
+        }
+        long stamp = itemViewCache.stamp();
+        return readOnlyTransactionTemplate.execute(status -> {
+            Item item = itemRepository.findById(itemId)
+                    .orElseThrow(() -> new NotFoundException("Item not found by id " + itemId));
+
+            ItemInfoDto itemInfoDto = ItemMapper.toItemInfoDto(item);
+            long ownerId = item.getOwner().getId();
+            boolean ownerView = ownerId == userId;
+            if (ownerView) {
+                setLastAndNextBookingToItemDto(itemInfoDto);
+            }
+            setCommentsToItemDto(itemInfoDto);
+            itemViewCache.put(itemId, ownerId, itemInfoDto, ownerView, tag, stamp);
+            return itemInfoDto;
+        });
+    }
+
     @Transactional(readOnly = true)
     @Override
-    public ItemInfoDto getByItemId(long itemId, long userId) {
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Item not found by id " + itemId));
+    public String getTagByOwnerId(long userId, Pageable pageable) {
+        List<ItemVersionView> itemVersionList = itemRepository.findAllVersionByOwnerId(userId, pageable.getPageSize(),
+                pageable.getOffset());
+        List<Long> itemIdList = itemVersionList.stream()
+                .map(ItemVersionView::getId)
+                .collect(Collectors.toList());
+        Map<Long, String> lastAndNextMap = getAllLastAndNextBookingIds(itemIdList, false);
 
-        ItemInfoDto itemInfoDto = ItemMapper.toItemInfoDto(item);
-        if (item.getOwner().getId() == userId) {
-            setLastAndNextBookingToItemDto(itemInfoDto);
+        StringBuilder versions = new StringBuilder();
+        for (ItemVersionView itemVersion : itemVersionList) {
+            versions.append(itemVersion.getId()).append(':')
+                    .append(itemVersion.getVersion()).append(':')
+                    .append(lastAndNextMap.get(itemVersion.getId())).append(';');
         }
-        setCommentsToItemDto(itemInfoDto);
-        return itemInfoDto;
+        return ETags.ofList("items", versions);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public String getTagByItemId(long itemId, long userId) {
+        ItemVersionView itemVersion = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item not found by id " + itemId));
+        if (itemVersion.getOwnerId() != userId) {
+            return ETags.of("item", itemId, itemVersion.getVersion());
+        }
+        String lastAndNext = getAllLastAndNextBookingIds(List.of(itemId), true).get(itemId);
+        return ETags.of("item", itemId, itemVersion.getVersion(), lastAndNext);
     }
 
     @Transactional(readOnly = true)
@@ -108,14 +209,18 @@ public class ItemServiceImpl implements ItemService {
             return new ArrayList<>();
         }
         String correctText = text.toLowerCase();
-        List<Item> itemList = itemRepository.searchAvailableByNameOrDescription(correctText, pageable);
+        List<Item> itemList = itemSearchEngine.search(correctText, pageable);
         return ItemMapper.toItemInfoDtoList(itemList);
     }
 
     @Transactional
     @Override
     public void deleteByItemId(long itemId, long ownerId) {
-        itemRepository.deleteByIdAndOwnerId(itemId, ownerId);
+        long deleted = itemRepository.deleteByIdAndOwnerId(itemId, ownerId);
+        if (deleted > 0) {
+            itemSearchEngine.remove(itemId);
+            eventPublisher.publishEvent(new ItemDeletedEvent(itemId));
+        }
     }
 
     @Transactional
@@ -129,62 +234,183 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = CommentMapper.toModel(commentRequestingDto, item, user);
         Comment commentToReturn = commentRepository.save(comment);
+        itemRepository.incrementVersionById(itemId);
+        eventPublisher.publishEvent(new CommentAddedEvent(commentToReturn.getId(), itemId));
         return CommentMapper.toInfoDto(commentToReturn);
     }
 
-    private void setLastAndNextBookingToItemDto(ItemInfoDto itemInfoDto) {
-        long itemId = itemInfoDto.getId();
-        Booking lastBooking = bookingRepository.findLastForDateTime(itemId, LocalDateTime.now())
-                .orElse(null);
-        itemInfoDto.setLastBooking(ItemInfoDto.toBookingDto(lastBooking));
+    @Transactional(readOnly = true)
+    @Override
+    public List<CommentInfoDto> getComments(long itemId, @Nullable CommentCursor cursor, int size) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Item not found by id: " + itemId);
+        }
+        List<Comment> commentList = cursor == null
+                ? commentRepository.findAllByItemId(itemId, PageRequest.of(0, size, COMMENTS_LATEST_FIRST))
+                : commentRepository.findAllByItemIdAfter(itemId, Timestamp.valueOf(cursor.getCreated()), cursor.getId(),
+                PageRequest.of(0, size));
+        return CommentMapper.toCommentInfoDtoList(commentList);
+    }
 
-        Booking nextBooking = bookingRepository.findNextForDateTime(itemId, LocalDateTime.now())
-                .orElse(null);
-        itemInfoDto.setNextBooking(ItemInfoDto.toBookingDto(nextBooking));
+    private void setLastAndNextBookingToItemDto(ItemInfoDto itemInfoDto) {
+        setAllLastAndNextBookingToItemDto(List.of(itemInfoDto), true);
     }
 
     private void setCommentsToItemDto(ItemInfoDto itemInfoDto) {
-        List<Comment> comments = commentRepository.findAllByItemId(itemInfoDto.getId());
-        List<CommentInfoDto> commentsDto = CommentMapper.toCommentInfoDtoList(comments);
-        itemInfoDto.setComments(commentsDto);
+        setAllCommentsToItemSendDto(List.of(itemInfoDto));
     }
 
-    private void setAllLastAndNextBookingToItemDto(Collection<ItemInfoDto> itemInfoDtoList) {
+    // Items without a summary have never had an approved booking. Summaries a booking has started or ended after,
+    // or just approved, are computed from bookings until ItemBookingSummarySweeper rolls them forward.
+    // The last booking of a single item is the latest started one, a running booking included, the last booking
+    // of an owner's item list is the latest finished one
+    private void setAllLastAndNextBookingToItemDto(Collection<ItemInfoDto> itemInfoDtoList, boolean currentAsLast) {
+        if (itemInfoDtoList.isEmpty()) {
+            return;
+        }
         List<Long> itemIdList = itemInfoDtoList.stream()
                 .map(ItemInfoDto::getId)
                 .collect(Collectors.toList());
 
-        List<Booking> bookingList = bookingRepository.findAllByItemIdInAndStatus(itemIdList, BookingStatus.APPROVED, SORT_START_ASC);
-        Map<Long, List<Booking>> bookingMap = bookingList.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaryMap = itemBookingSummaryRepository.findAllById(itemIdList).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<ItemInfoDto> staleItemInfoDtoList = new ArrayList<>();
+        for (ItemInfoDto itemInfoDto : itemInfoDtoList) {
+            ItemBookingSummary summary = summaryMap.get(itemInfoDto.getId());
+            if (summary == null) {
+                continue;
+            }
+            if (summary.isValidAt(now)) {
+                setLastAndNextBookingToItemDto(itemInfoDto, summary, currentAsLast);
+            } else {
+                staleItemInfoDtoList.add(itemInfoDto);
+            }
+        }
+        if (!staleItemInfoDtoList.isEmpty()) {
+            setAllLastAndNextBookingFromBookings(staleItemInfoDtoList, now, currentAsLast);
+        }
+    }
+
+    private void setLastAndNextBookingToItemDto(ItemInfoDto itemInfoDto, ItemBookingSummary summary,
+                                                boolean currentAsLast) {
+        if (currentAsLast && summary.getCurrentBookingId() != null) {
+            itemInfoDto.setLastBooking(ItemInfoDto.BookingDto.builder()
+                    .id(summary.getCurrentBookingId())
+                    .itemId(summary.getItemId())
+                    .bookerId(summary.getCurrentBookerId())
+                    .start(summary.getCurrentStart())
+                    .end(summary.getCurrentEnd())
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        } else if (summary.getLastBookingId() != null) {
+            itemInfoDto.setLastBooking(ItemInfoDto.BookingDto.builder()
+                    .id(summary.getLastBookingId())
+                    .itemId(summary.getItemId())
+                    .bookerId(summary.getLastBookerId())
+                    .start(summary.getLastStart())
+                    .end(summary.getLastEnd())
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+        if (summary.getNextBookingId() != null) {
+            itemInfoDto.setNextBooking(ItemInfoDto.BookingDto.builder()
+                    .id(summary.getNextBookingId())
+                    .itemId(summary.getItemId())
+                    .bookerId(summary.getNextBookerId())
+                    .start(summary.getNextStart())
+                    .end(summary.getNextEnd())
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+    }
+
+    private void setAllLastAndNextBookingFromBookings(Collection<ItemInfoDto> itemInfoDtoList, LocalDateTime now,
+                                                      boolean currentAsLast) {
+        List<Long> itemIdList = itemInfoDtoList.stream()
+                .map(ItemInfoDto::getId)
+                .collect(Collectors.toList());
+
+        List<BookingShortView> bookingList = bookingRepository.findLastCurrentAndNextForDateTime(itemIdList, now);
+        Map<Long, List<BookingShortView>> bookingMap = bookingList.stream()
+                .collect(Collectors.groupingBy(BookingShortView::getItemId));
 
         for (ItemInfoDto itemInfoDto : itemInfoDtoList) {
-            List<Booking> bookings = bookingMap.getOrDefault(itemInfoDto.getId(), new ArrayList<>());
-            Booking lastBooking = bookings.stream()
-                    .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                    .max(Comparator.comparing(Booking::getStart))
-                    .orElse(null);
-            itemInfoDto.setLastBooking(ItemInfoDto.toBookingDto(lastBooking));
+            BookingShortView lastBooking = null;
+            for (BookingShortView booking : bookingMap.getOrDefault(itemInfoDto.getId(), List.of())) {
+                if (booking.getStart().isAfter(now)) {
+                    itemInfoDto.setNextBooking(ItemInfoDto.toBookingDto(booking));
+                } else if (isLast(booking, lastBooking, now, currentAsLast)) {
+                    lastBooking = booking;
+                }
+            }
+            if (lastBooking != null) {
+                itemInfoDto.setLastBooking(ItemInfoDto.toBookingDto(lastBooking));
+            }
+        }
+    }
 
-            Booking nextBooking = bookings.stream()
-                    .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                    .min(Comparator.comparing(Booking::getStart))
-                    .orElse(null);
-            itemInfoDto.setNextBooking(ItemInfoDto.toBookingDto(nextBooking));
+    // Of the finished and the current booking, both started before now, picks the one shown as the last booking
+    private static boolean isLast(BookingShortView booking, @Nullable BookingShortView lastBooking, LocalDateTime now,
+                                  boolean currentAsLast) {
+        boolean current = !booking.getEnd().isBefore(now);
+        return currentAsLast ? current || lastBooking == null : !current;
+    }
+
+    // Ids of last and next bookings as owner views show them, they change without any write as bookings start and end.
+    // Same source as setAllLastAndNextBookingToItemDto: valid summaries, otherwise bookings
+    private Map<Long, String> getAllLastAndNextBookingIds(List<Long> itemIdList, boolean currentAsLast) {
+        Map<Long, String> lastAndNextMap = new HashMap<>();
+        if (itemIdList.isEmpty()) {
+            return lastAndNextMap;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> staleItemIdList = new ArrayList<>();
+        for (ItemBookingSummary summary : itemBookingSummaryRepository.findAllById(itemIdList)) {
+            if (summary.isValidAt(now)) {
+                Long lastBookingId = currentAsLast && summary.getCurrentBookingId() != null
+                        ? summary.getCurrentBookingId() : summary.getLastBookingId();
+                lastAndNextMap.put(summary.getItemId(), lastBookingId + ":" + summary.getNextBookingId());
+            } else {
+                staleItemIdList.add(summary.getItemId());
+            }
         }
+        if (!staleItemIdList.isEmpty()) {
+            Map<Long, BookingShortView> lastMap = new HashMap<>();
+            Map<Long, Long> nextMap = new HashMap<>();
+            for (BookingShortView booking : bookingRepository.findLastCurrentAndNextForDateTime(staleItemIdList, now)) {
+                if (booking.getStart().isAfter(now)) {
+                    nextMap.put(booking.getItemId(), booking.getId());
+                } else if (isLast(booking, lastMap.get(booking.getItemId()), now, currentAsLast)) {
+                    lastMap.put(booking.getItemId(), booking);
+                }
+            }
+            for (Long itemId : staleItemIdList) {
+                BookingShortView lastBooking = lastMap.get(itemId);
+                lastAndNextMap.put(itemId, (lastBooking == null ? null : lastBooking.getId()) + ":" + nextMap.get(itemId));
+            }
+        }
+        return lastAndNextMap;
     }
 
+    // Only the latest commentEmbedSize comments of every item and their total count: two queries for the whole page
     private void setAllCommentsToItemSendDto(Collection<ItemInfoDto> itemInfoDtoList) {
+        if (itemInfoDtoList.isEmpty()) {
+            return;
+        }
         List<Long> itemIdList = itemInfoDtoList.stream()
                 .map(ItemInfoDto::getId)
                 .collect(Collectors.toList());
 
-        List<Comment> allCommentsList = commentRepository.findAllCommentsInIdList(itemIdList);
-        Map<Long, List<Comment>> commentsMap = allCommentsList.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        Map<Long, List<CommentInfoDto>> commentsMap = commentRepository.findAllLatestByItemIdIn(itemIdList, commentEmbedSize)
+                .stream()
+                .map(CommentMapper::toInfoDto)
+                .collect(Collectors.groupingBy(CommentInfoDto::getItemId));
+        Map<Long, Long> commentCountMap = commentRepository.countAllByItemIdIn(itemIdList).stream()
+                .collect(Collectors.toMap(CommentCountView::getItemId, CommentCountView::getCommentCount));
         for (ItemInfoDto itemInfoDto : itemInfoDtoList) {
-            List<Comment> comments = commentsMap.getOrDefault(itemInfoDto.getId(), new ArrayList<>());
-            itemInfoDto.setComments(CommentMapper.toCommentInfoDtoList(comments));
+            itemInfoDto.setComments(commentsMap.getOrDefault(itemInfoDto.getId(), new ArrayList<>()));
+            itemInfoDto.setCommentCount(commentCountMap.getOrDefault(itemInfoDto.getId(), 0L));
         }
     }
 
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.summary;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Last finished, current and next APPROVED booking of an item, kept by ItemBookingSummaryUpdater.
+// Valid until the current booking ends and becomes the last one or the next booking starts
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Entity
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "last_start_date_time")
+    private LocalDateTime lastStart;
+
+    @Column(name = "last_end_date_time")
+    private LocalDateTime lastEnd;
+
+    @Column(name = "current_booking_id")
+    private Long currentBookingId;
+
+    @Column(name = "current_booker_id")
+    private Long currentBookerId;
+
+    @Column(name = "current_start_date_time")
+    private LocalDateTime currentStart;
+
+    @Column(name = "current_end_date_time")
+    private LocalDateTime currentEnd;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "next_start_date_time")
+    private LocalDateTime nextStart;
+
+    @Column(name = "next_end_date_time")
+    private LocalDateTime nextEnd;
+
+    @Column(name = "approved_count")
+    private long approvedCount;
+
+    // null when there are no current and next bookings, so nothing changes until another one is approved
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    public boolean isValidAt(LocalDateTime time) {
+        return validUntil == null || validUntil.isAfter(time);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.summary;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Query(value = "SELECT s.itemId " +
+            "FROM ItemBookingSummary AS s " +
+            "WHERE s.validUntil < ?1 " +
+            "ORDER BY s.validUntil ASC")
+    List<Long> findAllItemIdByValidUntilBefore(LocalDateTime time, Pageable pageable);
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.summary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.lock.ItemLockStripes;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Rolls summaries forward once a booking has started or ended, approvals refresh them in their own transaction.
+// Until then readers see the summary as stale and compute last and next bookings from the bookings table,
+// so the delay or a disabled sweeper only costs queries, not correctness
+@Component
+@ConditionalOnProperty(name = "shareit.item.booking-summary.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ItemBookingSummarySweeper {
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    private final ItemRepository itemRepository;
+    private final ItemLockStripes itemLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ItemBookingSummarySweeper(ItemBookingSummaryRepository itemBookingSummaryRepository,
+                                     ItemBookingSummaryUpdater itemBookingSummaryUpdater,
+                                     ItemRepository itemRepository,
+                                     ItemLockStripes itemLockStripes,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shareit.item.booking-summary.sweeper.batch-size:100}") int batchSize) {
+        this.itemBookingSummaryRepository = itemBookingSummaryRepository;
+        this.itemBookingSummaryUpdater = itemBookingSummaryUpdater;
+        this.itemRepository = itemRepository;
+        this.itemLockStripes = itemLockStripes;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.booking-summary.sweeper.delay-ms:60000}")
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int refreshed = 0;
+        List<Long> itemIdList;
+        do {
+            itemIdList = itemBookingSummaryRepository.findAllItemIdByValidUntilBefore(now, PageRequest.of(0, batchSize));
+            for (long itemId : itemIdList) {
+                refresh(itemId, now);
+                refreshed++;
+            }
+        } while (itemIdList.size() == batchSize);
+        if (refreshed > 0) {
+            log.debug("Item booking summaries refreshed: {}", refreshed);
+        }
+        return refreshed;
+    }
+
+    // Same locks in the same order as BookingServiceImpl.respondToBooking. Deleted item takes its summary with it
+    private void refresh(long itemId, LocalDateTime now) {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemLockStripes.lockUntilTransactionEnds(itemId);
+            if (itemRepository.lockById(itemId).isPresent()) {
+                itemBookingSummaryUpdater.refresh(itemId, now);
+            }
+        });
+    }
+}
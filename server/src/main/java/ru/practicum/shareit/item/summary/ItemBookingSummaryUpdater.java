@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item.summary;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryUpdater {
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final BookingRepository bookingRepository;
+
+    // Runs under the item lock of the calling transaction: the one approving a booking or the sweeper's.
+    // Concurrent refreshes of one item can't overwrite a newer summary with an older one
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ItemBookingSummary refresh(long itemId, LocalDateTime now) {
+        List<BookingShortView> lastCurrentAndNext = bookingRepository.findLastCurrentAndNextForDateTime(List.of(itemId),
+                now);
+        long approvedCount = bookingRepository.countByItemIdAndStatus(itemId, BookingStatus.APPROVED);
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId)
+                .orElseGet(() -> ItemBookingSummary.builder().itemId(itemId).build());
+        summary.setLastBookingId(null);
+        summary.setLastBookerId(null);
+        summary.setLastStart(null);
+        summary.setLastEnd(null);
+        summary.setCurrentBookingId(null);
+        summary.setCurrentBookerId(null);
+        summary.setCurrentStart(null);
+        summary.setCurrentEnd(null);
+        summary.setNextBookingId(null);
+        summary.setNextBookerId(null);
+        summary.setNextStart(null);
+        summary.setNextEnd(null);
+        for (BookingShortView booking : lastCurrentAndNext) {
+            if (booking.getStart().isAfter(now)) {
+                summary.setNextBookingId(booking.getId());
+                summary.setNextBookerId(booking.getBookerId());
+                summary.setNextStart(booking.getStart());
+                summary.setNextEnd(booking.getEnd());
+            } else if (booking.getEnd().isBefore(now)) {
+                summary.setLastBookingId(booking.getId());
+                summary.setLastBookerId(booking.getBookerId());
+                summary.setLastStart(booking.getStart());
+                summary.setLastEnd(booking.getEnd());
+            } else {
+                summary.setCurrentBookingId(booking.getId());
+                summary.setCurrentBookerId(booking.getBookerId());
+                summary.setCurrentStart(booking.getStart());
+                summary.setCurrentEnd(booking.getEnd());
+            }
+        }
+        summary.setApprovedCount(approvedCount);
+        // Approved bookings don't overlap, so the current booking ends before the next one starts
+        summary.setValidUntil(summary.getCurrentEnd() != null ? summary.getCurrentEnd() : summary.getNextStart());
+        return itemBookingSummaryRepository.save(summary);
+    }
+}
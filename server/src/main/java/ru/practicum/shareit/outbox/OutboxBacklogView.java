@@ -0,0 +1,11 @@
+package ru.practicum.shareit.outbox;
+
+import java.time.LocalDateTime;
+
+// Messages not sent yet, see OutboxRepository.findBacklog
+public interface OutboxBacklogView {
+    Long getUnsent();
+
+    // null when the outbox is empty
+    LocalDateTime getOldestCreated();
+}
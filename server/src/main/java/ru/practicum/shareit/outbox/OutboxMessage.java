@@ -0,0 +1,39 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Change to be sent to other systems, inserted in the transaction of the change and deleted once it is sent
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@ToString
+@Entity
+@Table(name = "outbox")
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    @Column(name = "outbox_id")
+    private Long id;
+
+    @Column(name = "aggregate_type")
+    private String aggregateType;
+
+    @Column(name = "aggregate_id")
+    private long aggregateId;
+
+    @Column(name = "event_type")
+    private String eventType;
+
+    // JSON
+    @Column(name = "payload")
+    private String payload;
+
+    @Column(name = "created")
+    private LocalDateTime created;
+}
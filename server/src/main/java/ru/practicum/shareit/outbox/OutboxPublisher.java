@@ -0,0 +1,118 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sends outbox messages in batches of the oldest ones. A batch is locked, sent and deleted in one transaction:
+// if the sink fails the batch stays and is sent again by the next run, if the commit fails after sending it is sent
+// twice. On PostgreSQL other instances skip locked rows and take the next batch instead of waiting
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.publisher.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxPublisher {
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer lag;
+    private final AtomicLong unsent = new AtomicLong();
+    private volatile LocalDateTime oldestUnsentCreated;
+
+    public OutboxPublisher(OutboxRepository outboxRepository,
+                           OutboxSink outboxSink,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.outbox.publisher.batch-size:100}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.outboxSink = outboxSink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.published = Counter.builder("shareit.outbox.published")
+                .register(meterRegistry);
+        this.failures = Counter.builder("shareit.outbox.failures")
+                .register(meterRegistry);
+        // From the change to the batch that sent it
+        this.lag = Timer.builder("shareit.outbox.lag")
+                .register(meterRegistry);
+        // Backlog as of the end of the last run. The age keeps growing between runs, so a stuck publisher shows up
+        Gauge.builder("shareit.outbox.unsent", unsent, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("shareit.outbox.oldest-unsent-age", this, OutboxPublisher::oldestUnsentAgeSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.publisher.delay-ms:1000}")
+    public int publish() {
+        int sent = 0;
+        Integer batch;
+        do {
+            try {
+                batch = transactionTemplate.execute(status -> publishBatch());
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Outbox batch not sent, it is sent again by the next run", e);
+                break;
+            }
+            sent += batch;
+        } while (batch == batchSize);
+        if (sent > 0) {
+            log.debug("Outbox messages sent: {}", sent);
+        }
+        updateBacklog();
+        return sent;
+    }
+
+    private int publishBatch() {
+        List<OutboxMessage> messages = outboxRepository.lockOldest(batchSize);
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        try {
+            outboxSink.send(messages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        outboxRepository.deleteAllInBatch(messages);
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage message : messages) {
+            lag.record(Duration.between(message.getCreated(), now));
+        }
+        published.increment(messages.size());
+        return messages.size();
+    }
+
+    // Gauges keep the previous values when the database is unavailable
+    private void updateBacklog() {
+        try {
+            OutboxBacklogView backlog = outboxRepository.findBacklog();
+            unsent.set(backlog.getUnsent());
+            oldestUnsentCreated = backlog.getOldestCreated();
+        } catch (RuntimeException e) {
+            log.warn("Outbox backlog not read", e);
+        }
+    }
+
+    private double oldestUnsentAgeSeconds() {
+        LocalDateTime oldest = oldestUnsentCreated;
+        return oldest != null ? Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0 : 0;
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long>, OutboxRepositoryCustom {
+    @Query(value = "SELECT COUNT(o) AS unsent, MIN(o.created) AS oldestCreated " +
+            "FROM OutboxMessage AS o")
+    OutboxBacklogView findBacklog();
+}
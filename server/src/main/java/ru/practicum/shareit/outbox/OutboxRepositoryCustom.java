@@ -0,0 +1,9 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+public interface OutboxRepositoryCustom {
+    // Oldest messages by created, then id, locked until the transaction ends. Messages locked by other publishers are skipped on
+    // PostgreSQL, so several server instances drain the outbox in parallel without sending a message twice
+    List<OutboxMessage> lockOldest(int limit);
+}
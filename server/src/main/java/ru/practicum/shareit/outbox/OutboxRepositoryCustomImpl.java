@@ -0,0 +1,34 @@
+package ru.practicum.shareit.outbox;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class OutboxRepositoryCustomImpl implements OutboxRepositoryCustom {
+    private static final String SELECT_OLDEST = "SELECT * FROM outbox ORDER BY created, outbox_id LIMIT ?1 ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // H2 of the test profile has no SKIP LOCKED, its publishers wait for each other instead
+    private volatile String lockClause;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<OutboxMessage> lockOldest(int limit) {
+        return entityManager.createNativeQuery(SELECT_OLDEST + getLockClause(), OutboxMessage.class)
+                .setParameter(1, limit)
+                .getResultList();
+    }
+
+    private String getLockClause() {
+        if (lockClause == null) {
+            String databaseProductName = entityManager.unwrap(Session.class)
+                    .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+            lockClause = "PostgreSQL".equals(databaseProductName) ? "FOR UPDATE SKIP LOCKED" : "FOR UPDATE";
+        }
+        return lockClause;
+    }
+}
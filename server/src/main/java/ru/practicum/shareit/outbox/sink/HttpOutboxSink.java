@@ -0,0 +1,34 @@
+package ru.practicum.shareit.outbox.sink;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.time.Duration;
+import java.util.List;
+
+// POSTs every batch as a JSON array of messages, any response but 2xx makes the publisher send it again
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+    private final RestTemplate restTemplate;
+    private final String url;
+
+    public HttpOutboxSink(RestTemplateBuilder restTemplateBuilder,
+                          @Value("${shareit.outbox.http.url}") String url,
+                          @Value("${shareit.outbox.http.timeout-ms:5000}") long timeoutMs) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeoutMs))
+                .setReadTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        this.url = url;
+    }
+
+    @Override
+    public void send(List<OutboxMessage> messages) {
+        restTemplate.postForEntity(url, messages, Void.class);
+    }
+}
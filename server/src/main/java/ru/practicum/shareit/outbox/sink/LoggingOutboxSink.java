@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox.sink;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.util.List;
+
+// Default for deployments without receivers: messages are only logged
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LoggingOutboxSink implements OutboxSink {
+    @Override
+    public void send(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("Outbox message {} {} of {} {}: {}", message.getId(), message.getEventType(),
+                    message.getAggregateType(), message.getAggregateId(), message.getPayload());
+        }
+    }
+}
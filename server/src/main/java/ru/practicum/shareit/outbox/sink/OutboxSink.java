@@ -0,0 +1,13 @@
+package ru.practicum.shareit.outbox.sink;
+
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.io.IOException;
+import java.util.List;
+
+// Destination of outbox messages, selected by shareit.outbox.sink. Delivery is at least once: a batch sent
+// right before its transaction failed is sent again, so receivers deduplicate by message id
+public interface OutboxSink {
+    // Throws if the batch was not accepted as a whole, it is sent again by the next run of the publisher
+    void send(List<OutboxMessage> messages) throws IOException;
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class ItemRequest {
     @Id
     @Column(name = "item_request_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_requests_seq")
+    @SequenceGenerator(name = "item_requests_seq", sequenceName = "item_requests_seq", allocationSize = 50)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
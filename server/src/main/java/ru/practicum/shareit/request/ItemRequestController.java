@@ -6,6 +6,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestRequestingDto;
 
@@ -40,9 +41,14 @@ public class ItemRequestController {
         return itemRequestInfoDto;
     }
 
+    // Unchanged requests are answered with 304 by their ETag without being read
     @GetMapping
-    public List<ItemRequestInfoDto> getByAllByRequestingUserId(@RequestHeader(name = "X-Sharer-User-Id") long requestingUserId) {
+    public List<ItemRequestInfoDto> getByAllByRequestingUserId(@RequestHeader(name = "X-Sharer-User-Id") long requestingUserId,
+                                                               WebRequest webRequest) {
         log.info("GET \"/requests\" , Headers:(X-Sharer-User-Id)={}", requestingUserId);
+        if (webRequest.checkNotModified(itemRequestService.getTagByRequestingUserId(requestingUserId))) {
+            return null;
+        }
         List<ItemRequestInfoDto> listItemRequestInfoDto = itemRequestService.getByAllByRequestingUserId(requestingUserId);
         log.debug(listItemRequestInfoDto.toString());
         return listItemRequestInfoDto;
@@ -3,12 +3,21 @@ package ru.practicum.shareit.request;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestVersionView;
 
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequestingUserId(long requestingUserId);
 
+    // Requests are never changed, their views change with the items created for them
+    @Query(value = "SELECT r.item_request_id AS requestId, i.item_id AS itemId, i.version AS itemVersion " +
+            "FROM item_requests AS r " +
+            "LEFT JOIN items AS i ON i.item_request_id = r.item_request_id " +
+            "WHERE r.requesting_user_id = ?1 " +
+            "ORDER BY r.item_request_id, i.item_id", nativeQuery = true)
+    List<ItemRequestVersionView> findAllVersionByRequestingUserId(long requestingUserId);
+
     /*@Query(value = "SELECT * " +
             "FROM item_requests AS ir " +
             "JOIN users AS u ON ir.requesting_user_id = u.user_id " +
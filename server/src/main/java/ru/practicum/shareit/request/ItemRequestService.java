@@ -13,5 +13,8 @@ public interface ItemRequestService {
 
     List<ItemRequestInfoDto> getByAllByRequestingUserId(long requestingUserId);
 
+    // ETag of the view of getByAllByRequestingUserId, read without building it
+    String getTagByRequestingUserId(long requestingUserId);
+
     List<ItemRequestInfoDto> getAllWithOffsetAndLimit(long requestingUserId, Pageable pageable);
 }
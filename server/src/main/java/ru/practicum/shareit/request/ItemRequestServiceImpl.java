@@ -3,6 +3,8 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -11,6 +13,8 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestRequestingDto;
+import ru.practicum.shareit.request.dto.ItemRequestVersionView;
+import ru.practicum.shareit.user.directory.UserDirectory;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -25,20 +29,24 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
     final ItemRequestRepository itemRequestRepository;
     final UserRepository userRepository;
+    final UserDirectory userDirectory;
     final ItemRepository itemRepository;
 
+    @Transactional
     @Override
     public ItemRequestInfoDto create(ItemRequestRequestingDto requestReceiveDto, long userId) {
-        User requestingUser = userRepository.findById(userId)
+        userDirectory.find(userId)
                 .orElseThrow(() -> new NotFoundException("User not found by id: " + userId));
+        User requestingUser = userRepository.getReferenceById(userId);
         ItemRequest itemRequest = ItemRequestMapper.toModel(requestReceiveDto, requestingUser);
         ItemRequest savedItemRequest = itemRequestRepository.save(itemRequest);
         return ItemRequestMapper.toItemRequestInfoDto(savedItemRequest);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public ItemRequestInfoDto getById(long itemRequestId, long userId) {
-        userRepository.findById(userId)
+        userDirectory.find(userId)
                 .orElseThrow(() -> new NotFoundException("User not found by id: " + userId));
         ItemRequest itemRequest = itemRequestRepository.findById(itemRequestId)
                 .orElseThrow(() -> new NotFoundException("ItemRequest not found by id: " + itemRequestId));
@@ -48,9 +56,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestInfoDto;
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<ItemRequestInfoDto> getByAllByRequestingUserId(long requestingUserId) {
-        userRepository.findById(requestingUserId)
+        userDirectory.find(requestingUserId)
                 .orElseThrow(() -> new NotFoundException("User not found by id: " + requestingUserId));
 
         List<ItemRequest> itemRequestList = itemRequestRepository.findAllByRequestingUserId(requestingUserId);
@@ -59,9 +68,25 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestInfoDtoList;
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public String getTagByRequestingUserId(long requestingUserId) {
+        userDirectory.find(requestingUserId)
+                .orElseThrow(() -> new NotFoundException("User not found by id: " + requestingUserId));
+
+        StringBuilder versions = new StringBuilder();
+        for (ItemRequestVersionView version : itemRequestRepository.findAllVersionByRequestingUserId(requestingUserId)) {
+            versions.append(version.getRequestId()).append(':')
+                    .append(version.getItemId()).append(':')
+                    .append(version.getItemVersion()).append(';');
+        }
+        return ETags.ofList("requests", versions);
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public List<ItemRequestInfoDto> getAllWithOffsetAndLimit(long requestingUserId, Pageable pageable) {
-        userRepository.findById(requestingUserId)
+        userDirectory.find(requestingUserId)
                 .orElseThrow(() -> new NotFoundException("User not found by id: " + requestingUserId));
 
         List<ItemRequest> itemRequestList = itemRequestRepository.getAllWithOffsetAndLimit(requestingUserId, pageable);
@@ -84,7 +109,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         Map<Long, List<Item>> requestIdToItemListMap = allItemsInRequestIdList
                 .stream()
-                .collect(Collectors.groupingBy((item) -> item.getItemRequest().id));
+                .collect(Collectors.groupingBy((item) -> item.getItemRequest().getId()));
 
         for (ItemRequestInfoDto requestSendDto : itemRequestInfoDtoCollection) {
             List<ItemInfoDto> responses = ItemMapper.toItemInfoDtoList(
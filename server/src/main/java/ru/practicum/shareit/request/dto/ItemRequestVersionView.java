@@ -0,0 +1,10 @@
+package ru.practicum.shareit.request.dto;
+
+// Request with one of its responses, itemId is null for a request without any
+public interface ItemRequestVersionView {
+    Long getRequestId();
+
+    Long getItemId();
+
+    Long getItemVersion();
+}
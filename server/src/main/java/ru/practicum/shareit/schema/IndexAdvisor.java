@@ -0,0 +1,164 @@
+package ru.practicum.shareit.schema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs EXPLAIN on every repository query at startup and logs the ones planning a sequential scan
+// over a table with at least min-table-rows rows. Only reads plans, nothing is executed
+@Component
+@ConditionalOnProperty(name = "shareit.index-advisor.enabled", havingValue = "true")
+@Slf4j
+public class IndexAdvisor {
+    private static final Pattern POSTGRESQL_SEQUENTIAL_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final Pattern H2_SEQUENTIAL_SCAN = Pattern.compile("(\\w+)\\.tableScan");
+    private static final String STATEMENT_NAME = "shareit_index_advisor";
+
+    private final RepositoryQueryCollector repositoryQueryCollector;
+    private final JdbcTemplate jdbcTemplate;
+    private final long minTableRows;
+
+    public IndexAdvisor(ListableBeanFactory beanFactory,
+                        EntityManagerFactory entityManagerFactory,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${shareit.index-advisor.min-table-rows:10000}") long minTableRows) {
+        this.repositoryQueryCollector = new RepositoryQueryCollector(beanFactory, entityManagerFactory);
+        this.jdbcTemplate = jdbcTemplate;
+        this.minTableRows = minTableRows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public List<QueryPlan> advise() {
+        Map<String, String> sqlByQueryName = repositoryQueryCollector.collect();
+        List<QueryPlan> plans = new ArrayList<>();
+        int warnings = 0;
+        for (Map.Entry<String, String> query : sqlByQueryName.entrySet()) {
+            QueryPlan plan;
+            try {
+                plan = jdbcTemplate.execute((ConnectionCallback<QueryPlan>) connection ->
+                        explain(connection, query.getKey(), query.getValue()));
+            } catch (RuntimeException e) {
+                log.warn("Index advisor could not explain query {}: {}", query.getKey(), e.getMessage());
+                continue;
+            }
+            plans.add(plan);
+            for (Map.Entry<String, Long> scan : plan.getSequentialScans().entrySet()) {
+                if (scan.getValue() >= minTableRows) {
+                    warnings++;
+                    log.warn("Query {} plans a sequential scan over {} ({} rows): {}",
+                            plan.getQueryName(), scan.getKey(), scan.getValue(), plan.getSql());
+                }
+            }
+        }
+        log.info("Index advisor explained {} of {} repository queries, {} sequential scans over tables " +
+                "with at least {} rows", plans.size(), sqlByQueryName.size(), warnings, minTableRows);
+        return plans;
+    }
+
+    private QueryPlan explain(Connection connection, String queryName, String sql) throws SQLException {
+        boolean postgresql = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        String plan = postgresql ? explainPostgresql(connection, sql) : explainH2(connection, sql);
+        Matcher matcher = (postgresql ? POSTGRESQL_SEQUENTIAL_SCAN : H2_SEQUENTIAL_SCAN).matcher(plan);
+        Map<String, Long> sequentialScans = new LinkedHashMap<>();
+        while (matcher.find()) {
+            String table = matcher.group(1).toLowerCase(Locale.ROOT);
+            if (!sequentialScans.containsKey(table)) {
+                sequentialScans.put(table, postgresql ? estimateRows(connection, table) : countRows(connection, table));
+            }
+        }
+        return new QueryPlan(queryName, sql, sequentialScans);
+    }
+
+    // Generic plan of a prepared statement does not depend on parameter values, so NULL arguments are enough
+    private static String explainPostgresql(Connection connection, String sql) throws SQLException {
+        int parameters = 0;
+        StringBuilder numbered = new StringBuilder();
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        boolean prepared = false;
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            try {
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE " + STATEMENT_NAME + " AS " + numbered);
+                prepared = true;
+                String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN EXECUTE " + STATEMENT_NAME + arguments)) {
+                    return readPlan(resultSet);
+                }
+            } finally {
+                // Prepared statements outlive the transaction, the pooled connection must not keep one
+                connection.rollback();
+                if (prepared) {
+                    statement.execute("DEALLOCATE " + STATEMENT_NAME);
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static String explainH2(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return readPlan(resultSet);
+            }
+        }
+    }
+
+    private static String readPlan(ResultSet resultSet) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        while (resultSet.next()) {
+            plan.append(resultSet.getString(1)).append('\n');
+        }
+        return plan.toString();
+    }
+
+    private static long estimateRows(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT GREATEST(reltuples, 0)::BIGINT FROM pg_class WHERE relname = ?")) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    // Table name comes from the plan and is a plain identifier
+    private static long countRows(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class QueryPlan {
+    private final String queryName;
+
+    private final String sql;
+
+    // Sequentially scanned table -> its row count (estimate on PostgreSQL)
+    private final Map<String, Long> sequentialScans;
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.schema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.lang.Nullable;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Renders SQL of every query method declared on the Spring Data repositories: native @Query as is,
+// JPQL @Query and derived findBy... methods through the Hibernate query translator. Parameters stay unbound (?).
+@Slf4j
+class RepositoryQueryCollector {
+    private static final Pattern LIKE_WILDCARD_PARAMETER = Pattern.compile("%?([?:]\\w+)%?");
+    private static final Pattern NATIVE_ORDINAL_PARAMETER = Pattern.compile("\\?\\d+");
+    private static final Pattern NATIVE_NAMED_PARAMETER = Pattern.compile("(?<![:\\w]):\\w+");
+    private static final Pattern IN_PARAMETER = Pattern.compile("(?i)\\bIN\\s+\\?");
+
+    private final ListableBeanFactory beanFactory;
+    private final SessionFactoryImplementor sessionFactory;
+
+    RepositoryQueryCollector(ListableBeanFactory beanFactory, EntityManagerFactory entityManagerFactory) {
+        this.beanFactory = beanFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    // Query name (Repository.method) -> SQL, methods which can not be rendered are skipped
+    Map<String, String> collect() {
+        Map<String, String> sqlByQueryName = new LinkedHashMap<>();
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                if (information.isCustomMethod(method)) {
+                    continue;
+                }
+                String queryName = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                try {
+                    String sql = toSql(method, domainType);
+                    if (sql == null) {
+                        log.debug("Index advisor skips query {}: unsupported derived query", queryName);
+                    } else {
+                        sqlByQueryName.put(queryName, sql);
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Index advisor skips query {}: {}", queryName, e.getMessage());
+                }
+            }
+        }
+        return sqlByQueryName;
+    }
+
+    @Nullable
+    private String toSql(Method method, Class<?> domainType) {
+        Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        if (query != null && query.nativeQuery()) {
+            return toJdbcParameters(query.value());
+        }
+        String jpql = query != null
+                ? LIKE_WILDCARD_PARAMETER.matcher(query.value()).replaceAll("$1")
+                : toJpql(new PartTree(method.getName(), domainType), domainType);
+        if (jpql == null) {
+            return null;
+        }
+        String[] sql = sessionFactory.getQueryPlanCache()
+                .getHQLQueryPlan(jpql, false, Collections.emptyMap())
+                .getSqlStrings();
+        return sql.length == 1 ? sql[0] : null;
+    }
+
+    // Spring Data native parameters (?1, :name) to JDBC ones, a collection parameter is expanded to a single value
+    private static String toJdbcParameters(String sql) {
+        String jdbcSql = NATIVE_ORDINAL_PARAMETER.matcher(sql).replaceAll("?");
+        jdbcSql = NATIVE_NAMED_PARAMETER.matcher(jdbcSql).replaceAll("?");
+        return IN_PARAMETER.matcher(jdbcSql).replaceAll("IN (?)");
+    }
+
+    // Same WHERE clause Spring Data builds for a derived query; ORDER BY and paging do not change the access path
+    @Nullable
+    private String toJpql(PartTree tree, Class<?> domainType) {
+        StringBuilder where = new StringBuilder();
+        int position = 1;
+        for (PartTree.OrPart orPart : tree) {
+            StringBuilder and = new StringBuilder();
+            for (Part part : orPart) {
+                String predicate = toPredicate(part, "e." + part.getProperty().toDotPath(), position);
+                if (predicate == null) {
+                    return null;
+                }
+                and.append(and.length() == 0 ? "" : " AND ").append(predicate);
+                position += part.getNumberOfArguments();
+            }
+            where.append(where.length() == 0 ? "" : " OR ").append('(').append(and).append(')');
+        }
+        String entityName = sessionFactory.getMetamodel().entity(domainType).getName();
+        return "SELECT e FROM " + entityName + " AS e" + (where.length() == 0 ? "" : " WHERE " + where);
+    }
+
+    @Nullable
+    private static String toPredicate(Part part, String property, int position) {
+        switch (part.getType()) {
+            case SIMPLE_PROPERTY:
+                return property + " = ?" + position;
+            case NEGATING_SIMPLE_PROPERTY:
+                return property + " <> ?" + position;
+            case IN:
+                return property + " IN (?" + position + ")";
+            case NOT_IN:
+                return property + " NOT IN (?" + position + ")";
+            case LESS_THAN:
+            case BEFORE:
+                return property + " < ?" + position;
+            case LESS_THAN_EQUAL:
+                return property + " <= ?" + position;
+            case GREATER_THAN:
+            case AFTER:
+                return property + " > ?" + position;
+            case GREATER_THAN_EQUAL:
+                return property + " >= ?" + position;
+            case BETWEEN:
+                return property + " BETWEEN ?" + position + " AND ?" + (position + 1);
+            case LIKE:
+            case STARTING_WITH:
+            case ENDING_WITH:
+            case CONTAINING:
+                return property + " LIKE ?" + position;
+            case IS_NULL:
+                return property + " IS NULL";
+            case IS_NOT_NULL:
+                return property + " IS NOT NULL";
+            case TRUE:
+                return property + " = true";
+            case FALSE:
+                return property + " = false";
+            default:
+                return null;
+        }
+    }
+}
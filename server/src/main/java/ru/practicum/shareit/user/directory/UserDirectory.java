@@ -0,0 +1,100 @@
+package ru.practicum.shareit.user.directory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.event.UserEvent;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read-through cache of existing users for "user must exist" checks. Only found users are cached, so a created user
+// is visible at once; updated and deleted ones are evicted after commit, other server instances see them after ttl
+@Component
+@Slf4j
+public class UserDirectory {
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<Long, CachedUser> usersById = new ConcurrentHashMap<>();
+    // Loads started before an eviction are not cached, they may have read the user before the change
+    private final AtomicLong evictions = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserDirectory(UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${shareit.user.directory.enabled:true}") boolean enabled,
+                         @Value("${shareit.user.directory.ttl-ms:60000}") long ttlMs,
+                         @Value("${shareit.user.directory.max-size:100000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("shareit.user.directory.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("shareit.user.directory.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("shareit.user.directory.size", usersById, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    public Optional<UserSummary> find(long userId) {
+        if (!enabled) {
+            return userRepository.findSummaryById(userId);
+        }
+        long now = System.nanoTime();
+        CachedUser cached = usersById.get(userId);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            hits.increment();
+            return Optional.of(cached.user);
+        }
+        misses.increment();
+        long stamp = evictions.get();
+        Optional<UserSummary> user = userRepository.findSummaryById(userId);
+        if (user.isPresent()) {
+            if (usersById.size() >= maxSize) {
+                log.debug("User directory reached {} users and is cleared", maxSize);
+                usersById.clear();
+            }
+            // Checked under the lock of the user's entry, an eviction counted after the check waits for it to remove
+            // the user
+            CachedUser loaded = new CachedUser(user.get(), now);
+            usersById.compute(userId, (id, current) -> evictions.get() == stamp ? loaded : current);
+        } else if (cached != null) {
+            usersById.remove(userId, cached);
+        }
+        return user;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        evictions.incrementAndGet();
+        usersById.remove(event.getUserId());
+    }
+
+    int size() {
+        return usersById.size();
+    }
+
+    private static class CachedUser {
+        private final UserSummary user;
+        private final long loadedAt;
+
+        private CachedUser(UserSummary user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user.directory;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class UserSummary {
+    private final Long id;
+
+    private final String name;
+
+    private final String email;
+}
@@ -13,7 +13,8 @@ import javax.persistence.*;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id")
     private Long id;
 
@@ -22,4 +23,8 @@ public class User {
 
     @Column(name = "name")
     private String name;
-}
\ No newline at end of file
+
+    // Changed by the repositories' incrementVersion updates only, ETags are built from it
+    @Column(name = "version", insertable = false, updatable = false)
+    private long version;
+}
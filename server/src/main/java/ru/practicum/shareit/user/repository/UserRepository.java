@@ -1,7 +1,23 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.user.directory.UserSummary;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Query(value = "SELECT new ru.practicum.shareit.user.directory.UserSummary(u.id, u.name, u.email) " +
+            "FROM User AS u " +
+            "WHERE u.id = ?1")
+    Optional<UserSummary> findSummaryById(long userId);
+
+    @Modifying
+    @Query(value = "UPDATE User AS u " +
+            "SET u.version = u.version + 1 " +
+            "WHERE u.id = :userId")
+    void incrementVersionById(@Param("userId") long userId);
 }
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.event.UserDeletedEvent;
+import ru.practicum.shareit.event.UserUpdatedEvent;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.directory.UserDirectory;
+import ru.practicum.shareit.user.directory.UserSummary;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -15,6 +21,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     final UserRepository userRepository;
+    final ItemRepository itemRepository;
+    final UserDirectory userDirectory;
+    final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
@@ -35,6 +44,10 @@ public class UserServiceImpl implements UserService {
 
         UserMapper.updateUserByUserDtoNotNullFields(userDto, userToUpdate);
         userRepository.save(userToUpdate);
+        // Bookings show the booker, items the author of their comments
+        userRepository.incrementVersionById(userId);
+        itemRepository.incrementVersionByCommentAuthorId(userId);
+        eventPublisher.publishEvent(new UserUpdatedEvent(userId));
         return UserMapper.createUserDtoFromUser(userToUpdate);
     }
 
@@ -49,13 +62,14 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
     }
 
     @Transactional(readOnly = true)
     @Override
     public UserDto getById(Long id) {
-        User user = userRepository.findById(id)
+        UserSummary user = userDirectory.find(id)
                 .orElseThrow(() -> new NotFoundException("User not found by id: " + id));
-        return UserMapper.createUserDtoFromUser(user);
+        return UserMapper.createUserDtoFromUserSummary(user);
     }
 }
@@ -0,0 +1,11 @@
+-- Booking started but not yet ended, owner item views show it as the last one, see ItemBookingSummary
+ALTER TABLE item_booking_summary ADD COLUMN IF NOT EXISTS current_booking_id BIGINT;
+
+ALTER TABLE item_booking_summary ADD COLUMN IF NOT EXISTS current_booker_id BIGINT;
+
+ALTER TABLE item_booking_summary ADD COLUMN IF NOT EXISTS current_start_date_time TIMESTAMP;
+
+ALTER TABLE item_booking_summary ADD COLUMN IF NOT EXISTS current_end_date_time TIMESTAMP;
+
+-- Summaries computed without the current booking are stale, the first sweep fills it in
+UPDATE item_booking_summary SET valid_until = TIMESTAMP '1970-01-01 00:00:00';
@@ -0,0 +1,3 @@
+-- Batches of OutboxRepositoryCustom.lockOldest and the oldest unsent message of the backlog gauge,
+-- ordered by created, outbox_id
+CREATE INDEX IF NOT EXISTS outbox_created_id_idx ON outbox (created, outbox_id);
@@ -1,6 +1,3 @@
---DROP SCHEMA IF EXISTS public CASCADE;
---CREATE SCHEMA IF NOT EXISTS public;
-
 CREATE TABLE IF NOT EXISTS users (
   user_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   email VARCHAR NOT NULL UNIQUE,
@@ -38,4 +35,4 @@ CREATE TABLE IF NOT EXISTS comments (
   author_id BIGINT NOT NULL REFERENCES users(user_id),
   created TIMESTAMP NOT NULL,
   text VARCHAR NOT NULL
-);
\ No newline at end of file
+);
@@ -0,0 +1,15 @@
+-- Last/next APPROVED booking per item: BookingRepository.findLastAndNextForDateTime, countIntersectionInTime
+CREATE INDEX IF NOT EXISTS bookings_item_id_status_start_idx ON bookings (item_id, status, start_date_time);
+
+-- Keyset pages of booker and owner bookings ordered by start DESC, id DESC
+CREATE INDEX IF NOT EXISTS bookings_booker_id_start_id_idx ON bookings (booker_id, start_date_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_id_idx ON bookings (item_id, start_date_time DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS items_item_request_id_idx ON items (item_request_id);
+
+CREATE INDEX IF NOT EXISTS comments_item_id_idx ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS item_requests_requesting_user_id_idx ON item_requests (requesting_user_id);
@@ -0,0 +1,23 @@
+-- Ids are taken from sequences by the pooled-lo optimizer of Hibernate: one nextval reserves the next 50 ids
+-- (INCREMENT BY equals allocationSize of the entities), so inserts are not bound to a round trip each
+-- and can be sent in JDBC batches, which IDENTITY columns don't allow.
+-- Rows must not be inserted with nextval outside Hibernate, such ids would collide with the reserved ones
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS item_requests_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users ALTER COLUMN user_id DROP IDENTITY;
+
+ALTER TABLE item_requests ALTER COLUMN item_request_id DROP IDENTITY;
+
+ALTER TABLE items ALTER COLUMN item_id DROP IDENTITY;
+
+ALTER TABLE bookings ALTER COLUMN booking_id DROP IDENTITY;
+
+ALTER TABLE comments ALTER COLUMN comment_id DROP IDENTITY;
@@ -0,0 +1,24 @@
+-- Read model of last and next APPROVED booking per item, see ItemBookingSummary
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+  item_id BIGINT PRIMARY KEY REFERENCES items(item_id) ON DELETE CASCADE,
+  last_booking_id BIGINT,
+  last_booker_id BIGINT,
+  last_start_date_time TIMESTAMP,
+  last_end_date_time TIMESTAMP,
+  next_booking_id BIGINT,
+  next_booker_id BIGINT,
+  next_start_date_time TIMESTAMP,
+  next_end_date_time TIMESTAMP,
+  approved_count BIGINT NOT NULL,
+  valid_until TIMESTAMP
+);
+
+-- Summaries to roll forward: ItemBookingSummaryRepository.findAllItemIdByValidUntilBefore
+CREATE INDEX IF NOT EXISTS item_booking_summary_valid_until_idx ON item_booking_summary (valid_until);
+
+-- Items approved before the table existed start as stale and are computed by the first sweep
+INSERT INTO item_booking_summary (item_id, approved_count, valid_until)
+SELECT b.item_id, COUNT(*), TIMESTAMP '1970-01-01 00:00:00'
+FROM bookings AS b
+WHERE b.status = 'APPROVED'
+GROUP BY b.item_id;
@@ -0,0 +1,5 @@
+-- Latest comments of items and keyset pages of CommentRepository, ordered by created DESC, id DESC.
+-- Covers lookups by item_id alone, so the single column index is dropped
+CREATE INDEX IF NOT EXISTS comments_item_id_created_id_idx ON comments (item_id, created DESC, comment_id DESC);
+
+DROP INDEX IF EXISTS comments_item_id_idx;
@@ -0,0 +1,11 @@
+-- Messages of committed changes waiting to be sent, see OutboxPublisher
+CREATE SEQUENCE IF NOT EXISTS outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox (
+  outbox_id BIGINT PRIMARY KEY,
+  aggregate_type VARCHAR NOT NULL,
+  aggregate_id BIGINT NOT NULL,
+  event_type VARCHAR NOT NULL,
+  payload VARCHAR NOT NULL,
+  created TIMESTAMP NOT NULL
+);
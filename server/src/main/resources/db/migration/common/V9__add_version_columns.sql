@@ -0,0 +1,7 @@
+-- Change counters read by ETags of GET views, see ru.practicum.shareit.etag.ETags. User, Item and Booking map them
+-- read-only, so Hibernate never writes them back, and repository incrementVersion* updates bump them on every change
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Serve LOWER(name/description) LIKE %text% of ItemRepository.searchAvailableByNameOrDescription
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING GIN (LOWER(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING GIN (LOWER(description) gin_trgm_ops);
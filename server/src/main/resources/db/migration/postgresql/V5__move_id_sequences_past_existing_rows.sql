@@ -0,0 +1,10 @@
+-- Existing databases already have rows with ids from the dropped IDENTITY columns
+SELECT setval('users_seq', COALESCE(MAX(user_id), 0) + 1, false) FROM users;
+
+SELECT setval('item_requests_seq', COALESCE(MAX(item_request_id), 0) + 1, false) FROM item_requests;
+
+SELECT setval('items_seq', COALESCE(MAX(item_id), 0) + 1, false) FROM items;
+
+SELECT setval('bookings_seq', COALESCE(MAX(booking_id), 0) + 1, false) FROM bookings;
+
+SELECT setval('comments_seq', COALESCE(MAX(comment_id), 0) + 1, false) FROM comments;
@@ -10,13 +10,18 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.dto.BookingRequestingDto;
+import ru.practicum.shareit.booking.export.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.state.BookingState;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -28,6 +33,8 @@ import java.util.List;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -83,6 +90,28 @@ class BookingControllerTest {
                 .andExpect(status().is(400));
     }
 
+    @Test
+    void createAll_thenResultPerEntryReturned() throws Exception {
+        Mockito.when(bookingService.createAll(Mockito.eq(1L), Mockito.anyList()))
+                .thenReturn(List.of(BookingBatchResultDto.created(0, getBookingDto()),
+                        BookingBatchResultDto.rejected(1, new ValidateException("Item to be booked is not available"))));
+
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(getBookingReceiveDto(), getBookingReceiveDto())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index", is(0)))
+                .andExpect(jsonPath("$[0].booking.id", is(1L), Long.class))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].error", is("ValidateException")))
+                .andExpect(jsonPath("$[1].message", is("Item to be booked is not available")));
+        Mockito.verify(bookingService, Mockito.times(1))
+                .createAll(Mockito.eq(1L), Mockito.argThat(list -> list.size() == 2 && list.get(0).getBookerId() == 1L));
+    }
+
     @Test
     void respondToBooking() throws Exception {
         BookingInfoDto bookingReturned = getBookingDto();
@@ -123,6 +152,20 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status", notNullValue()/*is(BookingStatus.WAITING), BookingStatus.class*/));
     }
 
+    @Test
+    void findBookingById_whenTagMatches_thenNotModified() throws Exception {
+        Mockito.when(bookingService.getTagByBookingId(1L, 1L))
+                .thenReturn("W/\"booking-1-1-0-0\"");
+
+        mvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"booking-1-1-0-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"booking-1-1-0-0\""));
+        Mockito.verify(bookingService, Mockito.never())
+                .findBookingById(1L, 1L);
+    }
+
     @Test
     void findAllBookingByBookerIdAndState_whenUnknownState_thenException() throws Exception {
         mvc.perform(get("/bookings")
@@ -192,6 +235,87 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].status", notNullValue()/*is(BookingStatus.WAITING), BookingStatus.class*/));
     }
 
+    @Test
+    void findAllBookingByBookerIdAndState_whenFullCursorPage_thenNextCursorHeader() throws Exception {
+        BookingCursor cursor = new BookingCursor(START.plusDays(5), 7L);
+        Mockito.when(bookingService.findAllBookingByBookerIdAndState(1L, BookingState.ALL, cursor, 1))
+                .thenReturn(List.of(getBookingDto()));
+
+        mvc.perform(get("/bookings")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .param("cursor", cursor.encode())
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1L), Long.class))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, new BookingCursor(START, 1L).encode()));
+    }
+
+    @Test
+    void findAllBookingByOwnerIdAndState_whenEmptyCursorAndLastPage_thenNoNextCursorHeader() throws Exception {
+        Mockito.when(bookingService.findAllBookingByOwnerIdAndState(1L, BookingState.ALL, null, 2))
+                .thenReturn(List.of(getBookingDto()));
+
+        mvc.perform(get("/bookings/owner")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "2")
+                        .param("cursor", "")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void findAllBookingByOwnerIdAndState_whenInvalidCursor_thenBadRequest() throws Exception {
+        mvc.perform(get("/bookings/owner")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "not-a-cursor")
+                )
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void exportAllBookingByOwnerId_whenCsv_thenWrittenWithCsvHeaders() throws Exception {
+        Mockito.when(bookingService.exportAllBookingByOwnerId(1L, BookingExportFormat.CSV))
+                .thenReturn(outputStream -> outputStream.write("id\n1\n".getBytes(StandardCharsets.UTF_8)));
+
+        mvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("format", "csv")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, Matchers.startsWith("text/csv")))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\""))
+                .andExpect(content().string("id\n1\n"));
+    }
+
+    @Test
+    void exportAllBookingByBookerId_whenUserNotFound_thenNotFoundAsJson() throws Exception {
+        Mockito.when(bookingService.exportAllBookingByBookerId(1L, BookingExportFormat.NDJSON))
+                .thenThrow(new NotFoundException("Booking user not found by id: 1"));
+
+        mvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1L)
+                )
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", is("NotFoundException")));
+    }
+
+    @Test
+    void exportAllBookingByBookerId_whenUnknownFormat_thenBadRequest() throws Exception {
+        mvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("format", "xml")
+                )
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(bookingService);
+    }
+
     private BookingInfoDto getBookingDto() {
         return BookingInfoDto.builder()
                 .id(1L)
@@ -204,7 +328,12 @@ class BookingControllerTest {
     }
 
     private ItemInfoDto getItemSendDto() {
-        return new ItemInfoDto(1L, "name", "description", true, null, null, null, null);
+        return ItemInfoDto.builder()
+                .id(1L)
+                .name("name")
+                .description("description")
+                .available(true)
+                .build();
     }
 
     private UserDto getUserDto() {
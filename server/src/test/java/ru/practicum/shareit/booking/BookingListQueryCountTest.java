@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.state.BookingState;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+// Every booking list variant the service serves must cost one statement per page,
+// whatever the page size and however many distinct items, owners, requests and bookers are on it
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingListQueryCountTest {
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    private static final LocalDateTime CURRENT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private static final int ITEMS = 20;
+    private static final List<Integer> PAGE_SIZES = List.of(1, 5, 20);
+
+    private Statistics statistics;
+    private long ownerId;
+    private long bookerId;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = persistUser("owner");
+        User booker = persistUser("booker");
+        User requester = persistUser("requester");
+        for (int i = 0; i < ITEMS; i++) {
+            ItemRequest itemRequest = ItemRequest.builder()
+                    .requestingUser(requester)
+                    .description("request" + i)
+                    .created(CURRENT.minusDays(30))
+                    .build();
+            entityManager.persist(itemRequest);
+            Item item = Item.builder()
+                    .owner(owner)
+                    .name("item" + i)
+                    .description("description" + i)
+                    .isAvailable(true)
+                    .itemRequest(itemRequest)
+                    .build();
+            entityManager.persist(item);
+            // booker has one booking on every item, every item has one more booking by its own booker
+            persistBooking(item, booker, CURRENT.plusDays(i % 3 - 1), i);
+            persistBooking(item, persistUser("booker" + i), CURRENT.plusDays(i % 3 - 1), i + 1);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        ownerId = owner.getId();
+        bookerId = booker.getId();
+    }
+
+    @Test
+    void bookingLists_thenOneStatementPerPage() {
+        Map<String, IntFunction<List<BookingInfoDto>>> lists = new LinkedHashMap<>();
+        for (BookingState state : BookingState.values()) {
+            lists.put("findAllInfoByBookerIdAndStateAfter " + state, size ->
+                    bookingRepository.findAllInfoByBookerIdAndStateAfter(bookerId, state, null, size));
+            lists.put("findAllInfoByItemOwnerIdAndStateAfter " + state, size ->
+                    bookingRepository.findAllInfoByItemOwnerIdAndStateAfter(ownerId, state, null, size));
+        }
+
+        for (Map.Entry<String, IntFunction<List<BookingInfoDto>>> list : lists.entrySet()) {
+            for (int size : PAGE_SIZES) {
+                entityManager.clear();
+                statistics.clear();
+
+                List<BookingInfoDto> page = list.getValue().apply(size);
+
+                assertThat(list.getKey() + " page size " + size, page.size(), greaterThan(0));
+                assertThat(list.getKey() + " page size " + size, statistics.getPrepareStatementCount(), is(1L));
+            }
+        }
+    }
+
+    @Test
+    void findByIdAndItemOwnerId_whenMappedToInfoDto_thenOneStatement() {
+        long bookingId = bookingRepository.findAllInfoByItemOwnerIdAndStateAfter(ownerId, BookingState.ALL, null, 1)
+                .get(0).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        BookingInfoDto booking = BookingMapper.toInfoDto(
+                bookingRepository.findByIdAndItemOwnerId(bookingId, ownerId).orElseThrow());
+
+        assertThat(booking.getId(), is(bookingId));
+        assertThat(statistics.getPrepareStatementCount(), is(1L));
+    }
+
+    private User persistUser(String name) {
+        return entityManager.persist(User.builder()
+                .name(name)
+                .email(name + "@email.com")
+                .build());
+    }
+
+    private void persistBooking(Item item, User booker, LocalDateTime start, int index) {
+        BookingStatus[] statuses = BookingStatus.values();
+        entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(1).minusMinutes(index))
+                .status(statuses[index % statuses.length])
+                .build());
+    }
+}
@@ -8,16 +8,22 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.state.BookingState;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 @DataJpaTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
@@ -28,7 +34,7 @@ class BookingRepositoryTest {
     @Autowired
     BookingRepository bookingRepository;
 
-    public static final LocalDateTime CURRENT = LocalDateTime.now();
+    public static final LocalDateTime CURRENT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
 
     @BeforeEach
     public void beforeEach() {
@@ -134,157 +140,175 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllPastBookingByBookerId() {
-        /* это бы работало при native query + offset and limit а не offset/limit
-        // to insure offset is working, let's create another past booking for same item by same booker
-        User owner = User.builder()
-                .id(1L)
-                .email("owner@email.com")
-                .name("ownerName")
-                .build();
-        Item item = Item.builder()
-                .id(1L)
-                .owner(owner)
-                .name("itemName")
-                .description("itemDescription")
-                .isAvailable(true)
-                .itemRequest(null)
-                .build();
-        User booker = User.builder()
-                .id(2L)
-                .email("booker@email.com")
-                .name("bookerName")
-                .build();
-        Booking bookingPast = Booking.builder()
-                .id(null)
-                .item(item)
-                .booker(booker)
-                .start(CURRENT.minusDays(7))
-                .end(CURRENT.minusDays(6))
-                .status(BookingStatus.APPROVED)
-                .build();
-        entityManager.persist(bookingPast);
-        int offset = 1;
-        int limit = 2;*/
-        int offset = 0;
-        int limit = 2;
-        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.Direction.DESC, "start");
+    void findAllPastInfoByBookerId() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.Direction.DESC, "start");
 
-        List<Booking> bookingList = bookingRepository.findAllPastBookingByBookerId(2L, pageRequest);
-        Booking actualBooking = bookingList.get(0);
+        List<BookingInfoDto> bookingList = bookingRepository.findAllPastInfoByBookerId(2L, pageRequest);
 
-        assertThat(bookingList.size(), is(1));
-        assertThat(actualBooking.getId(), is(1L));
+        assertThat(getInfoIds(bookingList), is(List.of(1L)));
     }
 
     @Test
-    void findAllCurrentBookingByBookerId() {
-        int offset = 0;
-        int limit = 2;
-        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.Direction.DESC, "start");
+    void findAllCurrentInfoByBookerId() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.Direction.DESC, "start");
 
-        List<Booking> bookingList = bookingRepository.findAllCurrentBookingByBookerId(2L, pageRequest);
-        Booking actualBooking = bookingList.get(0);
+        List<BookingInfoDto> bookingList = bookingRepository.findAllCurrentInfoByBookerId(2L, pageRequest);
 
-        assertThat(bookingList.size(), is(1));
-        assertThat(actualBooking.getId(), is(2L));
+        assertThat(getInfoIds(bookingList), is(List.of(2L)));
     }
 
     @Test
-    void findAllFutureBookingByBookerId() {
-        int offset = 0;
-        int limit = 2;
-        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.Direction.DESC, "start");
+    void findAllFutureInfoByBookerId() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.Direction.DESC, "start");
 
-        List<Booking> bookingList = bookingRepository.findAllFutureBookingByBookerId(2L, pageRequest);
-        Booking actualBooking = bookingList.get(0);
+        List<BookingInfoDto> bookingList = bookingRepository.findAllFutureInfoByBookerId(2L, pageRequest);
 
-        assertThat(bookingList.size(), is(1));
-        assertThat(actualBooking.getId(), is(3L));
+        assertThat(getInfoIds(bookingList), is(List.of(3L)));
     }
 
     @Test
-    void findAllPastBookingByItemOwnerId() {
-        int offset = 0;
-        int limit = 4;
-        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.Direction.DESC, "start");
+    void findAllPastInfoByItemOwnerId() {
+        PageRequest pageRequest = PageRequest.of(0, 4, Sort.Direction.DESC, "start");
 
-        List<Booking> bookingList = bookingRepository.findAllPastBookingByItemOwnerId(1L, pageRequest);
-        Booking actualBooking1 = bookingList.get(0);
-        Booking actualBooking2 = bookingList.get(1);
+        List<BookingInfoDto> bookingList = bookingRepository.findAllPastInfoByItemOwnerId(1L, pageRequest);
 
-        assertThat(bookingList.size(), is(2));
-        assertThat(actualBooking1.getId(), is(1L));
-        assertThat(actualBooking2.getId(), is(4L));
+        assertThat(getInfoIds(bookingList), is(List.of(1L, 4L)));
     }
 
     @Test
-    void findAllCurrentBookingByItemOwnerId() {
-        int offset = 0;
-        int limit = 4;
-        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.Direction.DESC, "start");
+    void findAllCurrentInfoByItemOwnerId() {
+        PageRequest pageRequest = PageRequest.of(0, 4, Sort.Direction.DESC, "start");
 
-        List<Booking> bookingList = bookingRepository.findAllCurrentBookingByItemOwnerId(1L, pageRequest);
-        Booking actualBooking1 = bookingList.get(0);
+        List<BookingInfoDto> bookingList = bookingRepository.findAllCurrentInfoByItemOwnerId(1L, pageRequest);
 
-        assertThat(bookingList.size(), is(1));
-        assertThat(actualBooking1.getId(), is(2L));
+        assertThat(getInfoIds(bookingList), is(List.of(2L)));
     }
 
     @Test
-    void findAllFutureBookingByItemOwnerId() {
-        int offset = 0;
-        int limit = 4;
-        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.Direction.DESC, "start");
+    void findAllApprovedByItemIdInBetween() {
+        // 1st booking ends inside the range and 2nd is current, the range ends right when the 3rd one starts
+        List<BookingShortView> bookingList = bookingRepository.findAllApprovedByItemIdInBetween(List.of(1L, 2L),
+                CURRENT.minusDays(2).minusHours(1), CURRENT.plusDays(2));
+
+        List<Long> bookingIdList = bookingList.stream()
+                .map(BookingShortView::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        assertThat(bookingIdList, is(List.of(1L, 2L)));
+        assertThat(bookingList.get(0).getItemId(), is(1L));
+    }
+
+    @Test
+    void findLastCurrentAndNextForDateTime() {
+        // 1st booking is last finished, 2nd is current and 3rd is next
+        List<BookingShortView> bookingList = bookingRepository.findLastCurrentAndNextForDateTime(List.of(1L, 2L),
+                CURRENT);
+        BookingShortView lastBooking = bookingList.stream()
+                .filter(booking -> booking.getEnd().isBefore(CURRENT))
+                .findFirst()
+                .get();
+        BookingShortView currentBooking = bookingList.stream()
+                .filter(booking -> booking.getStart().isBefore(CURRENT) && booking.getEnd().isAfter(CURRENT))
+                .findFirst()
+                .get();
+        BookingShortView nextBooking = bookingList.stream()
+                .filter(booking -> booking.getStart().isAfter(CURRENT))
+                .findFirst()
+                .get();
+
+        assertThat(bookingList.size(), is(3));
+        assertThat(lastBooking.getId(), is(1L));
+        assertThat(lastBooking.getItemId(), is(1L));
+        assertThat(lastBooking.getBookerId(), is(2L));
+        assertThat(lastBooking.getEnd().isBefore(CURRENT.minusDays(1)), is(true));
+        assertThat(lastBooking.getStatus(), is(BookingStatus.APPROVED));
+        assertThat(currentBooking.getId(), is(2L));
+        assertThat(nextBooking.getId(), is(3L));
+    }
 
-        List<Booking> bookingList = bookingRepository.findAllFutureBookingByItemOwnerId(1L, pageRequest);
-        Booking actualBooking1 = bookingList.get(0);
-        Booking actualBooking2 = bookingList.get(1);
+    @Test
+    void findAllInfoByItemOwnerIdAndStateAfter_whenPagedByCursor_thenAllBookingsInStartDescOrder() {
+        List<BookingInfoDto> firstPage = bookingRepository.findAllInfoByItemOwnerIdAndStateAfter(1L,
+                BookingState.ALL, null, 2);
+        List<BookingInfoDto> secondPage = bookingRepository.findAllInfoByItemOwnerIdAndStateAfter(1L,
+                BookingState.ALL, BookingCursor.of(firstPage.get(1)), 2);
+        List<BookingInfoDto> thirdPage = bookingRepository.findAllInfoByItemOwnerIdAndStateAfter(1L,
+                BookingState.ALL, BookingCursor.of(secondPage.get(1)), 2);
+
+        assertThat(getInfoIds(firstPage), is(List.of(5L, 3L)));
+        assertThat(getInfoIds(secondPage), is(List.of(2L, 1L)));
+        assertThat(getInfoIds(thirdPage), is(List.of(4L)));
+    }
 
-        assertThat(bookingList.size(), is(2));
-        assertThat(actualBooking1.getId(), is(5L));
-        assertThat(actualBooking2.getId(), is(3L));
+    @Test
+    void findAllInfoByBookerIdAndStateAfter_whenEqualStart_thenTiesOrderedByIdDesc() {
+        Booking future = bookingRepository.findById(3L).get();
+        Booking sameStart = Booking.builder()
+                .item(future.getItem())
+                .booker(future.getBooker())
+                .start(future.getStart())
+                .end(future.getEnd())
+                .status(BookingStatus.WAITING)
+                .build();
+        entityManager.persist(sameStart);
+
+        List<BookingInfoDto> firstPage = bookingRepository.findAllInfoByBookerIdAndStateAfter(2L,
+                BookingState.FUTURE, null, 1);
+        List<BookingInfoDto> secondPage = bookingRepository.findAllInfoByBookerIdAndStateAfter(2L,
+                BookingState.FUTURE, BookingCursor.of(firstPage.get(0)), 1);
+        List<BookingInfoDto> waiting = bookingRepository.findAllInfoByBookerIdAndStateAfter(2L,
+                BookingState.WAITING, null, 10);
+
+        assertThat(getInfoIds(firstPage), is(List.of(6L)));
+        assertThat(getInfoIds(secondPage), is(List.of(3L)));
+        assertThat(getInfoIds(waiting), is(List.of(6L)));
     }
 
     @Test
-    void findLastForDateTime() {
-        // 5th booking is last for this LDT
-        LocalDateTime ldt = CURRENT.plusDays(5);
+    void findAllFutureInfoByItemOwnerId_thenNestedItemAndBookerFromRow() {
+        int offset = 0;
+        int limit = 4;
+        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.Direction.DESC, "start");
 
-        Booking booking = bookingRepository.findLastForDateTime(1L, ldt).get();
+        List<BookingInfoDto> bookingList = bookingRepository.findAllFutureInfoByItemOwnerId(1L, pageRequest);
+        BookingInfoDto actualBooking = bookingList.get(1);
 
-        assertThat(booking.getId(), is(5L));
+        assertThat(bookingList.size(), is(2));
+        assertThat(bookingList.get(0).getId(), is(5L));
+        assertThat(actualBooking.getId(), is(3L));
+        assertThat(actualBooking.getStart(), is(CURRENT.plusDays(2)));
+        assertThat(actualBooking.getEnd(), is(CURRENT.plusDays(3)));
+        assertThat(actualBooking.getStatus(), is(BookingStatus.APPROVED));
+        assertThat(actualBooking.getItem().getId(), is(1L));
+        assertThat(actualBooking.getItem().getName(), is("itemName"));
+        assertThat(actualBooking.getItem().getDescription(), is("itemDescription"));
+        assertThat(actualBooking.getItem().getAvailable(), is(true));
+        assertThat(actualBooking.getItem().getRequestId(), is(nullValue()));
+        assertThat(actualBooking.getBooker().getId(), is(2L));
+        assertThat(actualBooking.getBooker().getEmail(), is("booker@email.com"));
+        assertThat(actualBooking.getBooker().getName(), is("bookerName"));
     }
 
     @Test
-    void findNextForDateTime() {
-        // 2nd booking is next for this LDT
-        LocalDateTime ldt = CURRENT.minusDays(2);
+    void findAllInfoByBookerIdAndStatus() {
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.Direction.DESC, "start");
 
-        Booking booking = bookingRepository.findNextForDateTime(1L, ldt).get();
+        List<BookingInfoDto> approved = bookingRepository.findAllInfoByBookerIdAndStatus(2L,
+                BookingStatus.APPROVED, pageRequest);
+        List<BookingInfoDto> waiting = bookingRepository.findAllInfoByBookerIdAndStatus(2L,
+                BookingStatus.WAITING, pageRequest);
 
-        assertThat(booking.getId(), is(2L));
+        assertThat(getInfoIds(approved), is(List.of(3L, 2L, 1L)));
+        assertThat(waiting.isEmpty(), is(true));
     }
 
     @Test
-    void findAllLastForDateTime() {
-        Collection<Long> itemIdList = List.of(1L);
-
-        List<Booking> bookingList = bookingRepository.findAllByItemIdInAndStatus(itemIdList,
-                BookingStatus.APPROVED,
-                Sort.by(Sort.Direction.ASC, "start"));
-        Booking actualBooking1 = bookingList.get(0);
-        Booking actualBooking2 = bookingList.get(1);
-        Booking actualBooking3 = bookingList.get(2);
-        Booking actualBooking4 = bookingList.get(3);
-        Booking actualBooking5 = bookingList.get(4);
-
-        assertThat(bookingList.size(), is(5));
-        assertThat(actualBooking1.getId(), is(4L));
-        assertThat(actualBooking2.getId(), is(1L));
-        assertThat(actualBooking3.getId(), is(2L));
-        assertThat(actualBooking4.getId(), is(3L));
-        assertThat(actualBooking5.getId(), is(5L));
+    void findAllInfoByBookerIdAndStateAfter_whenPast_thenNestedBookerFromRow() {
+        List<BookingInfoDto> past = bookingRepository.findAllInfoByBookerIdAndStateAfter(2L,
+                BookingState.PAST, null, 10);
+
+        assertThat(getInfoIds(past), is(List.of(1L)));
+        assertThat(past.get(0).getBooker().getName(), is("bookerName"));
     }
 
     @Test
@@ -305,4 +329,10 @@ class BookingRepositoryTest {
 
         assertThat(bookedQuantity, is(1L));
     }
-}
\ No newline at end of file
+
+    private List<Long> getInfoIds(List<BookingInfoDto> bookings) {
+        return bookings.stream()
+                .map(BookingInfoDto::getId)
+                .collect(Collectors.toList());
+    }
+}
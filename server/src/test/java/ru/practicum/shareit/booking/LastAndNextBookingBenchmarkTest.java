@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+// Run with: mvn test -pl server -Dtest=LastAndNextBookingBenchmarkTest -Dshareit.benchmark=true
+// Compares rows and latency of loading last/next bookings for one page of an owner's items.
+// Not transactional, so every query hydrates its result in a new persistence context as in ItemService
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@Slf4j
+class LastAndNextBookingBenchmarkTest {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    private static final int ITEMS = Integer.getInteger("shareit.benchmark.items", 10);
+    private static final int BOOKINGS_PER_ITEM = Integer.getInteger("shareit.benchmark.bookings-per-item", 10_000);
+    private static final int ITERATIONS = Integer.getInteger("shareit.benchmark.iterations", 20);
+    private static final LocalDateTime CURRENT = LocalDateTime.now();
+
+    private List<Long> itemIdList;
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.update("INSERT INTO users (user_id, email, name) VALUES (1, 'owner@email.com', 'owner')");
+        jdbcTemplate.update("INSERT INTO users (user_id, email, name) VALUES (2, 'booker@email.com', 'booker')");
+        itemIdList = LongStream.rangeClosed(1, ITEMS).boxed().collect(Collectors.toList());
+        for (long itemId : itemIdList) {
+            jdbcTemplate.update("INSERT INTO items (item_id, name, description, owner_id, is_available) " +
+                    "VALUES (?, 'name', 'description', 1, true)", itemId);
+            List<Object[]> bookings = new ArrayList<>();
+            // Half of bookings finished, half in future, one hour each and none running now
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                long bookingId = (itemId - 1) * BOOKINGS_PER_ITEM + i + 1;
+                LocalDateTime start = CURRENT.plusHours(2L * (i - BOOKINGS_PER_ITEM / 2)).plusMinutes(30);
+                bookings.add(new Object[]{bookingId, itemId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO bookings " +
+                    "(booking_id, item_id, booker_id, start_date_time, end_date_time, status) " +
+                    "VALUES (?, ?, 2, ?, ?, 'APPROVED')", bookings);
+        }
+    }
+
+    @Test
+    void findLastCurrentAndNextForDateTime_comparedWithLoadingAllApprovedBookings() {
+        List<BookingShortView> allBookings = measure("findAllApprovedByItemIdInBetween", () ->
+                bookingRepository.findAllApprovedByItemIdInBetween(itemIdList, CURRENT.minusYears(10),
+                        CURRENT.plusYears(10)));
+        List<BookingShortView> lastAndNextBookings = measure("findLastCurrentAndNextForDateTime", () ->
+                bookingRepository.findLastCurrentAndNextForDateTime(itemIdList, CURRENT));
+
+        assertThat(allBookings.size(), is(ITEMS * BOOKINGS_PER_ITEM));
+        assertThat(lastAndNextBookings.size(), is(2 * ITEMS));
+    }
+
+    private <T> List<T> measure(String name, Supplier<List<T>> query) {
+        List<T> result = query.get();
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            result = query.get();
+        }
+        double averageMillis = (System.nanoTime() - started) / 1_000_000.0 / ITERATIONS;
+        log.info("{}: items={}, bookings per item={}, rows={}, average latency={} ms",
+                name, ITEMS, BOOKINGS_PER_ITEM, result.size(), String.format("%.2f", averageMillis));
+        return result;
+    }
+}
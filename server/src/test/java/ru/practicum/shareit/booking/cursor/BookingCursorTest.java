@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.cursor;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidateException;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingCursorTest {
+    @Test
+    void decode_whenEncoded_thenSameCursor() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2023, 3, 1, 12, 30, 15, 123_456_000), 42L);
+
+        BookingCursor decoded = BookingCursor.decode(cursor.encode());
+
+        assertThat(decoded, is(cursor));
+    }
+
+    @Test
+    void decode_whenNotCursor_thenThrowsValidateException() {
+        ValidateException exception = assertThrows(ValidateException.class,
+                () -> BookingCursor.decode("bm90LWEtY3Vyc29y"));
+        assertThat(exception.getMessage(), is("Invalid booking cursor: bm90LWEtY3Vyc29y"));
+        assertThrows(ValidateException.class, () -> BookingCursor.decode("%%%"));
+    }
+}
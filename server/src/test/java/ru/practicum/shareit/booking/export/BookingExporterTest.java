@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+@Import(BookingExporter.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BookingExporterTest {
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    BookingExporter bookingExporter;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private static final LocalDateTime CURRENT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private long ownerId;
+    private long bookerId;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = persistUser("owner");
+        User booker = persistUser("booker, \"the\" second");
+        Item item = entityManager.persist(Item.builder()
+                .owner(owner)
+                .name("drill")
+                .description("description")
+                .isAvailable(true)
+                .build());
+        persistBooking(item, booker, CURRENT.minusDays(2), BookingStatus.APPROVED);
+        persistBooking(item, booker, CURRENT.plusDays(2), BookingStatus.WAITING);
+        entityManager.flush();
+        entityManager.clear();
+        ownerId = owner.getId();
+        bookerId = booker.getId();
+    }
+
+    @Test
+    void writeAllByItemOwnerId_whenCsv_thenHeaderAndRowsInStartDescOrder() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookingExporter.writeAllByItemOwnerId(ownerId, BookingExportFormat.CSV, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length, is(3));
+        assertThat(lines[0], is("id,status,start,end,itemId,itemName,bookerId,bookerName,bookerEmail"));
+        assertThat(lines[1].startsWith("2,WAITING," + CURRENT.plusDays(2)), is(true));
+        assertThat(lines[1].endsWith(",drill," + bookerId + ",\"booker, \"\"the\"\" second\","
+                + "\"booker, \"\"the\"\" second@email.com\""), is(true));
+        assertThat(lines[2].startsWith("1,APPROVED,"), is(true));
+    }
+
+    @Test
+    void writeAllByBookerId_whenNdjson_thenOneBookingInfoDtoPerLine() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookingExporter.writeAllByBookerId(bookerId, BookingExportFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(lines.length, is(2));
+        assertThat(first.get("id").asLong(), is(2L));
+        assertThat(first.get("status").asText(), is("WAITING"));
+        assertThat(first.get("item").get("name").asText(), is("drill"));
+        assertThat(first.get("booker").get("id").asLong(), is(bookerId));
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong(), is(1L));
+    }
+
+    @Test
+    void writeAllByBookerId_whenNoBookings_thenOnlyCsvHeader() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookingExporter.writeAllByBookerId(ownerId, BookingExportFormat.CSV, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8),
+                is("id,status,start,end,itemId,itemName,bookerId,bookerName,bookerEmail\n"));
+    }
+
+    private User persistUser(String name) {
+        return entityManager.persist(User.builder()
+                .name(name)
+                .email(name + "@email.com")
+                .build());
+    }
+
+    private void persistBooking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.dto.ItemRequestingDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Not @Transactional: index is updated only after commit. Test profile runs the index in verify mode,
+// so every check below is also cross-checked against BookingRepository.countIntersectionInTime
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingIntervalIndexIntegrationalTest {
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    BookingIntervalIndex bookingIntervalIndex;
+
+    private static final LocalDateTime START = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+    private static final LocalDateTime END = START.plusDays(1);
+
+    @Test
+    void respondToBooking_whenApproved_thenIndexRejectsIntersectionsConsistentlyWithDatabase() {
+        UserDto owner = userService.create(UserDto.builder().name("owner").email("indexOwner@email.com").build());
+        UserDto booker1 = userService.create(UserDto.builder().name("booker1").email("indexBooker1@email.com").build());
+        UserDto booker2 = userService.create(UserDto.builder().name("booker2").email("indexBooker2@email.com").build());
+        ItemInfoDto item = itemService.create(ItemRequestingDto.builder()
+                .name("itemName")
+                .description("itemDescription")
+                .available(true)
+                .build(), owner.getId());
+        BookingInfoDto first = bookingService.create(getBookingCreateDto(item.getId(), booker1.getId()));
+        BookingInfoDto second = bookingService.create(getBookingCreateDto(item.getId(), booker2.getId()));
+
+        BookingInfoDto approved = bookingService.respondToBooking(owner.getId(), first.getId(), true);
+
+        assertThat(approved.getStatus(), is(BookingStatus.APPROVED));
+        assertThat(bookingIntervalIndex.hasIntersection(item.getId(), START.plusHours(1), END.plusHours(1)), is(true));
+        assertThat(bookingIntervalIndex.hasIntersection(item.getId(), END, END.plusDays(1)), is(false));
+        assertThrows(ValidateException.class,
+                () -> bookingService.respondToBooking(owner.getId(), second.getId(), true));
+        assertThrows(ValidateException.class,
+                () -> bookingService.create(getBookingCreateDto(item.getId(), booker2.getId())));
+    }
+
+    private BookingCreateDto getBookingCreateDto(long itemId, long bookerId) {
+        return BookingCreateDto.builder()
+                .itemId(itemId)
+                .bookerId(bookerId)
+                .start(START)
+                .end(END)
+                .build();
+    }
+}
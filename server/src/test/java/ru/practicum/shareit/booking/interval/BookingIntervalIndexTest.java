@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    @Mock
+    BookingRepository bookingRepository;
+
+    private static final LocalDateTime CURRENT = LocalDateTime.now();
+    private static final long ITEM_ID = 1L;
+
+    @Test
+    void hasIntersection_whenIntervalsLoaded_thenMatchesDatabaseCondition() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, true, false, 100);
+        Mockito.when(bookingRepository.findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED))
+                .thenReturn(List.of(
+                        new BookingInterval(CURRENT.plusDays(5), CURRENT.plusDays(6)),
+                        new BookingInterval(CURRENT.plusDays(1), CURRENT.plusDays(2))));
+
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT, CURRENT.plusDays(1)), is(false));
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT, CURRENT.plusDays(1).plusHours(1)), is(true));
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(2), CURRENT.plusDays(5)), is(false));
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(3), CURRENT.plusDays(4)), is(false));
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(5).plusHours(1), CURRENT.plusDays(5).plusHours(2)), is(true));
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT, CURRENT.plusDays(10)), is(true));
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(6), CURRENT.plusDays(7)), is(false));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED);
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void hasIntersection_whenStoredIntervalsOverlap_thenLongIntervalIsNotHiddenByLaterStart() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, true, false, 100);
+        Mockito.when(bookingRepository.findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED))
+                .thenReturn(List.of(
+                        new BookingInterval(CURRENT.plusDays(1), CURRENT.plusDays(10)),
+                        new BookingInterval(CURRENT.plusDays(2), CURRENT.plusDays(3))));
+
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(5), CURRENT.plusDays(6)), is(true));
+    }
+
+    @Test
+    void onStatusChanged_whenApprovedOutsideTransaction_thenIntervalAddedWithoutReload() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, true, false, 100);
+        Mockito.when(bookingRepository.findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingInterval(CURRENT.plusDays(1), CURRENT.plusDays(2))));
+        index.hasIntersection(ITEM_ID, CURRENT, CURRENT.plusHours(1));
+
+        index.onStatusChanged(ITEM_ID, CURRENT.plusDays(3), CURRENT.plusDays(4),
+                BookingStatus.WAITING, BookingStatus.APPROVED);
+        index.onStatusChanged(ITEM_ID, CURRENT.plusDays(5), CURRENT.plusDays(6),
+                BookingStatus.WAITING, BookingStatus.REJECTED);
+
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(3), CURRENT.plusDays(3).plusHours(1)), is(true));
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(5), CURRENT.plusDays(6)), is(false));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void onStatusChanged_whenApprovedBookingChanged_thenItemReloaded() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, true, false, 100);
+        Mockito.when(bookingRepository.findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED))
+                .thenReturn(List.of(new BookingInterval(CURRENT.plusDays(1), CURRENT.plusDays(2))))
+                .thenReturn(List.of());
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(1), CURRENT.plusDays(2)), is(true));
+
+        index.onStatusChanged(ITEM_ID, CURRENT.plusDays(1), CURRENT.plusDays(2),
+                BookingStatus.APPROVED, BookingStatus.CANCELLED);
+
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT.plusDays(1), CURRENT.plusDays(2)), is(false));
+        Mockito.verify(bookingRepository, Mockito.times(2))
+                .findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void hasIntersection_whenMaxItemsReached_thenIndexCleared() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, true, false, 2);
+        Mockito.when(bookingRepository.findAllIntervalsByItemIdAndStatus(Mockito.anyLong(), Mockito.eq(BookingStatus.APPROVED)))
+                .thenReturn(List.of());
+
+        index.hasIntersection(1L, CURRENT, CURRENT.plusDays(1));
+        index.hasIntersection(2L, CURRENT, CURRENT.plusDays(1));
+        index.hasIntersection(3L, CURRENT, CURRENT.plusDays(1));
+
+        assertThat(index.size(), is(1));
+    }
+
+    @Test
+    void hasIntersection_whenDisabled_thenDatabaseQueried() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, false, false, 100);
+        Mockito.when(bookingRepository.countIntersectionInTime(CURRENT, CURRENT.plusDays(1), ITEM_ID))
+                .thenReturn(1);
+
+        assertThat(index.hasIntersection(ITEM_ID, CURRENT, CURRENT.plusDays(1)), is(true));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .countIntersectionInTime(CURRENT, CURRENT.plusDays(1), ITEM_ID);
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void hasIntersection_whenVerifyAndIndexDiffersFromDatabase_thenThrowsIllegalStateException() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, true, true, 100);
+        Mockito.when(bookingRepository.findAllIntervalsByItemIdAndStatus(ITEM_ID, BookingStatus.APPROVED))
+                .thenReturn(List.of());
+        Mockito.when(bookingRepository.countIntersectionInTime(CURRENT, CURRENT.plusDays(1), ITEM_ID))
+                .thenReturn(1);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> index.hasIntersection(ITEM_ID, CURRENT, CURRENT.plusDays(1)));
+        assertThat(exception.getMessage(), is("Booking interval index for item with id 1 is inconsistent with " +
+                "database: index=false, database=true for dates between " + CURRENT + " and " + CURRENT.plusDays(1)));
+    }
+}
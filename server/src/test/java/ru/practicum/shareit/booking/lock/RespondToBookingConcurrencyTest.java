@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.ItemRequestingDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+// Not @Transactional: every respondToBooking has to commit in its own thread
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class RespondToBookingConcurrencyTest {
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    private static final int ITEMS = 4;
+    private static final int BOOKINGS_PER_ITEM = 12;
+    private static final int THREADS = 16;
+    private static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+
+    @Test
+    void respondToBooking_whenConcurrentApprovalsOfOverlappingBookings_thenNoApprovedBookingsOverlap() throws Exception {
+        UserDto owner = userService.create(UserDto.builder().name("owner").email("stressOwner@email.com").build());
+        List<Long> itemIds = new ArrayList<>();
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            long itemId = itemService.create(ItemRequestingDto.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .build(), owner.getId()).getId();
+            itemIds.add(itemId);
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                UserDto booker = userService.create(UserDto.builder()
+                        .name("booker")
+                        .email("stressBooker" + i + "_" + j + "@email.com")
+                        .build());
+                // every booking overlaps with 3 neighbours on each side
+                LocalDateTime start = BASE.plusHours(6L * j);
+                bookingIds.add(bookingService.create(BookingCreateDto.builder()
+                        .itemId(itemId)
+                        .bookerId(booker.getId())
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .build()).getId());
+            }
+        }
+        Collections.shuffle(bookingIds, new Random(42));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejectedAsIntersecting = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (long bookingId : bookingIds) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.respondToBooking(owner.getId(), bookingId, true);
+                    approved.incrementAndGet();
+                } catch (ValidateException e) {
+                    rejectedAsIntersecting.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int approvedInDatabase = 0;
+        for (long itemId : itemIds) {
+            List<BookingInterval> intervals = bookingRepository.findAllIntervalsByItemIdAndStatus(itemId, BookingStatus.APPROVED);
+            assertThat(intervals.size(), greaterThan(0));
+            for (int i = 0; i < intervals.size(); i++) {
+                for (int j = i + 1; j < intervals.size(); j++) {
+                    BookingInterval first = intervals.get(i);
+                    BookingInterval second = intervals.get(j);
+                    boolean overlap = first.getStart().isBefore(second.getEnd()) && second.getStart().isBefore(first.getEnd());
+                    assertThat("Approved bookings overlap for item " + itemId, overlap, is(false));
+                }
+            }
+            approvedInDatabase += intervals.size();
+        }
+        assertThat(approvedInDatabase, is(approved.get()));
+        assertThat(approved.get() + rejectedAsIntersecting.get(), is(ITEMS * BOOKINGS_PER_ITEM));
+    }
+}
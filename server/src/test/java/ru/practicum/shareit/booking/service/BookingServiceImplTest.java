@@ -7,25 +7,41 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.cursor.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingShortView;
+import ru.practicum.shareit.booking.dto.BookingStatusMessage;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lock.ItemLockStripes;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.state.BookingState;
+import ru.practicum.shareit.event.BookingApprovedEvent;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryUpdater;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.directory.UserDirectory;
+import ru.practicum.shareit.user.directory.UserSummary;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -37,7 +53,19 @@ class BookingServiceImplTest {
     @Mock
     UserRepository userRepository;
     @Mock
+    UserDirectory userDirectory;
+    @Mock
     ItemRepository itemRepository;
+    @Mock
+    BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    ItemLockStripes itemLockStripes;
+    @Mock
+    ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    Outbox outbox;
     @InjectMocks
     BookingServiceImpl bookingService;
 
@@ -58,7 +86,7 @@ class BookingServiceImplTest {
         assertThat(exception.getMessage(), Matchers.is("Booking user not found by id: 1"));
         Mockito.verify(userRepository, Mockito.times(1))
                 .findById(BOOKER_ID);
-        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
+        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex);
     }
 
     @Test
@@ -76,7 +104,7 @@ class BookingServiceImplTest {
                 .findById(BOOKER_ID);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findById(ITEM_ID);
-        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
+        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex);
     }
 
     @Test
@@ -96,7 +124,7 @@ class BookingServiceImplTest {
                 .findById(BOOKER_ID);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findById(ITEM_ID);
-        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
+        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex);
     }
 
     @Test
@@ -107,8 +135,8 @@ class BookingServiceImplTest {
                 .thenReturn(Optional.of(booker));
         Mockito.when(itemRepository.findById(ITEM_ID))
                 .thenReturn(Optional.of(item));
-        Mockito.when(bookingRepository.countIntersectionInTime(START, END, ITEM_ID))
-                .thenReturn(1);
+        Mockito.when(bookingIntervalIndex.hasIntersection(ITEM_ID, START, END))
+                .thenReturn(true);
 
         ValidateException exception = assertThrows(ValidateException.class,
                 () -> bookingService.create(getBookingCreateDto()));
@@ -117,9 +145,9 @@ class BookingServiceImplTest {
                 .findById(BOOKER_ID);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findById(ITEM_ID);
-        Mockito.verify(bookingRepository, Mockito.times(1))
-                .countIntersectionInTime(START, END, ITEM_ID);
-        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
+        Mockito.verify(bookingIntervalIndex, Mockito.times(1))
+                .hasIntersection(ITEM_ID, START, END);
+        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex);
     }
 
     @Test
@@ -132,8 +160,8 @@ class BookingServiceImplTest {
                 .thenReturn(Optional.of(bookerOwner));
         Mockito.when(itemRepository.findById(ITEM_ID))
                 .thenReturn(Optional.of(item));
-        Mockito.when(bookingRepository.countIntersectionInTime(START, END, ITEM_ID))
-                .thenReturn(0);
+        Mockito.when(bookingIntervalIndex.hasIntersection(ITEM_ID, START, END))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookingService.create(bookingCreateDto));
@@ -142,9 +170,9 @@ class BookingServiceImplTest {
                 .findById(OWNER_ID);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findById(ITEM_ID);
-        Mockito.verify(bookingRepository, Mockito.times(1))
-                .countIntersectionInTime(START, END, ITEM_ID);
-        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
+        Mockito.verify(bookingIntervalIndex, Mockito.times(1))
+                .hasIntersection(ITEM_ID, START, END);
+        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex);
     }
 
     @Test
@@ -155,8 +183,8 @@ class BookingServiceImplTest {
         Item item = getItem(getOwner(), null);
         Mockito.when(itemRepository.findById(ITEM_ID))
                 .thenReturn(Optional.of(item));
-        Mockito.when(bookingRepository.countIntersectionInTime(START, END, ITEM_ID))
-                .thenReturn(0);
+        Mockito.when(bookingIntervalIndex.hasIntersection(ITEM_ID, START, END))
+                .thenReturn(false);
         //  Booking bookingToSave = getBookingIdNull(item, booker, BookingStatus.WAITING);
         Booking bookingSaved = getBooking(item, booker, BookingStatus.WAITING);
         Mockito.when(bookingRepository.save(Mockito.any(Booking.class)))
@@ -174,11 +202,108 @@ class BookingServiceImplTest {
                 .findById(BOOKER_ID);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findById(ITEM_ID);
+        Mockito.verify(bookingIntervalIndex, Mockito.times(1))
+                .hasIntersection(ITEM_ID, START, END);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .countIntersectionInTime(START, END, ITEM_ID);
+                .save(Mockito.any(Booking.class));
+        verifyStatusMessageAdded(BookingStatus.WAITING, 1L);
+        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex,
+                outbox);
+    }
+
+    @Test
+    void createAll_whenMoreEntriesThanMaxSize_thenThrowsValidateException() {
+        ReflectionTestUtils.setField(bookingService, "batchMaxSize", 1);
+
+        ValidateException exception = assertThrows(ValidateException.class,
+                () -> bookingService.createAll(BOOKER_ID, List.of(getBookingCreateDto(), getBookingCreateDto())));
+        assertThat(exception.getMessage(), Matchers.is("At most 1 bookings can be created in one batch"));
+        Mockito.verifyNoInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex);
+    }
+
+    @Test
+    void createAll_whenOneEntryInvalid_thenOtherEntriesSavedInOneCall() {
+        ReflectionTestUtils.setField(bookingService, "batchMaxSize", 100);
+        User booker = getBooker();
+        Item item = getItem(getOwner(), null);
+        BookingCreateDto missingItemDto = getBookingCreateDto();
+        missingItemDto.setItemId(99L);
+        Mockito.when(userRepository.findById(BOOKER_ID))
+                .thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findAllById(Set.of(ITEM_ID, 99L)))
+                .thenReturn(List.of(item));
+        Mockito.when(bookingRepository.findAllApprovedByItemIdInBetween(Set.of(ITEM_ID), START, END))
+                .thenReturn(List.of());
+        Mockito.when(bookingRepository.saveAll(Mockito.anyList()))
+                .thenReturn(List.of(getBooking(item, booker, BookingStatus.WAITING)));
+
+        List<BookingBatchResultDto> results = bookingService.createAll(BOOKER_ID,
+                List.of(missingItemDto, getBookingCreateDto()));
+
+        assertThat(results.size(), Matchers.is(2));
+        assertThat(results.get(0).getIndex(), Matchers.is(0));
+        assertThat(results.get(0).getBooking(), Matchers.nullValue());
+        assertThat(results.get(0).getError(), Matchers.is("NotFoundException"));
+        assertThat(results.get(0).getMessage(), Matchers.is("Item to be booked not found by id: 99"));
+        assertThat(results.get(1).getIndex(), Matchers.is(1));
+        assertThat(results.get(1).getError(), Matchers.nullValue());
+        assertThat(results.get(1).getBooking().getId(), Matchers.is(1L));
+        assertThat(results.get(1).getBooking().getStatus(), Matchers.is(BookingStatus.WAITING));
         Mockito.verify(bookingRepository, Mockito.times(1))
+                .saveAll(Mockito.<List<Booking>>argThat(bookings -> bookings.size() == 1));
+        Mockito.verify(bookingRepository, Mockito.never())
                 .save(Mockito.any(Booking.class));
-        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
+        verifyStatusMessageAdded(BookingStatus.WAITING, 1L);
+        Mockito.verifyNoMoreInteractions(outbox);
+    }
+
+    @Test
+    void createAll_whenNoItemsFound_thenAllEntriesRejectedWithoutIntersectionQuery() {
+        ReflectionTestUtils.setField(bookingService, "batchMaxSize", 100);
+        BookingCreateDto firstDto = getBookingCreateDto();
+        firstDto.setItemId(98L);
+        BookingCreateDto secondDto = getBookingCreateDto();
+        secondDto.setItemId(99L);
+        Mockito.when(userRepository.findById(BOOKER_ID))
+                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(itemRepository.findAllById(Set.of(98L, 99L)))
+                .thenReturn(List.of());
+
+        List<BookingBatchResultDto> results = bookingService.createAll(BOOKER_ID, List.of(firstDto, secondDto));
+
+        assertThat(results.size(), Matchers.is(2));
+        assertThat(results.get(0).getError(), Matchers.is("NotFoundException"));
+        assertThat(results.get(0).getMessage(), Matchers.is("Item to be booked not found by id: 98"));
+        assertThat(results.get(1).getError(), Matchers.is("NotFoundException"));
+        assertThat(results.get(1).getMessage(), Matchers.is("Item to be booked not found by id: 99"));
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findAllApprovedByItemIdInBetween(Mockito.anyCollection(), Mockito.any(), Mockito.any());
+        Mockito.verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void createAll_whenApprovedBookingIntersects_thenEntryRejected() {
+        ReflectionTestUtils.setField(bookingService, "batchMaxSize", 100);
+        Item item = getItem(getOwner(), null);
+        BookingShortView approved = Mockito.mock(BookingShortView.class);
+        Mockito.when(approved.getItemId()).thenReturn(ITEM_ID);
+        Mockito.when(approved.getStart()).thenReturn(START.minusHours(1));
+        Mockito.when(approved.getEnd()).thenReturn(START.plusHours(1));
+        Mockito.when(userRepository.findById(BOOKER_ID))
+                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(itemRepository.findAllById(Set.of(ITEM_ID)))
+                .thenReturn(List.of(item));
+        Mockito.when(bookingRepository.findAllApprovedByItemIdInBetween(Set.of(ITEM_ID), START, END))
+                .thenReturn(List.of(approved));
+        Mockito.when(bookingRepository.saveAll(List.of()))
+                .thenReturn(List.of());
+
+        List<BookingBatchResultDto> results = bookingService.createAll(BOOKER_ID, List.of(getBookingCreateDto()));
+
+        assertThat(results.size(), Matchers.is(1));
+        assertThat(results.get(0).getError(), Matchers.is("ValidateException"));
+        assertThat(results.get(0).getMessage(),
+                Matchers.is("Item to be booked is already booked in between date " + START + " and " + END));
     }
 
     @Test
@@ -190,8 +315,10 @@ class BookingServiceImplTest {
 
         Mockito.when(bookingRepository.findByIdAndItemOwnerId(1L, OWNER_ID))
                 .thenReturn(Optional.of(booking));
-        Mockito.when(bookingRepository.countIntersectionInTime(START, END, item.getId()))
-                .thenReturn(0);
+        Mockito.when(bookingRepository.findStatusById(1L))
+                .thenReturn(Optional.of(BookingStatus.WAITING));
+        Mockito.when(bookingIntervalIndex.hasIntersection(item.getId(), START, END))
+                .thenReturn(false);
         Booking bookingToSave = getBooking(item, owner, BookingStatus.APPROVED);
         Mockito.when(bookingRepository.save(Mockito.any(Booking.class)))
                 .thenReturn(bookingToSave);
@@ -206,11 +333,72 @@ class BookingServiceImplTest {
         assertThat(actualBookingInfoDto.getStatus(), Matchers.is(BookingStatus.APPROVED));
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findByIdAndItemOwnerId(bookingId, OWNER_ID);
+        Mockito.verify(itemLockStripes, Mockito.times(1))
+                .lockUntilTransactionEnds(ITEM_ID);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .lockById(ITEM_ID);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findStatusById(bookingId);
+        Mockito.verify(bookingIntervalIndex, Mockito.times(1))
+                .hasIntersection(ITEM_ID, START, END);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .countIntersectionInTime(START, END, bookingId);
+                .save(Mockito.any(Booking.class));
         Mockito.verify(bookingRepository, Mockito.times(1))
+                .incrementVersionById(bookingId);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .incrementVersionById(ITEM_ID);
+        Mockito.verify(bookingIntervalIndex, Mockito.times(1))
+                .onStatusChanged(ITEM_ID, START, END, BookingStatus.WAITING, BookingStatus.APPROVED);
+        Mockito.verify(itemBookingSummaryUpdater, Mockito.times(1))
+                .refresh(Mockito.eq(ITEM_ID), Mockito.any(LocalDateTime.class));
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new BookingApprovedEvent(bookingId, ITEM_ID));
+        verifyStatusMessageAdded(BookingStatus.APPROVED, 2L);
+        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository, bookingIntervalIndex,
+                itemLockStripes, itemBookingSummaryUpdater, eventPublisher, outbox);
+    }
+
+    @Test
+    void respondToBooking_whenStatusChangedWhileWaitingForLock_thenThrowsValidateException() {
+        User owner = getOwner();
+        Item item = getItem(owner, null);
+        Booking booking = getBooking(item, getBooker(), BookingStatus.WAITING);
+        Mockito.when(bookingRepository.findByIdAndItemOwnerId(1L, OWNER_ID))
+                .thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.findStatusById(1L))
+                .thenReturn(Optional.of(BookingStatus.APPROVED));
+
+        ValidateException exception = assertThrows(ValidateException.class,
+                () -> bookingService.respondToBooking(OWNER_ID, 1L, true));
+        assertThat(exception.getMessage(), Matchers.is("Status can't be changed. Status locked as \"APPROVED\""));
+        Mockito.verify(itemLockStripes, Mockito.times(1))
+                .lockUntilTransactionEnds(ITEM_ID);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .lockById(ITEM_ID);
+        Mockito.verify(bookingRepository, Mockito.never())
+                .save(Mockito.any(Booking.class));
+        Mockito.verifyNoInteractions(bookingIntervalIndex);
+    }
+
+    @Test
+    void respondToBooking_whenIndexHasIntersection_thenThrowsValidateExceptionWithoutQuery() {
+        User owner = getOwner();
+        Item item = getItem(owner, null);
+        Booking booking = getBooking(item, getBooker(), BookingStatus.WAITING);
+        Mockito.when(bookingRepository.findByIdAndItemOwnerId(1L, OWNER_ID))
+                .thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.findStatusById(1L))
+                .thenReturn(Optional.of(BookingStatus.WAITING));
+        Mockito.when(bookingIntervalIndex.hasIntersection(ITEM_ID, START, END))
+                .thenReturn(true);
+
+        ValidateException exception = assertThrows(ValidateException.class,
+                () -> bookingService.respondToBooking(OWNER_ID, 1L, true));
+        assertThat(exception.getMessage(), Matchers.is("Item to be booked is already booked in between date " + START + " and " + END));
+        Mockito.verify(bookingRepository, Mockito.never())
+                .countIntersectionInTime(START, END, ITEM_ID);
+        Mockito.verify(bookingRepository, Mockito.never())
                 .save(Mockito.any(Booking.class));
-        Mockito.verifyNoMoreInteractions(userRepository, itemRepository, bookingRepository);
     }
 
     @Test
@@ -223,6 +411,32 @@ class BookingServiceImplTest {
         assertThat(exception.getMessage(), Matchers.is("Booking with id 1 not found for user with id: 2"));
     }
 
+    @Test
+    void getTagByBookingId_thenTagOfBookingItemAndBookerVersions() {
+        BookingVersionView bookingVersion = Mockito.mock(BookingVersionView.class);
+        Mockito.when(bookingVersion.getBookingVersion()).thenReturn(3L);
+        Mockito.when(bookingVersion.getItemVersion()).thenReturn(2L);
+        Mockito.when(bookingVersion.getBookerVersion()).thenReturn(0L);
+        Mockito.when(bookingRepository.findVersionByIdAndOwnerIdOrBookerId(1L, 2L))
+                .thenReturn(Optional.of(bookingVersion));
+
+        String tag = bookingService.getTagByBookingId(2L, 1L);
+
+        assertThat(tag, Matchers.is("W/\"booking-1-3-2-0\""));
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findByIdAndOwnerIdOrBookerId(Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    void getTagByBookingId_whenBookingNotFound_thenThrowsNotFoundException() {
+        Mockito.when(bookingRepository.findVersionByIdAndOwnerIdOrBookerId(1L, 2L))
+                .thenReturn(Optional.empty());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> bookingService.getTagByBookingId(2L, 1L));
+        assertThat(exception.getMessage(), Matchers.is("Booking with id 1 not found for user with id: 2"));
+    }
+
     @Test
     void findBookingById() {
         User booker = getBooker();
@@ -248,7 +462,7 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(1L))
+        Mockito.when(userDirectory.find(1L))
                 .thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -262,13 +476,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getBooker())));
 
         bookingService.findAllBookingByBookerIdAndState(1L, BookingState.ALL, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllByBookerId(1L, pageable); // due to the only happening next is DTO mapping
+                .findAllInfoByBookerId(1L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -278,14 +492,14 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getBooker())));
 
 
         bookingService.findAllBookingByBookerIdAndState(1L, BookingState.PAST, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllPastBookingByBookerId(1L, pageable); // due to the only happening next is DTO mapping
+                .findAllPastInfoByBookerId(1L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -295,13 +509,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getBooker())));
 
         bookingService.findAllBookingByBookerIdAndState(1L, BookingState.CURRENT, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllCurrentBookingByBookerId(1L, pageable); // due to the only happening next is DTO mapping
+                .findAllCurrentInfoByBookerId(1L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -311,13 +525,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getBooker())));
 
         bookingService.findAllBookingByBookerIdAndState(1L, BookingState.FUTURE, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllFutureBookingByBookerId(1L, pageable); // due to the only happening next is DTO mapping
+                .findAllFutureInfoByBookerId(1L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -327,13 +541,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getBooker())));
 
         bookingService.findAllBookingByBookerIdAndState(1L, BookingState.WAITING, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllByBookerIdAndStatus(1L, BookingStatus.WAITING, pageable); // due to the only happening next is DTO mapping
+                .findAllInfoByBookerIdAndStatus(1L, BookingStatus.WAITING, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -343,13 +557,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(getBooker()));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getBooker())));
 
         bookingService.findAllBookingByBookerIdAndState(1L, BookingState.REJECTED, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllByBookerIdAndStatus(1L, BookingStatus.REJECTED, pageable); // due to the only happening next is DTO mapping
+                .findAllInfoByBookerIdAndStatus(1L, BookingStatus.REJECTED, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -359,7 +573,7 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(2L))
+        Mockito.when(userDirectory.find(2L))
                 .thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -373,13 +587,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(2L))
-                .thenReturn(Optional.of(getOwner()));
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.of(getUserSummary(getOwner())));
 
         bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.ALL, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
+                .findAllInfoByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -389,13 +603,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(2L))
-                .thenReturn(Optional.of(getOwner()));
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.of(getUserSummary(getOwner())));
 
         bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.PAST, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllPastBookingByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
+                .findAllPastInfoByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -405,13 +619,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(2L))
-                .thenReturn(Optional.of(getOwner()));
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.of(getUserSummary(getOwner())));
 
         bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.CURRENT, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllCurrentBookingByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
+                .findAllCurrentInfoByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -421,13 +635,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(2L))
-                .thenReturn(Optional.of(getOwner()));
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.of(getUserSummary(getOwner())));
 
         bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.FUTURE, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllFutureBookingByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
+                .findAllFutureInfoByItemOwnerId(2L, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -437,13 +651,13 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(2L))
-                .thenReturn(Optional.of(getOwner()));
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.of(getUserSummary(getOwner())));
 
         bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.WAITING, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllByItemOwnerIdAndStatus(2L, BookingStatus.WAITING, pageable); // due to the only happening next is DTO mapping
+                .findAllInfoByItemOwnerIdAndStatus(2L, BookingStatus.WAITING, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
@@ -453,16 +667,63 @@ class BookingServiceImplTest {
         int offset = 0;
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
-        Mockito.when(userRepository.findById(2L))
-                .thenReturn(Optional.of(getOwner()));
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.of(getUserSummary(getOwner())));
 
         bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.REJECTED, pageable);
 
         Mockito.verify(bookingRepository, Mockito.times(1))  // testing only repository method invocation
-                .findAllByItemOwnerIdAndStatus(2L, BookingStatus.REJECTED, pageable); // due to the only happening next is DTO mapping
+                .findAllInfoByItemOwnerIdAndStatus(2L, BookingStatus.REJECTED, pageable); // due to the only happening next is DTO mapping
         Mockito.verifyNoMoreInteractions(bookingRepository); // (which can be tested separately)
     }
 
+    @Test
+    void findAllBookingByBookerIdAndState_whenCursor_thenKeysetQueryInvocated() {
+        BookingCursor cursor = new BookingCursor(START, 5L);
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getBooker())));
+
+        bookingService.findAllBookingByBookerIdAndState(1L, BookingState.PAST, cursor, 10);
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllInfoByBookerIdAndStateAfter(1L, BookingState.PAST, cursor, 10);
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void findAllBookingByOwnerIdAndState_whenFirstCursorPage_thenKeysetQueryInvocated() {
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.of(getUserSummary(getOwner())));
+
+        bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.ALL, null, 10);
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllInfoByItemOwnerIdAndStateAfter(2L, BookingState.ALL, null, 10);
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void findAllBookingByOwnerIdAndState_whenCursorAndOwnerNotFound_thenThrowsNotFoundException() {
+        Mockito.when(userDirectory.find(2L))
+                .thenReturn(Optional.empty());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> bookingService.findAllBookingByOwnerIdAndState(2L, BookingState.ALL, null, 10));
+        assertThat(exception.getMessage(), Matchers.is("Owner user not found by id: 2"));
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    private void verifyStatusMessageAdded(BookingStatus status, long bookerId) {
+        Mockito.verify(outbox, Mockito.times(1))
+                .add(Mockito.eq(BookingStatusMessage.AGGREGATE_TYPE), Mockito.eq(1L),
+                        Mockito.eq(BookingStatusMessage.EVENT_TYPE),
+                        Mockito.<BookingStatusMessage>argThat(message -> message.getBookingId() == 1L
+                                && message.getItemId() == ITEM_ID
+                                && message.getOwnerId() == OWNER_ID
+                                && message.getBookerId() == bookerId
+                                && message.getStatus() == status));
+    }
+
     private Booking getBookingIdNull(Item item, User booker, BookingStatus status) {
         return Booking.builder()
                 .id(null)
@@ -502,6 +763,10 @@ class BookingServiceImplTest {
                 .build();
     }
 
+    private UserSummary getUserSummary(User user) {
+        return new UserSummary(user.getId(), user.getName(), user.getEmail());
+    }
+
     private User getOwner() {
         return User.builder()
                 .id(OWNER_ID)
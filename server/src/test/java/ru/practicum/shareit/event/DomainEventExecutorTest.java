@@ -0,0 +1,78 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+class DomainEventExecutorTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void execute_thenListenerRunsOnEventThread() throws InterruptedException {
+        DomainEventExecutor domainEventExecutor = new DomainEventExecutor(meterRegistry, 1, 10);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        domainEventExecutor.execute("listener", () -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(threadName.get(), startsWith("domain-event-"));
+        domainEventExecutor.shutdown();
+    }
+
+    @Test
+    void execute_whenListenerFails_thenNextListenersRun() throws InterruptedException {
+        DomainEventExecutor domainEventExecutor = new DomainEventExecutor(meterRegistry, 1, 10);
+        CountDownLatch done = new CountDownLatch(1);
+
+        domainEventExecutor.execute("failing", () -> {
+            throw new IllegalStateException("failed");
+        });
+        domainEventExecutor.execute("listener", done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        domainEventExecutor.shutdown();
+    }
+
+    @Test
+    void execute_whenQueueFull_thenListenerRunsOnPublishingThread() throws InterruptedException {
+        DomainEventExecutor domainEventExecutor = new DomainEventExecutor(meterRegistry, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        domainEventExecutor.execute("blocking", () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        domainEventExecutor.execute("queued", () -> {
+        });
+
+        domainEventExecutor.execute("listener", () -> threadName.set(Thread.currentThread().getName()));
+
+        assertThat(threadName.get(), is(Thread.currentThread().getName()));
+        assertThat(meterRegistry.get("shareit.event.executor.caller-runs").counter().count(), is(1.0));
+        assertThat(meterRegistry.get("shareit.event.executor.queued").gauge().value(), is(1.0));
+        release.countDown();
+        domainEventExecutor.shutdown();
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
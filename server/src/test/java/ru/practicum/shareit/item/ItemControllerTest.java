@@ -9,8 +9,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.item.cursor.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentRequestingDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
@@ -26,7 +29,9 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -116,7 +121,9 @@ class ItemControllerTest {
     @Test
     void getByItemId() throws Exception {
         ItemInfoDto itemInfoDto = getItemSendDto();
-        Mockito.when(itemService.getByItemId(1L, 1L))
+        Mockito.when(itemService.getTagByItemId(1L, 1L))
+                .thenReturn("W/\"item-1-3\"");
+        Mockito.when(itemService.getByItemId(1L, 1L, "W/\"item-1-3\""))
                 .thenReturn(itemInfoDto);
 
         mvc.perform(get("/items/1")
@@ -133,6 +140,49 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.comments", nullValue()));
     }
 
+    @Test
+    void getByItemId_whenTagMatches_thenNotModified() throws Exception {
+        Mockito.when(itemService.getTagByItemId(1L, 1L))
+                .thenReturn("W/\"item-1-3\"");
+
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"item-1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"item-1-3\""));
+        Mockito.verify(itemService, Mockito.never())
+                .getByItemId(anyLong(), anyLong(), anyString());
+    }
+
+    @Test
+    void getByItemId_whenTagChanged_thenViewWithNewTag() throws Exception {
+        Mockito.when(itemService.getTagByItemId(1L, 1L))
+                .thenReturn("W/\"item-1-4\"");
+        Mockito.when(itemService.getByItemId(1L, 1L, "W/\"item-1-4\""))
+                .thenReturn(getItemSendDto());
+
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"item-1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"item-1-4\""))
+                .andExpect(jsonPath("$.id", is(1L), Long.class));
+    }
+
+    @Test
+    void getByOwnerId_whenTagMatches_thenNotModified() throws Exception {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+        Mockito.when(itemService.getTagByOwnerId(1L, pageable))
+                .thenReturn("W/\"items-1\"");
+
+        mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"items-1\""))
+                .andExpect(status().isNotModified());
+        Mockito.verify(itemService, Mockito.never())
+                .getByOwnerId(1L, pageable);
+    }
+
     @Test
     void search() throws Exception {
         int limit = 1;
@@ -185,6 +235,48 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.created", notNullValue()));
     }
 
+    @Test
+    void getComments_whenFullPage_thenNextCursorHeader() throws Exception {
+        CommentCursor cursor = new CommentCursor(CREATED.plusDays(1), 7L);
+        Mockito.when(itemService.getComments(1L, cursor, 1))
+                .thenReturn(List.of(getCommentDto()));
+
+        mvc.perform(get("/items/1/comments")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1L), Long.class))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER,
+                        new CommentCursor(CREATED, 1L).encode()));
+    }
+
+    @Test
+    void getComments_whenEmptyCursorAndLastPage_thenNoNextCursorHeader() throws Exception {
+        Mockito.when(itemService.getComments(1L, null, 2))
+                .thenReturn(List.of(getCommentDto()));
+
+        mvc.perform(get("/items/1/comments")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "2")
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getComments_whenInvalidCursor_thenBadRequest() throws Exception {
+        mvc.perform(get("/items/1/comments")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(itemService);
+    }
+
     private CommentRequestingDto getCommentDtoNullId() {
         return CommentRequestingDto.builder()
                 .id(null)
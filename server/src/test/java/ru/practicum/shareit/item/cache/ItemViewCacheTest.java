@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.event.ItemUpdatedEvent;
+import ru.practicum.shareit.event.UserDeletedEvent;
+import ru.practicum.shareit.event.UserUpdatedEvent;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class ItemViewCacheTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final long OWNER_ID = 1L;
+    private static final long USER_ID = 2L;
+    private static final String TAG = "W/\"item-1-3\"";
+
+    @Test
+    void find_whenPublicViewCached_thenReturnedToOtherUsersOnly() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 60000, 1_000_000);
+        ItemInfoDto view = getView(1L, "name");
+
+        itemViewCache.put(1L, OWNER_ID, view, false, TAG, itemViewCache.stamp());
+
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), sameInstance(view));
+        assertThat(itemViewCache.find(1L, OWNER_ID, TAG), nullValue());
+        assertThat(getRequests("hit"), is(1.0));
+        assertThat(getRequests("miss"), is(1.0));
+    }
+
+    @Test
+    void find_whenOwnerViewCached_thenReturnedToOwnerOnly() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 60000, 1_000_000);
+        ItemInfoDto ownerView = getView(1L, "name");
+
+        itemViewCache.put(1L, OWNER_ID, ownerView, true, TAG, itemViewCache.stamp());
+
+        assertThat(itemViewCache.find(1L, OWNER_ID, TAG), sameInstance(ownerView));
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), nullValue());
+    }
+
+    @Test
+    void find_whenTagChanged_thenViewNotReturned() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 60000, 1_000_000);
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), false, TAG, itemViewCache.stamp());
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), true, TAG, itemViewCache.stamp());
+
+        assertThat(itemViewCache.find(1L, USER_ID, "W/\"item-1-4\""), nullValue());
+        assertThat(itemViewCache.find(1L, OWNER_ID, "W/\"item-1-3-5:6\""), nullValue());
+    }
+
+    @Test
+    void find_whenOwnerTtlExpired_thenOwnerViewDroppedAndPublicViewKept() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 0, 1_000_000);
+        ItemInfoDto view = getView(1L, "name");
+        itemViewCache.put(1L, OWNER_ID, view, false, TAG, itemViewCache.stamp());
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), true, TAG, itemViewCache.stamp());
+
+        assertThat(itemViewCache.find(1L, OWNER_ID, TAG), nullValue());
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), sameInstance(view));
+    }
+
+    @Test
+    void onItemEvent_thenViewsOfItemEvicted() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 60000, 1_000_000);
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), false, TAG, itemViewCache.stamp());
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), true, TAG, itemViewCache.stamp());
+
+        itemViewCache.onItemEvent(new ItemUpdatedEvent(1L));
+
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), nullValue());
+        assertThat(itemViewCache.find(1L, OWNER_ID, TAG), nullValue());
+        assertThat(itemViewCache.bytes(), is(0L));
+    }
+
+    @Test
+    void onUserDeleted_thenAllViewsEvicted() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 60000, 1_000_000);
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), false, TAG, itemViewCache.stamp());
+        itemViewCache.put(2L, 3L, getView(2L, "name"), false, TAG, itemViewCache.stamp());
+
+        itemViewCache.onUserDeleted(new UserDeletedEvent(USER_ID));
+
+        assertThat(itemViewCache.find(2L, USER_ID, TAG), nullValue());
+        assertThat(itemViewCache.bytes(), is(0L));
+    }
+
+    @Test
+    void onUserUpdated_thenAllViewsEvicted() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 60000, 1_000_000);
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), false, TAG, itemViewCache.stamp());
+        itemViewCache.put(2L, 3L, getView(2L, "name"), true, TAG, itemViewCache.stamp());
+        long stamp = itemViewCache.stamp();
+
+        itemViewCache.onUserUpdated(new UserUpdatedEvent(USER_ID));
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), false, TAG, stamp);
+
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), nullValue());
+        assertThat(itemViewCache.find(2L, 3L, TAG), nullValue());
+        assertThat(itemViewCache.bytes(), is(0L));
+    }
+
+    @Test
+    void put_whenItemChangedWhileLoading_thenViewNotCached() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1_000_000, 60000, 1_000_000);
+        long stamp = itemViewCache.stamp();
+
+        itemViewCache.onItemEvent(new ItemUpdatedEvent(1L));
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), false, TAG, stamp);
+
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), nullValue());
+    }
+
+    @Test
+    void put_whenMaxBytesExceeded_thenLeastRecentlyUsedViewEvicted() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1000, 60000, 1000);
+        ItemInfoDto view1 = getView(1L, "a".repeat(100));
+        ItemInfoDto view2 = getView(2L, "b".repeat(100));
+        itemViewCache.put(1L, OWNER_ID, view1, false, TAG, itemViewCache.stamp());
+        itemViewCache.put(2L, OWNER_ID, view2, false, TAG, itemViewCache.stamp());
+        itemViewCache.find(1L, USER_ID, TAG);
+
+        itemViewCache.put(3L, OWNER_ID, getView(3L, "c".repeat(100)), false, TAG, itemViewCache.stamp());
+
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), sameInstance(view1));
+        assertThat(itemViewCache.find(2L, USER_ID, TAG), nullValue());
+        assertThat(meterRegistry.get("shareit.item.view-cache.bytes").tag("view", "public").gauge().value(),
+                is((double) itemViewCache.bytes()));
+    }
+
+    @Test
+    void put_whenViewLargerThanMaxBytes_thenNotCached() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, true, 60000, 1000, 60000, 1000);
+
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "a".repeat(1000)), false, TAG, itemViewCache.stamp());
+
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), nullValue());
+        assertThat(itemViewCache.bytes(), is(0L));
+    }
+
+    @Test
+    void find_whenDisabled_thenNothingCached() {
+        ItemViewCache itemViewCache = new ItemViewCache(meterRegistry, false, 60000, 1_000_000, 60000, 1_000_000);
+
+        itemViewCache.put(1L, OWNER_ID, getView(1L, "name"), false, TAG, itemViewCache.stamp());
+
+        assertThat(itemViewCache.find(1L, USER_ID, TAG), nullValue());
+    }
+
+    private double getRequests(String result) {
+        return meterRegistry.get("shareit.item.view-cache.requests").tag("result", result).counter().count();
+    }
+
+    private ItemInfoDto getView(long itemId, String description) {
+        return ItemInfoDto.builder()
+                .id(itemId)
+                .name("name")
+                .description(description)
+                .available(true)
+                .build();
+    }
+}
@@ -5,13 +5,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.CommentCountView;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -19,14 +23,14 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
 @DataJpaTest
-@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 class CommentRepositoryTest {
     @Autowired
     TestEntityManager entityManager;
     @Autowired
     CommentRepository commentRepository;
 
-    private static final Timestamp CREATED = Timestamp.from(Instant.now());
+    private static final Timestamp CREATED = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.SECONDS));
 
     @BeforeEach
     public void beforeEach() {
@@ -100,6 +104,66 @@ class CommentRepositoryTest {
         assertThat(comment.getAuthor().getId(), is(2L));
     }
 
+    @Test
+    void findAllLatestByItemIdIn_thenAtMostLimitLatestPerItem() {
+        Item item1 = entityManager.find(Item.class, 1L);
+        Item item2 = entityManager.find(Item.class, 2L);
+        User author = entityManager.find(User.class, 2L);
+        entityManager.persist(getComment("2text", Timestamp.from(CREATED.toInstant().minusSeconds(60)), item1, author));
+        entityManager.persist(getComment("3text", Timestamp.from(CREATED.toInstant().plusSeconds(60)), item1, author));
+        entityManager.persist(getComment("4text", CREATED, item2, author));
+
+        List<CommentView> commentList = commentRepository.findAllLatestByItemIdIn(List.of(1L, 2L), 2);
+
+        assertThat(commentList.size(), is(3));
+        assertThat(commentList.get(0).getText(), is("3text"));
+        assertThat(commentList.get(0).getItemId(), is(1L));
+        assertThat(commentList.get(0).getAuthorName(), is("author"));
+        assertThat(commentList.get(1).getText(), is("1text"));
+        assertThat(commentList.get(1).getCreated(), is(CREATED.toLocalDateTime()));
+        assertThat(commentList.get(2).getText(), is("4text"));
+        assertThat(commentList.get(2).getItemId(), is(2L));
+    }
+
+    @Test
+    void countAllByItemIdIn_thenCountPerItemWithComments() {
+        Item item1 = entityManager.find(Item.class, 1L);
+        User author = entityManager.find(User.class, 2L);
+        entityManager.persist(getComment("2text", CREATED, item1, author));
+
+        List<CommentCountView> countList = commentRepository.countAllByItemIdIn(List.of(1L, 2L));
+
+        assertThat(countList.size(), is(1));
+        assertThat(countList.get(0).getItemId(), is(1L));
+        assertThat(countList.get(0).getCommentCount(), is(2L));
+    }
+
+    @Test
+    void findAllByItemIdAfter_thenOlderCommentsAndSameCreatedWithLowerId() {
+        Item item1 = entityManager.find(Item.class, 1L);
+        User author = entityManager.find(User.class, 2L);
+        Comment sameCreated = getComment("2text", CREATED, item1, author);
+        entityManager.persist(sameCreated);
+        entityManager.persist(getComment("3text", Timestamp.from(CREATED.toInstant().minusSeconds(60)), item1, author));
+
+        List<Comment> commentList = commentRepository.findAllByItemIdAfter(1L, CREATED, sameCreated.getId(),
+                PageRequest.of(0, 10));
+
+        assertThat(commentList.size(), is(2));
+        assertThat(commentList.get(0).getText(), is("1text"));
+        assertThat(commentList.get(1).getText(), is("3text"));
+    }
+
+    private Comment getComment(String text, Timestamp created, Item item, User author) {
+        return Comment.builder()
+                .id(null)
+                .text(text)
+                .creationDate(created)
+                .item(item)
+                .author(author)
+                .build();
+    }
+
     private User getOwner() {
         return User.builder()
                 .id(null)
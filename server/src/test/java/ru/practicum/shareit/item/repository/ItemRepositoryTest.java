@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -43,9 +44,9 @@ class ItemRepositoryTest {
         int offset = 0;
         int limit = 1;
         PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.by(Sort.Direction.ASC, "id"));
-        Item item1 = new Item(null, owner, "1name", "1description", true, null);
+        Item item1 = new Item(null, owner, "1name", "1description", true, null, 0);
         entityManager.persist(item1);
-        Item item2 = new Item(null, owner, "other", "other", true, null);
+        Item item2 = new Item(null, owner, "other", "other", true, null, 0);
         entityManager.persist(item2);
 
         List<Item> foundItems = itemRepository.searchAvailableByNameOrDescription("descript", pageRequest);
@@ -58,4 +59,24 @@ class ItemRepositoryTest {
         assertThat(itemFound.getIsAvailable(), is(true));
         assertThat(itemFound.getItemRequest(), nullValue());
     }
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    @Test
+    void incrementVersionById_thenVersionOfItemIncremented() {
+        User owner = User.builder()
+                .email("owner@email.com")
+                .name("ownerName")
+                .build();
+        entityManager.persist(owner);
+        Item item = new Item(null, owner, "name", "description", true, null, 0);
+        entityManager.persist(item);
+        entityManager.flush();
+
+        ItemVersionView versionBefore = itemRepository.findVersionById(item.getId()).orElseThrow();
+        itemRepository.incrementVersionById(item.getId());
+        ItemVersionView versionAfter = itemRepository.findVersionById(item.getId()).orElseThrow();
+
+        assertThat(versionBefore.getVersion(), is(0L));
+        assertThat(versionAfter.getVersion(), is(1L));
+        assertThat(versionAfter.getOwnerId(), is(owner.getId()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+    @Mock
+    ItemRepository itemRepository;
+
+    private static final Pageable FIRST_TEN = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+
+    @Test
+    void load_whenSeveralBatches_thenAllAvailableItemsIndexed() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository, 2);
+        Mockito.when(itemRepository.findAllAvailableSearchDocumentsAfterId(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new ItemSearchDocument(1L, "Drill", "Cordless"),
+                        new ItemSearchDocument(2L, "Saw", "Hand saw")))
+                .thenReturn(List.of(new ItemSearchDocument(5L, "Ladder", "Folding")));
+
+        engine.load();
+
+        assertThat(engine.size(), is(3));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAllAvailableSearchDocumentsAfterId(0L, PageRequest.of(0, 2));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAllAvailableSearchDocumentsAfterId(2L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void search_whenTextInNameOrDescription_thenReturnsMatchesOrderedById() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository, 10);
+        Item drill = getItem(3L, "Дрель", "Аккумуляторная дрель", true);
+        Item screwdriver = getItem(1L, "Screwdriver", "Works as a DRILL too", true);
+        engine.index(drill);
+        engine.index(screwdriver);
+        engine.index(getItem(2L, "Saw", "Hand saw", true));
+        engine.index(getItem(4L, "Old drill", "Broken", false));
+        Mockito.when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(screwdriver));
+        Mockito.when(itemRepository.findAllById(List.of(3L)))
+                .thenReturn(List.of(drill));
+
+        assertThat(getIds(engine.search("drill", FIRST_TEN)), is(List.of(1L)));
+        assertThat(getIds(engine.search("дрель", FIRST_TEN)), is(List.of(3L)));
+        assertThat(engine.search("drilling", FIRST_TEN).isEmpty(), is(true));
+        assertThat(engine.size(), is(3));
+    }
+
+    @Test
+    void search_whenPaged_thenKeepsOffsetAndSizeOfDatabaseQuery() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository, 10);
+        for (long id = 1; id <= 5; id++) {
+            engine.index(getItem(id, "item" + id, "description", true));
+        }
+        Item item3 = getItem(3L, "item3", "description", true);
+        Item item4 = getItem(4L, "item4", "description", true);
+        Mockito.when(itemRepository.findAllById(List.of(3L, 4L)))
+                .thenReturn(List.of(item4, item3));
+
+        List<Item> page = engine.search("it", PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "id")));
+
+        assertThat(getIds(page), is(List.of(3L, 4L)));
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTextNotFoundAndUnavailableItemRemoved() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository, 10);
+        engine.index(getItem(1L, "Drill", "Cordless", true));
+        engine.index(getItem(2L, "Saw", "Hand saw", true));
+
+        engine.index(getItem(1L, "Hammer", "Cordless", true));
+        engine.index(getItem(2L, "Saw", "Hand saw", false));
+
+        assertThat(engine.search("drill", FIRST_TEN).isEmpty(), is(true));
+        assertThat(engine.search("saw", FIRST_TEN).isEmpty(), is(true));
+        assertThat(engine.size(), is(1));
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void search_whenItemDeletedInDatabase_thenDroppedFromIndexAndPageRetried() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository, 10);
+        Item item2 = getItem(2L, "Drill 2", "description", true);
+        engine.index(getItem(1L, "Drill 1", "description", true));
+        engine.index(item2);
+        Mockito.when(itemRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of());
+        Mockito.when(itemRepository.findAllById(List.of(2L)))
+                .thenReturn(List.of(item2));
+
+        List<Item> found = engine.search("drill", PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id")));
+
+        assertThat(getIds(found), is(List.of(2L)));
+        assertThat(engine.size(), is(1));
+    }
+
+    @Test
+    void remove() {
+        InMemoryItemSearchEngine engine = new InMemoryItemSearchEngine(itemRepository, 10);
+        engine.index(getItem(1L, "Drill", "Cordless", true));
+
+        engine.remove(1L);
+
+        assertThat(engine.search("drill", FIRST_TEN).isEmpty(), is(true));
+        assertThat(engine.size(), is(0));
+    }
+
+    private List<Long> getIds(List<Item> items) {
+        return items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+    private Item getItem(long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .isAvailable(available)
+                .build();
+    }
+}
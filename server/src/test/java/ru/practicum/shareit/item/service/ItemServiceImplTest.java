@@ -1,30 +1,49 @@
 package ru.practicum.shareit.item.service;
 
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingShortView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.event.CommentAddedEvent;
+import ru.practicum.shareit.event.ItemDeletedEvent;
+import ru.practicum.shareit.event.ItemUpdatedEvent;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.cursor.CommentCursor;
+import ru.practicum.shareit.item.dto.CommentCountView;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentRequestingDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.dto.ItemRequestingDto;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.summary.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.directory.UserDirectory;
+import ru.practicum.shareit.user.directory.UserSummary;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -37,6 +56,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(MockitoExtension.class)
 class ItemServiceImplTest {
@@ -45,20 +65,39 @@ class ItemServiceImplTest {
     @Mock
     UserRepository userRepository;
     @Mock
+    UserDirectory userDirectory;
+    @Mock
     BookingRepository bookingRepository;
     @Mock
     CommentRepository commentRepository;
     @Mock
     ItemRequestRepository itemRequestRepository;
+    @Mock
+    ItemSearchEngine itemSearchEngine;
+    @Mock
+    ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Mock
+    ItemViewCache itemViewCache;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    PlatformTransactionManager transactionManager;
     @InjectMocks
     ItemServiceImpl itemService;
     private static final long OWNER_ID = 2L;
     private static final long ITEM_REQUEST_ID = 1L;
     private static final LocalDateTime CREATED = LocalDateTime.now();
+    private static final String ITEM_TAG = "W/\"item-1-3\"";
+    private static final int COMMENT_EMBED_SIZE = 10;
+
+    @BeforeEach
+    void beforeEach() {
+        ReflectionTestUtils.setField(itemService, "commentEmbedSize", COMMENT_EMBED_SIZE);
+    }
 
     @Test
     void create_whenNotFoundUserById_thenThrowsNotFoundException() {
-        Mockito.when(userRepository.findById(OWNER_ID))
+        Mockito.when(userDirectory.find(OWNER_ID))
                 .thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -73,8 +112,10 @@ class ItemServiceImplTest {
         ItemRequest itemRequest = getItemRequest();
         Item itemNullId = getItemNullId(owner, itemRequest);
         Item itemWithId = getItem(owner, itemRequest);
-        Mockito.when(userRepository.findById(OWNER_ID))
-                .thenReturn(Optional.of(owner));
+        Mockito.when(userDirectory.find(OWNER_ID))
+                .thenReturn(Optional.of(getUserSummary(owner)));
+        Mockito.when(userRepository.getReferenceById(OWNER_ID))
+                .thenReturn(owner);
         Mockito.when(itemRequestRepository.findById(itemRequestingDto.getRequestId()))
                 .thenReturn(Optional.of(itemRequest));
         Mockito.when(itemRepository.save(any(Item.class)))
@@ -90,17 +131,19 @@ class ItemServiceImplTest {
         assertThat(actualItemInfoDto.getLastBooking(), Matchers.nullValue());
         assertThat(actualItemInfoDto.getNextBooking(), Matchers.nullValue());
         assertThat(actualItemInfoDto.getComments(), Matchers.nullValue());
-        Mockito.verify(userRepository, Mockito.times(1))
-                .findById(OWNER_ID);
+        Mockito.verify(userDirectory, Mockito.times(1))
+                .find(OWNER_ID);
         Mockito.verify(itemRequestRepository, Mockito.times(1))
                 .findById(itemRequestingDto.getRequestId());
         Mockito.verify(itemRepository, Mockito.times(1))
                 .save(any(Item.class));
+        Mockito.verify(itemSearchEngine, Mockito.times(1))
+                .index(itemWithId);
     }
 
     @Test
     void update_whenNotFoundUserById_thenThrowsNotFoundException() {
-        Mockito.when(userRepository.findById(OWNER_ID))
+        Mockito.when(userDirectory.find(OWNER_ID))
                 .thenReturn(Optional.empty());
         ItemRequestingDto itemRequestingDto = ItemRequestingDto.builder()
                 .id(1L)
@@ -135,8 +178,8 @@ class ItemServiceImplTest {
                 .isAvailable(true)
                 .itemRequest(itemRequest)
                 .build();
-        Mockito.when(userRepository.findById(OWNER_ID))
-                .thenReturn(Optional.of(owner));
+        Mockito.when(userDirectory.find(OWNER_ID))
+                .thenReturn(Optional.of(getUserSummary(owner)));
         Mockito.when(itemRepository.findByIdAndOwnerId(itemRequestingDto.getId(), OWNER_ID))
                 .thenReturn(Optional.of(itemBeforeUpdate));
         Mockito.when(itemRepository.save(any(Item.class)))
@@ -152,12 +195,18 @@ class ItemServiceImplTest {
         assertThat(actualItemInfoDto.getLastBooking(), Matchers.nullValue());
         assertThat(actualItemInfoDto.getNextBooking(), Matchers.nullValue());
         assertThat(actualItemInfoDto.getComments(), Matchers.nullValue());
-        Mockito.verify(userRepository, Mockito.times(1))
-                .findById(OWNER_ID);
+        Mockito.verify(userDirectory, Mockito.times(1))
+                .find(OWNER_ID);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findByIdAndOwnerId(1L, 2L);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .save(any(Item.class));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .incrementVersionById(1L);
+        Mockito.verify(itemSearchEngine, Mockito.times(1))
+                .index(itemBeforeUpdate);
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new ItemUpdatedEvent(1L));
     }
 
     @Test
@@ -170,12 +219,18 @@ class ItemServiceImplTest {
         Booking lastBooking = getLastBooking(item, commentAndBookingUser);
         Mockito.when(itemRepository.findById(itemId))
                 .thenReturn(Optional.of(item));
-        Mockito.when(commentRepository.findAllByItemId(itemId))
-                .thenReturn(List.of(comment));
-        Mockito.when(bookingRepository.findLastForDateTime(anyLong(), any(LocalDateTime.class)))
-                .thenReturn(Optional.of(lastBooking));
-
-        ItemInfoDto actualItemInfoDto = itemService.getByItemId(itemId, OWNER_ID);
+        CommentView commentView = getCommentView(comment);
+        CommentCountView commentCountView = getCommentCountView(itemId, 25L);
+        Mockito.when(commentRepository.findAllLatestByItemIdIn(List.of(itemId), COMMENT_EMBED_SIZE))
+                .thenReturn(List.of(commentView));
+        Mockito.when(commentRepository.countAllByItemIdIn(List.of(itemId)))
+                .thenReturn(List.of(commentCountView));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(itemId)))
+                .thenReturn(List.of(getSummary(lastBooking, CREATED.plusDays(1))));
+        Mockito.when(itemViewCache.stamp())
+                .thenReturn(5L);
+
+        ItemInfoDto actualItemInfoDto = itemService.getByItemId(itemId, OWNER_ID, ITEM_TAG);
         CommentInfoDto actualComment = actualItemInfoDto.getComments().get(0);
 
         assertThat(actualItemInfoDto.getId(), Matchers.is(1L));
@@ -187,14 +242,70 @@ class ItemServiceImplTest {
         assertThat(actualItemInfoDto.getLastBooking().getItemId(), Matchers.is(1L));
         assertThat(actualItemInfoDto.getNextBooking(), Matchers.nullValue());
         assertThat(actualItemInfoDto.getComments().size(), Matchers.is(1));
+        assertThat(actualItemInfoDto.getCommentCount(), Matchers.is(25L));
         assertThat(actualComment.getItemId(), Matchers.is(1L));
         assertThat(actualComment.getId(), Matchers.is(1L));
         assertThat(actualComment.getText(), Matchers.is("text"));
         assertThat(actualComment.getAuthorName(), Matchers.is("name"));
+        assertThat(actualComment.getCreated(), Matchers.is(CREATED));
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findById(itemId);
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findAllByItemId(1L);
+                .findAllLatestByItemIdIn(List.of(1L), COMMENT_EMBED_SIZE);
+        Mockito.verifyNoInteractions(bookingRepository);
+        Mockito.verify(itemViewCache, Mockito.times(1))
+                .put(itemId, OWNER_ID, actualItemInfoDto, true, ITEM_TAG, 5L);
+        Mockito.verify(transactionManager, Mockito.times(1))
+                .getTransaction(Mockito.argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void getByItemId_whenCurrentBookingRunning_thenCurrentBookingIsLast() {
+        Item item = getItem(getOwner(), null);
+        ItemBookingSummary summary = getSummary(getLastBooking(item, getUser()), CREATED.plusHours(1));
+        summary.setCurrentBookingId(3L);
+        summary.setCurrentBookerId(1L);
+        summary.setCurrentStart(CREATED.minusHours(1));
+        summary.setCurrentEnd(CREATED.plusHours(1));
+        Mockito.when(itemRepository.findById(1L))
+                .thenReturn(Optional.of(item));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(summary));
+
+        ItemInfoDto actualItemInfoDto = itemService.getByItemId(1L, OWNER_ID, ITEM_TAG);
+
+        assertThat(actualItemInfoDto.getLastBooking().getId(), Matchers.is(3L));
+        assertThat(actualItemInfoDto.getLastBooking().getStart(), Matchers.is(CREATED.minusHours(1)));
+        assertThat(actualItemInfoDto.getLastBooking().getEnd(), Matchers.is(CREATED.plusHours(1)));
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getByItemId_whenViewCached_thenNothingQueried() {
+        ItemInfoDto cachedItemInfoDto = ItemInfoDto.builder()
+                .id(1L)
+                .build();
+        Mockito.when(itemViewCache.find(1L, 1L, ITEM_TAG))
+                .thenReturn(cachedItemInfoDto);
+
+        ItemInfoDto actualItemInfoDto = itemService.getByItemId(1L, 1L, ITEM_TAG);
+
+        assertThat(actualItemInfoDto, Matchers.sameInstance(cachedItemInfoDto));
+        Mockito.verifyNoInteractions(transactionManager, itemRepository, commentRepository);
+    }
+
+    @Test
+    void getByItemId_whenNotOwner_thenPublicViewCachedWithoutBookings() {
+        Item item = getItem(getOwner(), null);
+        Mockito.when(itemRepository.findById(1L))
+                .thenReturn(Optional.of(item));
+
+        ItemInfoDto actualItemInfoDto = itemService.getByItemId(1L, 1L, ITEM_TAG);
+
+        assertThat(actualItemInfoDto.getLastBooking(), Matchers.nullValue());
+        Mockito.verifyNoInteractions(itemBookingSummaryRepository);
+        Mockito.verify(itemViewCache, Mockito.times(1))
+                .put(1L, OWNER_ID, actualItemInfoDto, false, ITEM_TAG, 0L);
     }
 
     @Test
@@ -208,8 +319,12 @@ class ItemServiceImplTest {
         Comment comment = getComment(item, getUser());
         Mockito.when(itemRepository.findAllByOwnerId(OWNER_ID, pageRequest))
                 .thenReturn(List.of(item));
-        Mockito.when(commentRepository.findAllCommentsInIdList(List.of(itemId)))
-                .thenReturn(List.of(comment));
+        CommentView commentView = getCommentView(comment);
+        CommentCountView commentCountView = getCommentCountView(itemId, 1L);
+        Mockito.when(commentRepository.findAllLatestByItemIdIn(List.of(itemId), COMMENT_EMBED_SIZE))
+                .thenReturn(List.of(commentView));
+        Mockito.when(commentRepository.countAllByItemIdIn(List.of(itemId)))
+                .thenReturn(List.of(commentCountView));
 
         List<ItemInfoDto> actualItemInfoDtoList = itemService.getByOwnerId(OWNER_ID, pageRequest);
         ItemInfoDto actualItemInfoDto = actualItemInfoDtoList.get(0);
@@ -232,7 +347,133 @@ class ItemServiceImplTest {
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findAllByOwnerId(OWNER_ID, pageRequest);
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findAllCommentsInIdList(List.of(itemId));
+                .findAllLatestByItemIdIn(List.of(itemId), COMMENT_EMBED_SIZE);
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .countAllByItemIdIn(List.of(itemId));
+        Mockito.verify(itemBookingSummaryRepository, Mockito.times(1))
+                .findAllById(List.of(itemId));
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getByOwnerId_whenSummaryStale_thenLastAndNextBookingsFoundAndSetToItem() {
+        int offset = 0;
+        int limit = 1;
+        Item item = getItem(getOwner(), null);
+        PageRequest pageRequest = PageRequest.of((offset / limit), limit, Sort.by(Sort.Direction.ASC, "id"));
+        BookingShortView lastBooking = getBookingShortView(1L, CREATED.minusDays(2));
+        BookingShortView nextBooking = getBookingShortView(2L, CREATED.plusDays(2));
+        Mockito.when(itemRepository.findAllByOwnerId(OWNER_ID, pageRequest))
+                .thenReturn(List.of(item));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(getSummary(getLastBooking(item, getUser()), CREATED.minusHours(1))));
+        Mockito.when(bookingRepository.findLastCurrentAndNextForDateTime(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(nextBooking, lastBooking));
+
+        ItemInfoDto actualItemInfoDto = itemService.getByOwnerId(OWNER_ID, pageRequest).get(0);
+
+        assertThat(actualItemInfoDto.getLastBooking().getId(), Matchers.is(1L));
+        assertThat(actualItemInfoDto.getLastBooking().getItemId(), Matchers.is(1L));
+        assertThat(actualItemInfoDto.getLastBooking().getBookerId(), Matchers.is(1L));
+        assertThat(actualItemInfoDto.getNextBooking().getId(), Matchers.is(2L));
+        assertThat(actualItemInfoDto.getNextBooking().getStart(), Matchers.is(CREATED.plusDays(2)));
+    }
+
+    @Test
+    void getByOwnerId_whenSummaryValid_thenNextBookingSetFromSummary() {
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id"));
+        Item item = getItem(getOwner(), null);
+        Booking nextBooking = getNextBooking(item, getUser());
+        ItemBookingSummary summary = getSummary(getLastBooking(item, getUser()), nextBooking.getStart());
+        summary.setNextBookingId(nextBooking.getId());
+        summary.setNextBookerId(nextBooking.getBooker().getId());
+        summary.setNextStart(nextBooking.getStart());
+        summary.setNextEnd(nextBooking.getEnd());
+        Mockito.when(itemRepository.findAllByOwnerId(OWNER_ID, pageRequest))
+                .thenReturn(List.of(item));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(summary));
+
+        ItemInfoDto actualItemInfoDto = itemService.getByOwnerId(OWNER_ID, pageRequest).get(0);
+
+        assertThat(actualItemInfoDto.getLastBooking().getId(), Matchers.is(1L));
+        assertThat(actualItemInfoDto.getNextBooking().getId(), Matchers.is(2L));
+        assertThat(actualItemInfoDto.getNextBooking().getBookerId(), Matchers.is(1L));
+        assertThat(actualItemInfoDto.getNextBooking().getStart(), Matchers.is(CREATED.plusDays(1)));
+        assertThat(actualItemInfoDto.getNextBooking().getStatus(), Matchers.is(BookingStatus.APPROVED));
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getByOwnerId_whenCurrentBookingRunning_thenLastFinishedBookingIsLast() {
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id"));
+        Item item = getItem(getOwner(), null);
+        ItemBookingSummary summary = getSummary(getLastBooking(item, getUser()), CREATED.plusHours(1));
+        summary.setCurrentBookingId(3L);
+        summary.setCurrentBookerId(1L);
+        summary.setCurrentStart(CREATED.minusHours(1));
+        summary.setCurrentEnd(CREATED.plusHours(1));
+        Mockito.when(itemRepository.findAllByOwnerId(OWNER_ID, pageRequest))
+                .thenReturn(List.of(item));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(summary));
+
+        ItemInfoDto actualItemInfoDto = itemService.getByOwnerId(OWNER_ID, pageRequest).get(0);
+
+        assertThat(actualItemInfoDto.getLastBooking().getId(), Matchers.is(1L));
+        assertThat(actualItemInfoDto.getNextBooking(), Matchers.nullValue());
+    }
+
+    @Test
+    void getByOwnerId_whenNoItems_thenBookingsNotQueried() {
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id"));
+        Mockito.when(itemRepository.findAllByOwnerId(OWNER_ID, pageRequest))
+                .thenReturn(List.of());
+
+        List<ItemInfoDto> actualItemInfoDtoList = itemService.getByOwnerId(OWNER_ID, pageRequest);
+
+        assertThat(actualItemInfoDtoList.size(), Matchers.is(0));
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getComments_whenNoCursor_thenFirstPageLatestFirst() {
+        Comment comment = getComment(getItem(getOwner(), null), getUser());
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("creationDate"), Sort.Order.desc("id")));
+        Mockito.when(itemRepository.existsById(1L))
+                .thenReturn(true);
+        Mockito.when(commentRepository.findAllByItemId(1L, pageRequest))
+                .thenReturn(List.of(comment));
+
+        List<CommentInfoDto> actualCommentList = itemService.getComments(1L, null, 2);
+
+        assertThat(actualCommentList.size(), Matchers.is(1));
+        assertThat(actualCommentList.get(0).getId(), Matchers.is(1L));
+        Mockito.verify(commentRepository, Mockito.never())
+                .findAllByItemIdAfter(anyLong(), any(Timestamp.class), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getComments_whenCursor_thenPageAfterCursor() {
+        Mockito.when(itemRepository.existsById(1L))
+                .thenReturn(true);
+        Mockito.when(commentRepository.findAllByItemIdAfter(1L, Timestamp.valueOf(CREATED), 5L, PageRequest.of(0, 2)))
+                .thenReturn(List.of());
+
+        List<CommentInfoDto> actualCommentList = itemService.getComments(1L, new CommentCursor(CREATED, 5L), 2);
+
+        assertThat(actualCommentList.size(), Matchers.is(0));
+    }
+
+    @Test
+    void getComments_whenItemNotFound_thenThrowsNotFoundException() {
+        Mockito.when(itemRepository.existsById(1L))
+                .thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemService.getComments(1L, null, 2));
+        assertThat(exception.getMessage(), Matchers.is("Item not found by id: 1"));
+        Mockito.verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -242,7 +483,7 @@ class ItemServiceImplTest {
         Sort sort = Sort.by(Sort.Direction.ASC, "id");
         Pageable pageable = PageRequest.of((offset / limit), limit, sort);
         Item item = getItem(getOwner(), null);
-        Mockito.when(itemRepository.searchAvailableByNameOrDescription("name", pageable))
+        Mockito.when(itemSearchEngine.search("name", pageable))
                 .thenReturn(List.of(item));
 
         List<ItemInfoDto> actualItemInfoDtoList = itemService.search("NamE", pageable);
@@ -257,8 +498,8 @@ class ItemServiceImplTest {
         assertThat(actualItemInfoDto.getLastBooking(), Matchers.nullValue());
         assertThat(actualItemInfoDto.getNextBooking(), Matchers.nullValue());
         assertThat(actualItemInfoDto.getComments(), Matchers.nullValue());
-        Mockito.verify(itemRepository, Mockito.times(1))
-                .searchAvailableByNameOrDescription("name", pageable);
+        Mockito.verify(itemSearchEngine, Mockito.times(1))
+                .search("name", pageable);
     }
 
     @Test
@@ -276,10 +517,26 @@ class ItemServiceImplTest {
 
     @Test
     void deleteByItemId() {
+        Mockito.when(itemRepository.deleteByIdAndOwnerId(1L, 2L))
+                .thenReturn(1L);
+
         itemService.deleteByItemId(1L, 2L);
 
         Mockito.verify(itemRepository, Mockito.times(1))
                 .deleteByIdAndOwnerId(1L, 2L);
+        Mockito.verify(itemSearchEngine, Mockito.times(1))
+                .remove(1L);
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new ItemDeletedEvent(1L));
+    }
+
+    @Test
+    void deleteByItemId_whenItemOfOtherOwner_thenSearchIndexNotChanged() {
+        itemService.deleteByItemId(1L, 3L);
+
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .deleteByIdAndOwnerId(1L, 3L);
+        Mockito.verifyNoInteractions(itemSearchEngine, eventPublisher);
     }
 
     @Test
@@ -346,6 +603,85 @@ class ItemServiceImplTest {
         assertThat(actualCommentInfoDto.getAuthorName(), Matchers.is("name"));
         assertThat(actualCommentInfoDto.getCreated(), Matchers.notNullValue());
         assertThat(actualCommentInfoDto.getItemId(), Matchers.is(1L));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .incrementVersionById(1L);
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new CommentAddedEvent(1L, 1L));
+    }
+
+    @Test
+    void getTagByItemId_whenNotOwner_thenTagOfItemVersionOnly() {
+        ItemVersionView itemVersion = getItemVersionView(null, OWNER_ID, 3L);
+        Mockito.when(itemRepository.findVersionById(1L))
+                .thenReturn(Optional.of(itemVersion));
+
+        String tag = itemService.getTagByItemId(1L, 1L);
+
+        assertThat(tag, Matchers.is("W/\"item-1-3\""));
+        Mockito.verifyNoInteractions(itemBookingSummaryRepository, bookingRepository, commentRepository, itemViewCache);
+    }
+
+    @Test
+    void getTagByItemId_whenOwnerAndSummaryValid_thenTagOfSummaryBookings() {
+        Item item = getItem(getOwner(), null);
+        ItemVersionView itemVersion = getItemVersionView(null, OWNER_ID, 3L);
+        Mockito.when(itemRepository.findVersionById(1L))
+                .thenReturn(Optional.of(itemVersion));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(getSummary(getLastBooking(item, getUser()), CREATED.plusDays(1))));
+
+        String tag = itemService.getTagByItemId(1L, OWNER_ID);
+
+        assertThat(tag, Matchers.is("W/\"item-1-3-1:null\""));
+        Mockito.verifyNoInteractions(bookingRepository, commentRepository);
+    }
+
+    @Test
+    void getTagByItemId_whenOwnerAndSummaryStale_thenTagOfBookingsFoundNowWithCurrentAsLast() {
+        Item item = getItem(getOwner(), null);
+        ItemVersionView itemVersion = getItemVersionView(null, OWNER_ID, 3L);
+        Mockito.when(itemRepository.findVersionById(1L))
+                .thenReturn(Optional.of(itemVersion));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(getSummary(getLastBooking(item, getUser()), CREATED.minusHours(1))));
+        BookingShortView lastBooking = getBookingIdView(null, CREATED.minusHours(3), CREATED.minusHours(2));
+        BookingShortView currentBooking = getBookingIdView(6L, CREATED.minusHours(1), CREATED.plusHours(1));
+        BookingShortView nextBooking = getBookingIdView(5L, CREATED.plusDays(1), null);
+        Mockito.when(bookingRepository.findLastCurrentAndNextForDateTime(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking, currentBooking, nextBooking));
+
+        String tag = itemService.getTagByItemId(1L, OWNER_ID);
+
+        assertThat(tag, Matchers.is("W/\"item-1-3-6:5\""));
+    }
+
+    @Test
+    void getTagByItemId_whenItemNotFound_thenThrowsNotFoundException() {
+        Mockito.when(itemRepository.findVersionById(1L))
+                .thenReturn(Optional.empty());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemService.getTagByItemId(1L, 1L));
+        assertThat(exception.getMessage(), Matchers.is("Item not found by id 1"));
+    }
+
+    @Test
+    void getTagByOwnerId_thenTagChangesWithItemVersions() {
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+        ItemVersionView itemVersion = getItemVersionView(1L, null, 3L);
+        Mockito.when(itemRepository.findAllVersionByOwnerId(OWNER_ID, 10, 0L))
+                .thenReturn(List.of(itemVersion));
+        Mockito.when(itemBookingSummaryRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of());
+
+        String tag = itemService.getTagByOwnerId(OWNER_ID, pageRequest);
+        Mockito.when(itemVersion.getVersion())
+                .thenReturn(4L);
+        String changedTag = itemService.getTagByOwnerId(OWNER_ID, pageRequest);
+
+        assertThat(tag, Matchers.startsWith("W/\"items-"));
+        assertThat(changedTag, Matchers.not(Matchers.is(tag)));
+        Mockito.verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     private Booking getLastBooking(Item item, User booker) {
@@ -359,6 +695,18 @@ class ItemServiceImplTest {
                 .build();
     }
 
+    private ItemBookingSummary getSummary(Booking lastBooking, LocalDateTime validUntil) {
+        return ItemBookingSummary.builder()
+                .itemId(lastBooking.getItem().getId())
+                .lastBookingId(lastBooking.getId())
+                .lastBookerId(lastBooking.getBooker().getId())
+                .lastStart(lastBooking.getStart())
+                .lastEnd(lastBooking.getEnd())
+                .approvedCount(1)
+                .validUntil(validUntil)
+                .build();
+    }
+
     private ItemInfoDto.BookingDto getBookingDtoItem() {
         return ItemInfoDto.BookingDto.builder()
                 .id(1L)
@@ -391,6 +739,23 @@ class ItemServiceImplTest {
                 .build();
     }
 
+    private CommentView getCommentView(Comment comment) {
+        CommentView commentView = Mockito.mock(CommentView.class);
+        Mockito.when(commentView.getId()).thenReturn(comment.getId());
+        Mockito.when(commentView.getText()).thenReturn(comment.getText());
+        Mockito.when(commentView.getAuthorName()).thenReturn(comment.getAuthor().getName());
+        Mockito.when(commentView.getCreated()).thenReturn(comment.getCreationDate().toLocalDateTime());
+        Mockito.when(commentView.getItemId()).thenReturn(comment.getItem().getId());
+        return commentView;
+    }
+
+    private CommentCountView getCommentCountView(long itemId, long commentCount) {
+        CommentCountView commentCountView = Mockito.mock(CommentCountView.class);
+        Mockito.when(commentCountView.getItemId()).thenReturn(itemId);
+        Mockito.when(commentCountView.getCommentCount()).thenReturn(commentCount);
+        return commentCountView;
+    }
+
     private CommentRequestingDto getCommentDto() {
         return CommentRequestingDto.builder()
                 .id(1L)
@@ -449,6 +814,10 @@ class ItemServiceImplTest {
                 .build();
     }
 
+    private UserSummary getUserSummary(User user) {
+        return new UserSummary(user.getId(), user.getName(), user.getEmail());
+    }
+
     private User getOwner() {
         return User.builder()
                 .id(2L)
@@ -460,7 +829,7 @@ class ItemServiceImplTest {
     private ItemRequest getItemRequest() {
         return ItemRequest.builder()
                 .id(1L)
-                .requestingUser(new User(2L, "requesting@user.com", "requestingUse"))
+                .requestingUser(new User(2L, "requesting@user.com", "requestingUse", 0))
                 .description("itemRequest")
                 .created(CREATED)
                 .build();
@@ -487,4 +856,40 @@ class ItemServiceImplTest {
                 .itemRequest(itemRequest)
                 .build();
     }
-}
\ No newline at end of file
+
+    private ItemVersionView getItemVersionView(Long itemId, Long ownerId, long version) {
+        ItemVersionView itemVersion = Mockito.mock(ItemVersionView.class);
+        if (itemId != null) {
+            Mockito.when(itemVersion.getId()).thenReturn(itemId);
+        }
+        if (ownerId != null) {
+            Mockito.when(itemVersion.getOwnerId()).thenReturn(ownerId);
+        }
+        Mockito.when(itemVersion.getVersion()).thenReturn(version);
+        return itemVersion;
+    }
+
+    private BookingShortView getBookingIdView(Long id, LocalDateTime start, LocalDateTime end) {
+        BookingShortView booking = Mockito.mock(BookingShortView.class);
+        if (id != null) {
+            Mockito.when(booking.getId()).thenReturn(id);
+        }
+        Mockito.when(booking.getItemId()).thenReturn(1L);
+        Mockito.when(booking.getStart()).thenReturn(start);
+        if (end != null) {
+            Mockito.when(booking.getEnd()).thenReturn(end);
+        }
+        return booking;
+    }
+
+    private BookingShortView getBookingShortView(long id, LocalDateTime start) {
+        BookingShortView booking = Mockito.mock(BookingShortView.class);
+        Mockito.when(booking.getId()).thenReturn(id);
+        Mockito.when(booking.getItemId()).thenReturn(1L);
+        Mockito.when(booking.getBookerId()).thenReturn(1L);
+        Mockito.when(booking.getStart()).thenReturn(start);
+        Mockito.when(booking.getEnd()).thenReturn(start.plusDays(1));
+        Mockito.when(booking.getStatus()).thenReturn(BookingStatus.APPROVED);
+        return booking;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item.summary;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemRequestingDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+// Not @Transactional, the approval commits on its own. The sweeper is off, so only the approval can fill the summary
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "shareit.item.booking-summary.sweeper.enabled=false")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ItemBookingSummaryIntegrationalTest {
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    private static final LocalDateTime CURRENT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    void respondToBooking_whenApprovedAndSweeperDisabled_thenSummaryRefreshedByApproval() {
+        UserDto owner = userService.create(UserDto.builder().name("owner").email("summaryOwner@email.com").build());
+        UserDto booker = userService.create(UserDto.builder().name("booker").email("summaryBooker@email.com").build());
+        long itemId = itemService.create(ItemRequestingDto.builder()
+                .name("drill")
+                .description("description")
+                .available(true)
+                .build(), owner.getId()).getId();
+        long bookingId = bookingService.create(BookingCreateDto.builder()
+                .itemId(itemId)
+                .bookerId(booker.getId())
+                .start(CURRENT.plusDays(1))
+                .end(CURRENT.plusDays(2))
+                .build()).getId();
+
+        bookingService.respondToBooking(owner.getId(), bookingId, true);
+
+        assertThat(applicationContext.getBeanNamesForType(ItemBookingSummarySweeper.class).length, is(0));
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId).orElseThrow();
+        assertThat(summary.getNextBookingId(), is(bookingId));
+        assertThat(summary.getNextStart(), is(CURRENT.plusDays(1)));
+        assertThat(summary.getApprovedCount(), is(1L));
+        assertThat(summary.isValidAt(CURRENT), is(true));
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item.summary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.lock.ItemLockStripes;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@DataJpaTest
+@Import({ItemBookingSummaryUpdater.class, ItemBookingSummarySweeper.class, ItemLockStripes.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ItemBookingSummaryUpdaterTest {
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+
+    @Autowired
+    ItemBookingSummarySweeper itemBookingSummarySweeper;
+
+    private static final LocalDateTime CURRENT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private long itemId;
+    private Booking pastBooking;
+    private Booking currentBooking;
+    private Booking futureBooking;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = persistUser("owner");
+        User booker = persistUser("booker");
+        Item item = entityManager.persist(Item.builder()
+                .owner(owner)
+                .name("drill")
+                .description("description")
+                .isAvailable(true)
+                .build());
+        itemId = item.getId();
+        pastBooking = persistBooking(item, booker, CURRENT.minusDays(3), CURRENT.minusDays(2), BookingStatus.APPROVED);
+        currentBooking = persistBooking(item, booker, CURRENT.minusDays(1), CURRENT.plusDays(1), BookingStatus.APPROVED);
+        futureBooking = persistBooking(item, booker, CURRENT.plusDays(2), CURRENT.plusDays(3), BookingStatus.APPROVED);
+        persistBooking(item, booker, CURRENT.plusDays(4), CURRENT.plusDays(5), BookingStatus.WAITING);
+        entityManager.flush();
+    }
+
+    @Test
+    void refresh_whenCurrentBookingRunning_thenValidUntilItsEnd() {
+        ItemBookingSummary summary = itemBookingSummaryUpdater.refresh(itemId, CURRENT);
+
+        assertThat(summary.getLastBookingId(), is(pastBooking.getId()));
+        assertThat(summary.getLastStart(), is(CURRENT.minusDays(3)));
+        assertThat(summary.getCurrentBookingId(), is(currentBooking.getId()));
+        assertThat(summary.getCurrentEnd(), is(CURRENT.plusDays(1)));
+        assertThat(summary.getNextBookingId(), is(futureBooking.getId()));
+        assertThat(summary.getNextEnd(), is(CURRENT.plusDays(3)));
+        assertThat(summary.getApprovedCount(), is(3L));
+        assertThat(summary.getValidUntil(), is(currentBooking.getEnd()));
+    }
+
+    @Test
+    void refresh_whenNoCurrentBooking_thenValidUntilNextStart() {
+        ItemBookingSummary summary = itemBookingSummaryUpdater.refresh(itemId, CURRENT.plusDays(1).plusHours(1));
+
+        assertThat(summary.getLastBookingId(), is(currentBooking.getId()));
+        assertThat(summary.getCurrentBookingId(), nullValue());
+        assertThat(summary.getNextBookingId(), is(futureBooking.getId()));
+        assertThat(summary.getValidUntil(), is(futureBooking.getStart()));
+    }
+
+    @Test
+    void sweep_whenSummaryStale_thenRolledForwardOnce() {
+        entityManager.persist(ItemBookingSummary.builder()
+                .itemId(itemId)
+                .approvedCount(3)
+                .validUntil(CURRENT.minusHours(1))
+                .build());
+        entityManager.flush();
+
+        assertThat(itemBookingSummarySweeper.sweep(), is(1));
+        assertThat(itemBookingSummarySweeper.sweep(), is(0));
+        entityManager.clear();
+        ItemBookingSummary summary = entityManager.find(ItemBookingSummary.class, itemId);
+        assertThat(summary.getLastBookingId(), is(pastBooking.getId()));
+        assertThat(summary.getNextBookingId(), is(futureBooking.getId()));
+        assertThat(summary.getValidUntil(), is(currentBooking.getEnd()));
+    }
+
+    private User persistUser(String name) {
+        return entityManager.persist(User.builder()
+                .name(name)
+                .email(name + "@email.com")
+                .build());
+    }
+
+    private Booking persistBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingStatusMessage;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest(properties = {"shareit.outbox.publisher.batch-size=2", "shareit.outbox.publisher.delay-ms=3600000"})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({Outbox.class, OutboxPublisher.class, SimpleMeterRegistry.class})
+class OutboxPublisherTest {
+    @Autowired
+    Outbox outbox;
+
+    @Autowired
+    OutboxPublisher outboxPublisher;
+
+    @Autowired
+    OutboxRepository outboxRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @MockBean
+    OutboxSink outboxSink;
+
+    @Test
+    void publish_thenMessagesSentInBatchesAndDeleted() throws IOException {
+        addMessage(1L);
+        addMessage(2L);
+        addMessage(3L);
+        double published = count("shareit.outbox.published");
+        long lagged = meterRegistry.get("shareit.outbox.lag").timer().count();
+
+        int sent = outboxPublisher.publish();
+
+        assertThat(sent, is(3));
+        Mockito.verify(outboxSink, Mockito.times(1))
+                .send(Mockito.argThat(messages -> messages.size() == 2
+                        && messages.get(0).getAggregateId() == 1L
+                        && messages.get(0).getPayload().contains("\"status\":\"APPROVED\"")));
+        Mockito.verify(outboxSink, Mockito.times(1))
+                .send(Mockito.argThat(messages -> messages.size() == 1 && messages.get(0).getAggregateId() == 3L));
+        assertThat(outboxRepository.count(), is(0L));
+        assertThat(count("shareit.outbox.published"), is(published + 3));
+        assertThat(meterRegistry.get("shareit.outbox.lag").timer().count(), is(lagged + 3));
+        assertThat(meterRegistry.get("shareit.outbox.unsent").gauge().value(), is(0.0));
+    }
+
+    @Test
+    void publish_whenSinkFails_thenMessagesKept() throws IOException {
+        addMessage(1L);
+        Mockito.doThrow(new IOException("unavailable"))
+                .when(outboxSink).send(Mockito.anyList());
+        double published = count("shareit.outbox.published");
+        double failures = count("shareit.outbox.failures");
+
+        int sent = outboxPublisher.publish();
+
+        assertThat(sent, is(0));
+        List<OutboxMessage> messages = outboxRepository.findAll();
+        assertThat(messages.size(), is(1));
+        assertThat(messages.get(0).getEventType(), is(BookingStatusMessage.EVENT_TYPE));
+        assertThat(messages.get(0).getPayload(), containsString("\"bookingId\":1"));
+        assertThat(count("shareit.outbox.failures"), is(failures + 1));
+        assertThat(count("shareit.outbox.published"), is(published));
+        assertThat(meterRegistry.get("shareit.outbox.unsent").gauge().value(), is(1.0));
+        assertThat(meterRegistry.get("shareit.outbox.oldest-unsent-age").gauge().value(), greaterThanOrEqualTo(0.0));
+    }
+
+    @Test
+    void publish_whenOlderMessageHasGreaterId_thenSentFirst() throws IOException {
+        LocalDateTime created = LocalDateTime.now();
+        outboxRepository.save(getMessage(1L, created));
+        outboxRepository.save(getMessage(2L, created.minusMinutes(1)));
+
+        outboxPublisher.publish();
+
+        Mockito.verify(outboxSink, Mockito.times(1))
+                .send(Mockito.argThat(messages -> messages.size() == 2
+                        && messages.get(0).getAggregateId() == 2L
+                        && messages.get(1).getAggregateId() == 1L));
+    }
+
+    @Test
+    void publish_whenOldMessageUnsent_thenBacklogGaugesShowIt() throws IOException {
+        outboxRepository.save(getMessage(1L, LocalDateTime.now().minusMinutes(10)));
+        addMessage(2L);
+        Mockito.doThrow(new IOException("unavailable"))
+                .when(outboxSink).send(Mockito.anyList());
+
+        outboxPublisher.publish();
+
+        assertThat(meterRegistry.get("shareit.outbox.unsent").gauge().value(), is(2.0));
+        assertThat(meterRegistry.get("shareit.outbox.oldest-unsent-age").gauge().value(), greaterThanOrEqualTo(600.0));
+    }
+
+    @Test
+    void publish_whenOutboxEmpty_thenNothingSent() {
+        int sent = outboxPublisher.publish();
+
+        assertThat(sent, is(0));
+        Mockito.verifyNoInteractions(outboxSink);
+        assertThat(meterRegistry.get("shareit.outbox.unsent").gauge().value(), is(0.0));
+        assertThat(meterRegistry.get("shareit.outbox.oldest-unsent-age").gauge().value(), is(0.0));
+    }
+
+    // The registry is shared by the tests of the context, counters are compared with their values before the test
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static OutboxMessage getMessage(long bookingId, LocalDateTime created) {
+        return OutboxMessage.builder()
+                .aggregateType(BookingStatusMessage.AGGREGATE_TYPE)
+                .aggregateId(bookingId)
+                .eventType(BookingStatusMessage.EVENT_TYPE)
+                .payload("{\"bookingId\":" + bookingId + "}")
+                .created(created)
+                .build();
+    }
+
+    private void addMessage(long bookingId) {
+        outbox.add(BookingStatusMessage.AGGREGATE_TYPE, bookingId, BookingStatusMessage.EVENT_TYPE,
+                BookingStatusMessage.builder()
+                        .bookingId(bookingId)
+                        .itemId(1L)
+                        .ownerId(2L)
+                        .bookerId(3L)
+                        .status(BookingStatus.APPROVED)
+                        .build());
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.outbox.sink;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.shareit.outbox.OutboxMessage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class FileOutboxSinkTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void send_thenMessagesAppendedAsJsonLines() throws IOException {
+        Path path = directory.resolve("outbox.ndjson");
+        FileOutboxSink fileOutboxSink = new FileOutboxSink(new ObjectMapper(), path.toString());
+
+        fileOutboxSink.send(List.of(getMessage(1L)));
+        fileOutboxSink.send(List.of(getMessage(2L)));
+
+        List<String> lines = Files.readAllLines(path);
+        assertThat(lines.size(), is(2));
+        assertThat(lines.get(0), is("{\"id\":1,\"aggregateType\":\"Booking\",\"aggregateId\":1,"
+                + "\"eventType\":\"BookingStatusChanged\",\"created\":\"2024-01-01T12:00\","
+                + "\"payload\":{\"bookingId\":1}}"));
+        assertThat(lines.get(1).startsWith("{\"id\":2,"), is(true));
+    }
+
+    private OutboxMessage getMessage(long id) {
+        return OutboxMessage.builder()
+                .id(id)
+                .aggregateType("Booking")
+                .aggregateId(id)
+                .eventType("BookingStatusChanged")
+                .payload("{\"bookingId\":" + id + "}")
+                .created(CREATED)
+                .build();
+    }
+}
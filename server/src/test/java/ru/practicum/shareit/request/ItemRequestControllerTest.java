@@ -9,6 +9,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
@@ -21,7 +22,9 @@ import java.util.List;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
 class ItemRequestControllerTest {
@@ -89,6 +92,20 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].items", nullValue()));
     }
 
+    @Test
+    void getByAllByRequestingUserId_whenTagMatches_thenNotModified() throws Exception {
+        Mockito.when(itemRequestService.getTagByRequestingUserId(1L))
+                .thenReturn("W/\"requests-1\"");
+
+        mvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"requests-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"requests-1\""));
+        Mockito.verify(itemRequestService, Mockito.never())
+                .getByAllByRequestingUserId(1L);
+    }
+
     @Test
     void getAllWithOffsetAndLimit() throws Exception {
         int limit = 1;
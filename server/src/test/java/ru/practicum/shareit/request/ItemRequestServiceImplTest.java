@@ -13,6 +13,9 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestRequestingDto;
+import ru.practicum.shareit.request.dto.ItemRequestVersionView;
+import ru.practicum.shareit.user.directory.UserDirectory;
+import ru.practicum.shareit.user.directory.UserSummary;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -31,6 +34,8 @@ class ItemRequestServiceImplTest {
     @Mock
     UserRepository userRepository;
     @Mock
+    UserDirectory userDirectory;
+    @Mock
     ItemRepository itemRepository;
     @InjectMocks
     ItemRequestServiceImpl itemRequestService;
@@ -42,8 +47,10 @@ class ItemRequestServiceImplTest {
         User requestingUser = getUser();
         ItemRequest itemRequestToSave = getItemRequestIdNull(requestingUser);
         ItemRequest itemRequestToReturn = getItemRequest(requestingUser);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(requestingUser));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(requestingUser)));
+        Mockito.when(userRepository.getReferenceById(1L))
+                .thenReturn(requestingUser);
         Mockito.when(itemRequestRepository.save(any(ItemRequest.class)))  // any due to field "created" initialized in mapper
                 .thenReturn(itemRequestToReturn);
 
@@ -54,17 +61,19 @@ class ItemRequestServiceImplTest {
         assertThat(actualRequestDto.getCreated(), Matchers.greaterThan(CREATED.minusSeconds(10)));
         assertThat(actualRequestDto.getCreated(), Matchers.lessThan(CREATED.plusSeconds(10)));
         assertThat(actualRequestDto.getItems().size(), Matchers.is(0));
+        Mockito.verify(userDirectory, Mockito.times(1))
+                .find(1L);
         Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+                .getReferenceById(1L);
         Mockito.verify(itemRequestRepository, Mockito.times(1))
                 .save(any(ItemRequest.class));
-        Mockito.verifyNoMoreInteractions(userRepository, itemRequestRepository);
+        Mockito.verifyNoMoreInteractions(userDirectory, userRepository, itemRequestRepository);
 
     }
 
     @Test
     void create_whenUserNotFound_thenThrowsNotFoundException() {
-        Mockito.when(userRepository.findById(1L))
+        Mockito.when(userDirectory.find(1L))
                 .thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -78,8 +87,8 @@ class ItemRequestServiceImplTest {
         User respondingUser = getRespondingUser();
         ItemRequest itemRequestToReturn = getItemRequest(requestingUser);
         Item responseItem = getItem(respondingUser, itemRequestToReturn);
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(requestingUser));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(requestingUser)));
         Mockito.when(itemRequestRepository.findById(1L))
                 .thenReturn(Optional.of(itemRequestToReturn));
         Mockito.when(itemRepository.findAllByItemRequestId(1L))
@@ -98,14 +107,14 @@ class ItemRequestServiceImplTest {
         assertThat(response.getName(), Matchers.is("name"));
         assertThat(response.getDescription(), Matchers.is("description"));
         assertThat(response.getAvailable(), Matchers.is(true));
-        Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+        Mockito.verify(userDirectory, Mockito.times(1))
+                .find(1L);
         Mockito.verify(itemRequestRepository, Mockito.times(1))
                 .findById(1L);
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findAllByItemRequestId(1L);
         /*itemRepository.findAllByItemRequestId*/
-        Mockito.verifyNoMoreInteractions(userRepository, itemRequestRepository, itemRepository);
+        Mockito.verifyNoMoreInteractions(userDirectory, userRepository, itemRequestRepository, itemRepository);
     }
 
     @Test
@@ -116,6 +125,36 @@ class ItemRequestServiceImplTest {
     void getAllWithOffsetAndLimit() {
     }
 
+    @Test
+    void getTagByRequestingUserId_thenTagChangesWithResponseItemVersions() {
+        ItemRequestVersionView version = Mockito.mock(ItemRequestVersionView.class);
+        Mockito.when(version.getRequestId()).thenReturn(1L);
+        Mockito.when(version.getItemId()).thenReturn(1L);
+        Mockito.when(version.getItemVersion()).thenReturn(0L);
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(getUserSummary(getUser())));
+        Mockito.when(itemRequestRepository.findAllVersionByRequestingUserId(1L))
+                .thenReturn(List.of(version));
+
+        String tag = itemRequestService.getTagByRequestingUserId(1L);
+        Mockito.when(version.getItemVersion()).thenReturn(1L);
+        String changedTag = itemRequestService.getTagByRequestingUserId(1L);
+
+        assertThat(tag, Matchers.startsWith("W/\"requests-"));
+        assertThat(changedTag, Matchers.not(Matchers.is(tag)));
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getTagByRequestingUserId_whenUserNotFound_thenThrowsNotFoundException() {
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.empty());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemRequestService.getTagByRequestingUserId(1L));
+        assertThat(exception.getMessage(), Matchers.is("User not found by id: 1"));
+    }
+
     private Item getItem(User user, ItemRequest itemRequest) {
         return Item.builder()
                 .id(1L)
@@ -127,6 +166,10 @@ class ItemRequestServiceImplTest {
                 .build();
     }
 
+    private UserSummary getUserSummary(User user) {
+        return new UserSummary(user.getId(), user.getName(), user.getEmail());
+    }
+
     private User getUser() {
         return User.builder()
                 .id(1L)
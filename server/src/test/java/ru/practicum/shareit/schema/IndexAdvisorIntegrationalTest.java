@@ -0,0 +1,54 @@
+package ru.practicum.shareit.schema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"shareit.index-advisor.enabled=true", "shareit.index-advisor.min-table-rows=0"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class IndexAdvisorIntegrationalTest {
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @Test
+    void advise_whenIndexesMigrated_thenForeignKeyLookupsUseIndexes() {
+        Map<String, QueryPlan> plans = indexAdvisor.advise().stream()
+                .collect(Collectors.toMap(QueryPlan::getQueryName, Function.identity()));
+
+        for (String queryName : List.of(
+                "BookingRepository.findAllInfoByBookerId",
+                "BookingRepository.findLastCurrentAndNextForDateTime",
+                "BookingRepository.countIntersectionInTime",
+                "ItemRepository.findAllByOwnerId",
+                "ItemRepository.findAllByItemRequestIdIn",
+                "ItemRepository.findAllByItemRequestId",
+                "CommentRepository.findAllByItemId",
+                "CommentRepository.findAllCommentsInIdList",
+                "ItemRequestRepository.findAllByRequestingUserId")) {
+            assertThat(queryName, plans, hasKey(queryName));
+            assertThat(queryName, plans.get(queryName).getSequentialScans(), is(anEmptyMap()));
+        }
+    }
+
+    @Test
+    void advise_whenQueryFiltersByInequality_thenSequentialScanReported() {
+        Map<String, QueryPlan> plans = indexAdvisor.advise().stream()
+                .collect(Collectors.toMap(QueryPlan::getQueryName, Function.identity()));
+
+        assertThat(plans.get("ItemRequestRepository.getAllWithOffsetAndLimit").getSequentialScans(),
+                hasKey("item_requests"));
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.user.directory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.event.UserUpdatedEvent;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryTest {
+    @Mock
+    UserRepository userRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final UserSummary USER = new UserSummary(1L, "name", "email@email.com");
+
+    @Test
+    void find_whenUserCached_thenRepositoryQueriedOnceAndHitCounted() {
+        UserDirectory userDirectory = new UserDirectory(userRepository, meterRegistry, true, 60000, 100);
+        Mockito.when(userRepository.findSummaryById(1L))
+                .thenReturn(Optional.of(USER));
+
+        assertThat(userDirectory.find(1L), is(Optional.of(USER)));
+        assertThat(userDirectory.find(1L), is(Optional.of(USER)));
+
+        Mockito.verify(userRepository, Mockito.times(1))
+                .findSummaryById(1L);
+        assertThat(getRequests("hit"), is(1.0));
+        assertThat(getRequests("miss"), is(1.0));
+        assertThat(meterRegistry.get("shareit.user.directory.size").gauge().value(), is(1.0));
+    }
+
+    @Test
+    void find_whenUserNotFound_thenNotCached() {
+        UserDirectory userDirectory = new UserDirectory(userRepository, meterRegistry, true, 60000, 100);
+        Mockito.when(userRepository.findSummaryById(1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(USER));
+
+        assertThat(userDirectory.find(1L), is(Optional.empty()));
+        assertThat(userDirectory.find(1L), is(Optional.of(USER)));
+
+        assertThat(getRequests("miss"), is(2.0));
+    }
+
+    @Test
+    void find_whenTtlExpired_thenUserReloaded() {
+        UserDirectory userDirectory = new UserDirectory(userRepository, meterRegistry, true, 0, 100);
+        Mockito.when(userRepository.findSummaryById(1L))
+                .thenReturn(Optional.of(USER))
+                .thenReturn(Optional.empty());
+
+        userDirectory.find(1L);
+
+        assertThat(userDirectory.find(1L), is(Optional.empty()));
+        assertThat(userDirectory.size(), is(0));
+    }
+
+    @Test
+    void onUserEvent_whenNoTransaction_thenUserReloadedAtOnce() {
+        UserDirectory userDirectory = new UserDirectory(userRepository, meterRegistry, true, 60000, 100);
+        UserSummary updated = new UserSummary(1L, "updated", "email@email.com");
+        Mockito.when(userRepository.findSummaryById(1L))
+                .thenReturn(Optional.of(USER))
+                .thenReturn(Optional.of(updated));
+        userDirectory.find(1L);
+
+        userDirectory.onUserEvent(new UserUpdatedEvent(1L));
+
+        assertThat(userDirectory.find(1L), is(Optional.of(updated)));
+    }
+
+    @Test
+    void find_whenUserEvictedWhileLoading_thenLoadedUserNotCached() {
+        UserDirectory userDirectory = new UserDirectory(userRepository, meterRegistry, true, 60000, 100);
+        UserSummary updated = new UserSummary(1L, "updated", "email@email.com");
+        Mockito.when(userRepository.findSummaryById(1L))
+                .thenAnswer(invocation -> {
+                    userDirectory.onUserEvent(new UserUpdatedEvent(1L));
+                    return Optional.of(USER);
+                })
+                .thenReturn(Optional.of(updated));
+
+        assertThat(userDirectory.find(1L), is(Optional.of(USER)));
+
+        assertThat(userDirectory.size(), is(0));
+        assertThat(userDirectory.find(1L), is(Optional.of(updated)));
+    }
+
+    @Test
+    void find_whenMaxSizeReached_thenDirectoryCleared() {
+        UserDirectory userDirectory = new UserDirectory(userRepository, meterRegistry, true, 60000, 2);
+        Mockito.when(userRepository.findSummaryById(Mockito.anyLong()))
+                .thenAnswer(invocation -> Optional.of(new UserSummary(invocation.getArgument(0), "name", "email")));
+
+        userDirectory.find(1L);
+        userDirectory.find(2L);
+        userDirectory.find(3L);
+
+        assertThat(userDirectory.size(), is(1));
+    }
+
+    @Test
+    void find_whenDisabled_thenRepositoryQueriedEveryTime() {
+        UserDirectory userDirectory = new UserDirectory(userRepository, meterRegistry, false, 60000, 100);
+        Mockito.when(userRepository.findSummaryById(1L))
+                .thenReturn(Optional.of(USER));
+
+        userDirectory.find(1L);
+        userDirectory.find(1L);
+
+        Mockito.verify(userRepository, Mockito.times(2))
+                .findSummaryById(1L);
+        assertThat(userDirectory.size(), is(0));
+    }
+
+    private double getRequests(String result) {
+        return meterRegistry.get("shareit.user.directory.requests").tag("result", result).counter().count();
+    }
+}
@@ -7,7 +7,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.event.UserDeletedEvent;
+import ru.practicum.shareit.event.UserUpdatedEvent;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.directory.UserDirectory;
+import ru.practicum.shareit.user.directory.UserSummary;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -23,6 +29,12 @@ import static org.mockito.ArgumentMatchers.any;
 class UserServiceImplTest {
     @Mock
     UserRepository userRepository;
+    @Mock
+    UserDirectory userDirectory;
+    @Mock
+    ItemRepository itemRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
 
     // MockedStatic<UserMapper> userMapperMockedStatic = Mockito.mockStatic(UserMapper.class);
 
@@ -83,6 +95,12 @@ class UserServiceImplTest {
         // equals&hashCode by id only (not fully correct verifying)
         Mockito.verify(userRepository, Mockito.times(1))
                 .save(any(User.class));
+        Mockito.verify(userRepository, Mockito.times(1))
+                .incrementVersionById(1L);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .incrementVersionByCommentAuthorId(1L);
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new UserUpdatedEvent(1L));
     }
 
     @Test
@@ -108,21 +126,23 @@ class UserServiceImplTest {
 
         Mockito.verify(userRepository, Mockito.times(1))
                 .deleteById(1L);
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new UserDeletedEvent(1L));
     }
 
     @Test
     void getById() {
-        User user = getUser();
-        Mockito.when(userRepository.findById(1L))
-                .thenReturn(Optional.of(user));
+        Mockito.when(userDirectory.find(1L))
+                .thenReturn(Optional.of(new UserSummary(1L, "name", "email@email.com")));
 
         UserDto actualUserDto = userService.getById(1L);
 
         assertThat(actualUserDto.getId(), Matchers.is(1L));
         assertThat(actualUserDto.getEmail(), Matchers.is("email@email.com"));
         assertThat(actualUserDto.getName(), Matchers.is("name"));
-        Mockito.verify(userRepository, Mockito.times(1))
-                .findById(1L);
+        Mockito.verify(userDirectory, Mockito.times(1))
+                .find(1L);
+        Mockito.verifyNoInteractions(userRepository);
     }
 
     private User getUser() {